@@ -0,0 +1,98 @@
+package com.manga.cache;
+
+import com.manga.dto.MangaResponse;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 缓存依赖收集器
+ *
+ * {@link TwoLevelCache} 在执行加载器前打开一个作用域，加载器内部通过
+ * {@link #dependsOn(String...)} / {@link #dependsOnManga(Collection)} 声明该条目
+ * 由哪些数据维度构建（见 {@link CacheTags}）。加载完成后，缓存把这些标签登记到
+ * {@link CacheDependencyRegistry}，写操作即可按标签精确失效。
+ *
+ * 作用域保存在线程栈上，支持加载器内部再调用其他缓存方法的嵌套场景。
+ */
+public final class CacheDependencies {
+
+    private static final ThreadLocal<Deque<Set<String>>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private CacheDependencies() {
+    }
+
+    /**
+     * 打开一个新的收集作用域，必须在 finally 中关闭
+     */
+    static Scope open() {
+        Set<String> tags = new LinkedHashSet<>();
+        SCOPES.get().push(tags);
+        return new Scope(tags);
+    }
+
+    /**
+     * 声明当前加载的条目依赖于给定标签（不在加载器中调用时忽略）
+     */
+    public static void dependsOn(String... tags) {
+        Set<String> current = SCOPES.get().peek();
+        if (current == null) {
+            return;
+        }
+        for (String tag : tags) {
+            current.add(tag);
+        }
+    }
+
+    /**
+     * 声明当前加载的条目包含这些漫画
+     */
+    public static void dependsOnManga(Collection<MangaResponse> manga) {
+        Set<String> current = SCOPES.get().peek();
+        if (current == null) {
+            return;
+        }
+        for (MangaResponse response : manga) {
+            current.add(CacheTags.manga(response.getId()));
+        }
+    }
+
+    /**
+     * 声明当前加载的条目包含这些漫画（只保存 id 的条目）
+     */
+    public static void dependsOnMangaIds(Collection<Long> mangaIds) {
+        Set<String> current = SCOPES.get().peek();
+        if (current == null) {
+            return;
+        }
+        for (Long mangaId : mangaIds) {
+            current.add(CacheTags.manga(mangaId));
+        }
+    }
+
+    static final class Scope implements AutoCloseable {
+
+        private final Set<String> tags;
+
+        private Scope(Set<String> tags) {
+            this.tags = tags;
+        }
+
+        Set<String> tags() {
+            return tags;
+        }
+
+        @Override
+        public void close() {
+            // 作用域严格嵌套，关闭的总是栈顶
+            Deque<Set<String>> scopes = SCOPES.get();
+            scopes.pop();
+            if (scopes.isEmpty()) {
+                SCOPES.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.manga.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 缓存依赖登记表（Redis 实现）
+ *
+ * 每个标签对应一个 Redis Set：manga:deps:{tag}，成员为 "{cacheName}::{key}"。
+ * 登记时批量 SADD（pipeline），失效时取出成员并删除这些 Set。
+ * Set 的过期时间不短于最长的缓存 TTL，条目自然过期后登记信息也随之消失。
+ */
+@Slf4j
+public class CacheDependencyRegistry {
+
+    private static final String KEY_PREFIX = "manga:deps:";
+    static final String MEMBER_SEPARATOR = "::";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    public CacheDependencyRegistry(StringRedisTemplate redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    /**
+     * 登记缓存条目依赖的标签
+     */
+    public void register(String cacheName, String key, Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        String member = cacheName + MEMBER_SEPARATOR + key;
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) {
+                    for (String tag : tags) {
+                        String setKey = KEY_PREFIX + tag;
+                        operations.opsForSet().add(setKey, member);
+                        operations.expire(setKey, ttl);
+                    }
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            // 登记失败只会让该条目退化为按 TTL 过期，不影响读请求
+            log.warn("Failed to register cache dependencies for {}: {}", member, e.getMessage());
+        }
+    }
+
+    /**
+     * 取出并删除给定标签下登记的所有条目
+     *
+     * @return "{cacheName}::{key}" 形式的条目列表（去重）
+     */
+    public Set<String> drain(Collection<String> tags) {
+        Set<String> members = new LinkedHashSet<>();
+        if (tags.isEmpty()) {
+            return members;
+        }
+        List<String> setKeys = new ArrayList<>(tags.size());
+        for (String tag : tags) {
+            setKeys.add(KEY_PREFIX + tag);
+        }
+
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                for (String setKey : setKeys) {
+                    operations.opsForSet().members(setKey);
+                }
+                return null;
+            }
+        });
+        for (Object result : results) {
+            if (result instanceof Collection<?> collection) {
+                for (Object member : collection) {
+                    members.add(String.valueOf(member));
+                }
+            }
+        }
+        redisTemplate.delete(setKeys);
+        return members;
+    }
+}
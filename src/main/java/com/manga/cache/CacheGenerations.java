@@ -0,0 +1,78 @@
+package com.manga.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存代号（generation）
+ *
+ * 每个缓存名称在 Redis 中有一个计数器 manga:gen:{cacheName}，并作为 key 前缀的一部分：
+ * manga:{cacheName}:g{generation}::{key}。
+ * 整体清空一个缓存只需 INCR 计数器（O(1)），旧代号下的 key 不再被访问，按 TTL 自然过期，
+ * 避免 RedisCacheManager 清空时对整个前缀做 SCAN + DEL。
+ *
+ * 代号读取经过一个短时本地备忘（默认 2 秒），避免每次缓存访问都多一次 Redis 往返；
+ * 其他节点最多在备忘过期后看到新的代号。
+ */
+@Slf4j
+public class CacheGenerations {
+
+    private static final String KEY_PREFIX = "manga:gen:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final long memoTtlNanos;
+    private final Map<String, Memo> memos = new ConcurrentHashMap<>();
+
+    public CacheGenerations(StringRedisTemplate redisTemplate, Duration memoTtl) {
+        this.redisTemplate = redisTemplate;
+        this.memoTtlNanos = memoTtl.toNanos();
+    }
+
+    /**
+     * 计算 Redis key 前缀，供 RedisCacheConfiguration#computePrefixWith 使用
+     */
+    public String prefixFor(String cacheName) {
+        return "manga:" + cacheName + ":g" + current(cacheName) + "::";
+    }
+
+    /**
+     * 当前代号（带本地备忘）
+     */
+    public long current(String cacheName) {
+        long now = System.nanoTime();
+        Memo memo = memos.get(cacheName);
+        if (memo != null && now - memo.fetchedAt < memoTtlNanos) {
+            return memo.generation;
+        }
+
+        long generation;
+        try {
+            String value = redisTemplate.opsForValue().get(KEY_PREFIX + cacheName);
+            generation = value != null ? Long.parseLong(value) : 0L;
+        } catch (Exception e) {
+            // Redis 不可用时沿用上次的代号
+            log.warn("Failed to read cache generation for {}: {}", cacheName, e.getMessage());
+            generation = memo != null ? memo.generation : 0L;
+        }
+        memos.put(cacheName, new Memo(generation, now));
+        return generation;
+    }
+
+    /**
+     * 递增代号，使该缓存的全部条目立即失效
+     */
+    public long bump(String cacheName) {
+        Long generation = redisTemplate.opsForValue().increment(KEY_PREFIX + cacheName);
+        long value = generation != null ? generation : 0L;
+        memos.put(cacheName, new Memo(value, System.nanoTime()));
+        log.info("Cache {} moved to generation {}", cacheName, value);
+        return value;
+    }
+
+    private record Memo(long generation, long fetchedAt) {
+    }
+}
@@ -0,0 +1,190 @@
+package com.manga.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 近端缓存（L1）跨节点失效总线（Redis pub/sub）
+ *
+ * 本节点的 {@link TwoLevelCache} 失效时只登记到待发送缓冲区，
+ * 在 batchDelay 内累积的失效合并成一条消息发布（同一 key 去重，整体清空的缓存不再带 key），
+ * 单条消息最多携带 maxBatchSize 个 key。例如一次 batchImportManga 提交后的上千个失效
+ * 只会产生少量消息。
+ *
+ * 所有节点订阅同一频道，收到其他节点的消息后只丢弃本地 L1 条目（L2 已由发送方删除）。
+ * 消息丢失时本地条目最多在 TTL 内保持旧值；整体清空还有代号兜底（见 {@link CacheGenerations}）。
+ */
+@Slf4j
+public class CacheInvalidationBus implements MessageListener, AutoCloseable {
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final long batchDelayMillis;
+    private final int maxBatchSize;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-bus");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter published;
+    private final Counter received;
+
+    private Map<String, Set<String>> pendingKeys = new LinkedHashMap<>();
+    private Set<String> pendingClears = new LinkedHashSet<>();
+    private boolean flushScheduled;
+    private volatile Consumer<Invalidation> handler = invalidation -> { };
+
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate, String channel, Duration batchDelay,
+                                int maxBatchSize, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.batchDelayMillis = batchDelay.toMillis();
+        this.maxBatchSize = maxBatchSize;
+        this.published = Counter.builder("cache.invalidation.messages")
+                .description("Near-cache invalidation messages exchanged between nodes")
+                .tags("direction", "published")
+                .register(meterRegistry);
+        this.received = Counter.builder("cache.invalidation.messages")
+                .description("Near-cache invalidation messages exchanged between nodes")
+                .tags("direction", "received")
+                .register(meterRegistry);
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * 设置收到其他节点失效消息时的处理逻辑（由 {@link TwoLevelCacheManager} 注册）
+     */
+    public void onInvalidation(Consumer<Invalidation> handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * 登记单个 key 的失效
+     */
+    public synchronized void publishEvict(String cacheName, Object key) {
+        if (pendingClears.contains(cacheName)) {
+            return;
+        }
+        pendingKeys.computeIfAbsent(cacheName, name -> new LinkedHashSet<>()).add(String.valueOf(key));
+        scheduleFlush();
+    }
+
+    /**
+     * 登记整个缓存的失效
+     */
+    public synchronized void publishClear(String cacheName) {
+        pendingKeys.remove(cacheName);
+        pendingClears.add(cacheName);
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+        scheduler.schedule(this::flush, batchDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 发送缓冲区中的全部失效
+     */
+    public void flush() {
+        Map<String, Set<String>> keys;
+        Set<String> clears;
+        synchronized (this) {
+            keys = pendingKeys;
+            clears = pendingClears;
+            pendingKeys = new LinkedHashMap<>();
+            pendingClears = new LinkedHashSet<>();
+            flushScheduled = false;
+        }
+        if (keys.isEmpty() && clears.isEmpty()) {
+            return;
+        }
+
+        List<Invalidation> batches = new ArrayList<>();
+        Invalidation batch = new Invalidation(nodeId, new LinkedHashMap<>(), new ArrayList<>(clears));
+        int size = 0;
+        for (Map.Entry<String, Set<String>> entry : keys.entrySet()) {
+            for (String key : entry.getValue()) {
+                if (size == maxBatchSize) {
+                    batches.add(batch);
+                    batch = new Invalidation(nodeId, new LinkedHashMap<>(), new ArrayList<>());
+                    size = 0;
+                }
+                batch.keys().computeIfAbsent(entry.getKey(), name -> new ArrayList<>()).add(key);
+                size++;
+            }
+        }
+        batches.add(batch);
+
+        for (Invalidation invalidation : batches) {
+            try {
+                redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(invalidation));
+                published.increment();
+            } catch (Exception e) {
+                // 发送失败时其他节点的本地条目按 TTL 过期
+                log.warn("Failed to publish cache invalidation: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Invalidation invalidation;
+        try {
+            invalidation = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), Invalidation.class);
+        } catch (Exception e) {
+            log.warn("Ignoring malformed cache invalidation message: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        received.increment();
+        handler.accept(invalidation);
+    }
+
+    @Override
+    public void close() {
+        flush();
+        scheduler.shutdown();
+    }
+
+    /**
+     * 一条失效消息
+     *
+     * @param origin 发送节点，节点忽略自己发出的消息
+     * @param keys   缓存名称 -> 需要丢弃的 key
+     * @param clears 需要整体清空的缓存名称
+     */
+    public record Invalidation(String origin, Map<String, List<String>> keys, List<String> clears) {
+    }
+}
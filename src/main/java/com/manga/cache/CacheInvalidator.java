@@ -0,0 +1,159 @@
+package com.manga.cache;
+
+import com.manga.config.CacheLayerProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 按依赖标签精确失效缓存
+ *
+ * 在事务中调用时，同一事务内的所有标签/键先合并，事务提交后统一失效一次
+ * （例如 batchImportManga 导入多部漫画只触发一次失效）；事务回滚则什么都不做。
+ * 不在事务中调用时立即失效。
+ *
+ * 需要整体失效的缓存（如新增漫画后的搜索结果）使用 {@link #clear(String)}，
+ * 由 {@link TwoLevelCache#clear()} 递增代号完成，不逐个删除 key。
+ * 每次失效后还会整体清空响应体缓存（见 {@link ResponseCacheFilter}）。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidator {
+
+    private final CacheManager cacheManager;
+    private final CacheDependencyRegistry dependencyRegistry;
+    private final CacheLayerProperties cacheLayerProperties;
+
+    /**
+     * 失效依赖于这些标签的所有缓存条目
+     */
+    public void invalidateTags(Collection<String> tags) {
+        Pending pending = currentPending();
+        if (pending != null) {
+            pending.tags.addAll(tags);
+            return;
+        }
+        flush(new LinkedHashSet<>(tags), Set.of(), Set.of());
+    }
+
+    /**
+     * 失效单个缓存键
+     */
+    public void evict(String cacheName, Object key) {
+        String member = cacheName + CacheDependencyRegistry.MEMBER_SEPARATOR + key;
+        Pending pending = currentPending();
+        if (pending != null) {
+            pending.keys.add(member);
+            return;
+        }
+        flush(Set.of(), Set.of(member), Set.of());
+    }
+
+    /**
+     * 整体失效一个缓存（递增代号）
+     */
+    public void clear(String cacheName) {
+        Pending pending = currentPending();
+        if (pending != null) {
+            pending.caches.add(cacheName);
+            return;
+        }
+        flush(Set.of(), Set.of(), Set.of(cacheName));
+    }
+
+    private Pending currentPending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending(this);
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private void flush(Set<String> tags, Set<String> keys, Set<String> caches) {
+        for (String cacheName : caches) {
+            Cache cache = targetCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+
+        Set<String> members = new LinkedHashSet<>(keys);
+        try {
+            members.addAll(dependencyRegistry.drain(tags));
+        } catch (Exception e) {
+            log.warn("Failed to resolve cache dependencies for {}: {}", tags, e.getMessage());
+        }
+
+        for (String member : members) {
+            int separator = member.indexOf(CacheDependencyRegistry.MEMBER_SEPARATOR);
+            if (separator < 0) {
+                continue;
+            }
+            String cacheName = member.substring(0, separator);
+            if (caches.contains(cacheName)) {
+                continue;
+            }
+            Cache cache = targetCache(cacheName);
+            if (cache != null) {
+                cache.evict(member.substring(separator + CacheDependencyRegistry.MEMBER_SEPARATOR.length()));
+            }
+        }
+        log.debug("Invalidated {} cache entries for tags {}", members.size(), tags);
+
+        // 响应体缓存由多个数据缓存拼装而成，任何数据失效都整体清空（递增代号，O(1)）
+        if (cacheLayerProperties.getResponse().isEnabled()
+                && !caches.contains(ResponseCacheFilter.CACHE_NAME)
+                && (!tags.isEmpty() || !keys.isEmpty() || !caches.isEmpty())) {
+            Cache responses = targetCache(ResponseCacheFilter.CACHE_NAME);
+            if (responses != null) {
+                responses.clear();
+            }
+        }
+    }
+
+    /**
+     * 此时处于事务完成回调中，直接操作目标缓存，避免事务装饰器再次延迟（延迟的回调不会再被触发）
+     */
+    private Cache targetCache(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            return decorator.getTargetCache();
+        }
+        return cache;
+    }
+
+    private final class Pending implements TransactionSynchronization {
+
+        private final Object resourceKey;
+        private final Set<String> tags = new LinkedHashSet<>();
+        private final Set<String> keys = new LinkedHashSet<>();
+        private final Set<String> caches = new LinkedHashSet<>();
+
+        private Pending(Object resourceKey) {
+            this.resourceKey = resourceKey;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(resourceKey);
+            if (status == STATUS_COMMITTED) {
+                flush(tags, keys, caches);
+            }
+        }
+    }
+}
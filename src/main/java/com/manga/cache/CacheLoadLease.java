@@ -0,0 +1,83 @@
+package com.manga.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * 跨节点加载租约
+ *
+ * 多个节点同时未命中同一个 key 时，通过 SET NX PX 抢占一个短租约，
+ * 只有拿到租约的节点执行加载，其他节点轮询 Redis 等待结果写入。
+ * 租约到期仍未等到结果时（加载节点宕机或加载过慢），等待方自行加载。
+ */
+@Slf4j
+public class CacheLoadLease {
+
+    private static final String KEY_PREFIX = "manga:lease:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration leaseTtl;
+    private final Duration pollInterval;
+    private final String owner = UUID.randomUUID().toString();
+
+    public CacheLoadLease(StringRedisTemplate redisTemplate, Duration leaseTtl, Duration pollInterval) {
+        this.redisTemplate = redisTemplate;
+        this.leaseTtl = leaseTtl;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * 尝试获取租约；Redis 异常时视为获取成功（退化为本节点加载）
+     */
+    public boolean tryAcquire(String cacheName, String key) {
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey(cacheName, key), owner, leaseTtl);
+            return !Boolean.FALSE.equals(acquired);
+        } catch (Exception e) {
+            log.warn("Failed to acquire cache load lease for {}::{}: {}", cacheName, key, e.getMessage());
+            return true;
+        }
+    }
+
+    public void release(String cacheName, String key) {
+        try {
+            String leaseKey = leaseKey(cacheName, key);
+            if (owner.equals(redisTemplate.opsForValue().get(leaseKey))) {
+                redisTemplate.delete(leaseKey);
+            }
+        } catch (Exception e) {
+            log.debug("Failed to release cache load lease for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    /**
+     * 在租约有效期内轮询，等待持有租约的节点把结果写入 Redis
+     *
+     * @return 等到的值，超时返回 null
+     */
+    public Cache.ValueWrapper await(Supplier<Cache.ValueWrapper> lookup) {
+        long deadline = System.nanoTime() + leaseTtl.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Cache.ValueWrapper wrapper = lookup.get();
+            if (wrapper != null && wrapper.get() != null) {
+                return wrapper;
+            }
+        }
+        return null;
+    }
+
+    private String leaseKey(String cacheName, String key) {
+        return KEY_PREFIX + cacheName + ":" + key;
+    }
+}
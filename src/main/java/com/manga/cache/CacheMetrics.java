@@ -0,0 +1,126 @@
+package com.manga.cache;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 单个缓存的指标（均带 cache 标签，可在 /actuator/metrics/{name}?tag=cache:{cacheName} 查看）
+ *
+ * - cache.gets{result=hit|miss, tier=local|remote}：命中 / 未命中
+ * - cache.load：加载器耗时（未命中时查询数据库的时间）
+ * - cache.redis.latency{op=get|put|evict}：Redis 往返耗时
+ * - cache.value.size：序列化后的值大小（字节，见 {@link MeteredValueSerializer}）
+ * - cache.evictions{cause=explicit|clear|size|expired}：失效与淘汰
+ * - cache.entries.unread：写入 L1 后直到被淘汰都没有再读过的条目（复用率低的 key，例如深页搜索）
+ * - cache.local.size：L1 当前条目数
+ * - cache.coalesced.waits / cache.coalesced.wait：请求合并
+ * - cache.refresh.ahead：提前刷新
+ */
+class CacheMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    final Counter localHits;
+    final Counter remoteHits;
+    final Counter misses;
+    final Timer load;
+    final Timer redisGet;
+    final Timer redisPut;
+    final Timer redisEvict;
+    final Counter explicitEvictions;
+    final Counter clears;
+    final Counter sizeEvictions;
+    final Counter expirations;
+    final Counter unreadEntries;
+    final Counter localCoalesced;
+    final Counter remoteCoalesced;
+    final Timer coalescedWait;
+    final Counter refreshSucceeded;
+    final Counter refreshFailed;
+    final Counter refreshRejected;
+
+    CacheMetrics(String cacheName, MeterRegistry registry) {
+        localHits = gets(registry, cacheName, "hit", "local");
+        remoteHits = gets(registry, cacheName, "hit", "remote");
+        misses = gets(registry, cacheName, "miss", "remote");
+        load = Timer.builder("cache.load")
+                .description("Time spent in the value loader on a cache miss")
+                .tags("cache", cacheName)
+                .publishPercentiles(PERCENTILES)
+                .register(registry);
+        redisGet = redisLatency(registry, cacheName, "get");
+        redisPut = redisLatency(registry, cacheName, "put");
+        redisEvict = redisLatency(registry, cacheName, "evict");
+        explicitEvictions = evictions(registry, cacheName, "explicit");
+        clears = evictions(registry, cacheName, "clear");
+        sizeEvictions = evictions(registry, cacheName, "size");
+        expirations = evictions(registry, cacheName, "expired");
+        unreadEntries = Counter.builder("cache.entries.unread")
+                .description("Local entries removed without ever being read after they were written")
+                .tags("cache", cacheName)
+                .register(registry);
+        localCoalesced = coalesced(registry, cacheName, "local");
+        remoteCoalesced = coalesced(registry, cacheName, "remote");
+        coalescedWait = Timer.builder("cache.coalesced.wait")
+                .description("Time spent waiting for an in-flight load")
+                .tags("cache", cacheName)
+                .register(registry);
+        refreshSucceeded = refresh(registry, cacheName, "success");
+        refreshFailed = refresh(registry, cacheName, "failure");
+        refreshRejected = refresh(registry, cacheName, "rejected");
+    }
+
+    /**
+     * L1 条目被移除：只统计容量淘汰和过期，显式失效已在 evict/clear 中计数
+     */
+    void recordLocalRemoval(TwoLevelCache.LocalEntry entry, RemovalCause cause) {
+        if (cause == RemovalCause.SIZE) {
+            sizeEvictions.increment();
+        } else if (cause == RemovalCause.EXPIRED) {
+            expirations.increment();
+        } else {
+            return;
+        }
+        if (entry != null && !entry.wasRead()) {
+            unreadEntries.increment();
+        }
+    }
+
+    private static Counter gets(MeterRegistry registry, String cacheName, String result, String tier) {
+        return Counter.builder("cache.gets")
+                .description("Cache lookups")
+                .tags("cache", cacheName, "result", result, "tier", tier)
+                .register(registry);
+    }
+
+    private static Timer redisLatency(MeterRegistry registry, String cacheName, String op) {
+        return Timer.builder("cache.redis.latency")
+                .description("Redis round-trip time of cache operations")
+                .tags("cache", cacheName, "op", op)
+                .publishPercentiles(PERCENTILES)
+                .register(registry);
+    }
+
+    private static Counter evictions(MeterRegistry registry, String cacheName, String cause) {
+        return Counter.builder("cache.evictions")
+                .description("Cache entries invalidated or evicted")
+                .tags("cache", cacheName, "cause", cause)
+                .register(registry);
+    }
+
+    private static Counter coalesced(MeterRegistry registry, String cacheName, String scope) {
+        return Counter.builder("cache.coalesced.waits")
+                .description("Cache misses that waited for an in-flight load instead of loading")
+                .tags("cache", cacheName, "scope", scope)
+                .register(registry);
+    }
+
+    private static Counter refresh(MeterRegistry registry, String cacheName, String result) {
+        return Counter.builder("cache.refresh.ahead")
+                .description("Background refreshes of entries close to expiry")
+                .tags("cache", cacheName, "result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,61 @@
+package com.manga.cache;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+
+/**
+ * 记录当前线程正在执行的 @Cacheable 方法调用，供 {@link TwoLevelCache} 的提前刷新在后台重新调用
+ *
+ * 必须排在缓存拦截器之外（最高优先级），这样缓存加载时能取到这次调用。
+ * 后台刷新通过代理重新调用同一个方法和参数，完整经过缓存、事务等拦截器，
+ * 而不是在另一个线程上重放 Spring 传入的、与原请求绑定的加载器。
+ */
+public class CacheReloadInterceptor implements MethodInterceptor {
+
+    private static final ThreadLocal<Callable<Object>> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (!(invocation instanceof ProxyMethodInvocation proxyInvocation)) {
+            return invocation.proceed();
+        }
+        Object proxy = proxyInvocation.getProxy();
+        Method method = invocation.getMethod();
+        Object[] arguments = invocation.getArguments().clone();
+
+        Callable<Object> previous = CURRENT.get();
+        CURRENT.set(() -> invoke(proxy, method, arguments));
+        try {
+            return invocation.proceed();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * 当前线程正在执行的缓存方法的重新调用入口，不经过代理调用（例如直接使用 Cache API）时为 null
+     */
+    static Callable<Object> current() {
+        return CURRENT.get();
+    }
+
+    private static Object invoke(Object proxy, Method method, Object[] arguments) throws Exception {
+        try {
+            return method.invoke(proxy, arguments);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.manga.cache;
+
+import com.manga.entity.Manga;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 缓存依赖标签
+ *
+ * 列表类条目按"维度"打标签（地区、受众、标签、精选/推荐/新作等），
+ * 同时对页面中出现的每部漫画打上 manga:{id} 标签。
+ * 写操作只需计算出受影响的标签，即可失效对应的条目，而不必清空整个缓存。
+ *
+ * 搜索结果只登记页面中的漫画：任何新漫画都可能命中任意关键词，
+ * 因此新增时整体失效 mangaSearch（递增代号），删除时按 manga:{id} 失效。
+ */
+public final class CacheTags {
+
+    public static final String LIST_ALL = "list:all";
+    public static final String LIST_LATEST = "list:latest";
+    public static final String LIST_POPULAR = "list:popular";
+    public static final String LIST_CHOICENESS = "list:choiceness";
+    public static final String LIST_RECOMMENDED = "list:recommended";
+    public static final String LIST_NEW = "list:new";
+    public static final String LIST_UPDATED = "list:updated";
+
+    private CacheTags() {
+    }
+
+    public static String manga(Long mangaId) {
+        return "manga:" + mangaId;
+    }
+
+    public static String chapters(Long mangaId) {
+        return "chapters:" + mangaId;
+    }
+
+    public static String country(String country) {
+        return "country:" + country;
+    }
+
+    public static String tendency(String tendency) {
+        return "tendency:" + tendency;
+    }
+
+    public static String tag(String tag) {
+        return "tag:" + tag;
+    }
+
+    /**
+     * 计算一部漫画可能出现的所有列表维度（含自身的 manga:{id} 标签）
+     *
+     * 新增或删除一部上架漫画会改变这些列表的排序位置和总数，
+     * 因此这些维度下的所有分页都需要失效。
+     */
+    public static Set<String> listDimensionsOf(Manga manga) {
+        Set<String> tags = new LinkedHashSet<>();
+        tags.add(manga(manga.getId()));
+        if (!Boolean.TRUE.equals(manga.getIsPutaway())) {
+            return tags;
+        }
+
+        tags.add(LIST_ALL);
+        tags.add(LIST_LATEST);
+        tags.add(LIST_POPULAR);
+        if (Boolean.TRUE.equals(manga.getIsChoiceness())) {
+            tags.add(LIST_CHOICENESS);
+        }
+        if (Boolean.TRUE.equals(manga.getIsRecommend())) {
+            tags.add(LIST_RECOMMENDED);
+        }
+        if (Boolean.TRUE.equals(manga.getIsNew())) {
+            tags.add(LIST_NEW);
+        }
+        if (manga.getLatestChapterAt() != null || (manga.getChapterCount() != null && manga.getChapterCount() > 0)) {
+            tags.add(LIST_UPDATED);
+        }
+        if (manga.getCountry() != null) {
+            tags.add(country(manga.getCountry()));
+        }
+        if (manga.getTendency() != null) {
+            tags.add(tendency(manga.getTendency()));
+        }
+        if (manga.getTags() != null) {
+            for (String tag : manga.getTags()) {
+                tags.add(tag(tag));
+            }
+        }
+        return tags;
+    }
+}
@@ -0,0 +1,494 @@
+package com.manga.cache;
+
+import com.manga.dto.ChapterResponse;
+import com.manga.dto.MangaResponse;
+import com.manga.dto.TagsResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 缓存值的紧凑二进制编码
+ *
+ * 格式：[版本号 1 字节][类型 1 字节][数据]
+ * - MangaResponse / ChapterResponse：先写一个非空字段位图，再按固定顺序写非空字段，不带字段名和类名
+ * - Page：页码、页大小、总数、排序，再逐个写元素
+ * - CachedResponse：Content-Type、是否压缩、响应体字节
+ * - 其他无法识别的值：整体交给 JSON 序列化器（类型字节为 {@link #TYPE_JSON}）
+ * 整数使用变长编码，字符串为「长度 + UTF-8 字节」，时间为 UTC 秒数 + 纳秒。
+ *
+ * 版本号用于滚动发布：DTO 字段变化时递增 {@link #VERSION}，
+ * 旧版本写入的条目在读取时视为未命中（返回 null），由加载器重建，无需清空 Redis。
+ * 以 '{' / '[' 开头的旧 JSON 条目仍按 JSON 解码。
+ */
+@Slf4j
+public class CacheValueCodec implements RedisSerializer<Object> {
+
+    /**
+     * 编码版本，修改任何 DTO 的字段顺序或字段集合时必须递增
+     */
+    static final byte VERSION = 2;
+
+    private static final byte TYPE_JSON = 0;
+    private static final byte TYPE_NULL = 1;
+    private static final byte TYPE_STRING = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_INTEGER = 4;
+    private static final byte TYPE_MANGA = 10;
+    private static final byte TYPE_CHAPTER = 11;
+    private static final byte TYPE_TAGS = 12;
+    private static final byte TYPE_RESPONSE = 13;
+    private static final byte TYPE_LIST = 20;
+    private static final byte TYPE_PAGE = 21;
+
+    private final RedisSerializer<Object> fallback;
+
+    /**
+     * @param fallback 不支持的类型及旧 JSON 条目使用的序列化器
+     */
+    public CacheValueCodec(RedisSerializer<Object> fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        Writer writer = new Writer();
+        writer.writeByte(VERSION);
+        try {
+            writeValue(writer, value);
+        } catch (UnsupportedValueException e) {
+            byte[] json = fallback.serialize(value);
+            writer = new Writer();
+            writer.writeByte(VERSION);
+            writer.writeByte(TYPE_JSON);
+            writer.writeBytes(json != null ? json : new byte[0]);
+        }
+        return writer.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        // 切换编码前写入的 JSON 条目
+        if (bytes[0] == '{' || bytes[0] == '[') {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes[0] != VERSION) {
+            log.debug("Ignoring cache value written with codec version {}", bytes[0]);
+            return null;
+        }
+
+        Reader reader = new Reader(bytes, 1);
+        try {
+            if (reader.peekByte() == TYPE_JSON) {
+                return fallback.deserialize(Arrays.copyOfRange(bytes, 2, bytes.length));
+            }
+            return readValue(reader);
+        } catch (IndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated cache value", e);
+        }
+    }
+
+    // ==================== 编码 ====================
+
+    private void writeValue(Writer writer, Object value) {
+        if (value == null) {
+            writer.writeByte(TYPE_NULL);
+        } else if (value instanceof String string) {
+            writer.writeByte(TYPE_STRING);
+            writer.writeString(string);
+        } else if (value instanceof Long number) {
+            writer.writeByte(TYPE_LONG);
+            writer.writeVarLong(number);
+        } else if (value instanceof Integer number) {
+            writer.writeByte(TYPE_INTEGER);
+            writer.writeVarLong(number);
+        } else if (value instanceof MangaResponse manga) {
+            writer.writeByte(TYPE_MANGA);
+            writeManga(writer, manga);
+        } else if (value instanceof ChapterResponse chapter) {
+            writer.writeByte(TYPE_CHAPTER);
+            writeChapter(writer, chapter);
+        } else if (value instanceof TagsResponse tags) {
+            writer.writeByte(TYPE_TAGS);
+            writeStrings(writer, tags.getTags());
+        } else if (value instanceof CachedResponse response) {
+            writer.writeByte(TYPE_RESPONSE);
+            writer.writeString(response.contentType());
+            writer.writeBoolean(response.gzipped());
+            writer.writeVarLong(response.body().length);
+            writer.writeBytes(response.body());
+        } else if (value instanceof Page<?> page) {
+            writer.writeByte(TYPE_PAGE);
+            writePage(writer, page);
+        } else if (value instanceof List<?> list) {
+            writer.writeByte(TYPE_LIST);
+            writer.writeVarLong(list.size());
+            for (Object element : list) {
+                writeValue(writer, element);
+            }
+        } else {
+            throw new UnsupportedValueException();
+        }
+    }
+
+    private void writeManga(Writer writer, MangaResponse manga) {
+        Object[] fields = {
+                manga.getId(), manga.getTitle(), manga.getOldName(), manga.getDescription(),
+                manga.getCoverImageUrl(), manga.getDetailImages(), manga.getAuthor(), manga.getSlogan(),
+                manga.getIsChoiceness(), manga.getIsRecommend(), manga.getIsNew(), manga.getPeriod(),
+                manga.getIsPutaway(), manga.getPutawayTime(), manga.getOnlineTime(), manga.getTendency(),
+                manga.getCountry(), manga.getIsFinish(), manga.getSortOrder(), manga.getViewCount(),
+                manga.getFavoriteCount(), manga.getChapterCount(), manga.getTags(), manga.getLabels(),
+                manga.getSource(), manga.getCreatedAt(), manga.getUpdatedAt(), manga.getLatestChapterNumber(),
+                manga.getLatestChapterAt()
+        };
+        // 字段顺序即编码格式，必须与 readManga 一致
+        writer.writeVarLong(presence(fields));
+        for (Object field : fields) {
+            writeIfPresent(writer, field);
+        }
+    }
+
+    private void writeChapter(Writer writer, ChapterResponse chapter) {
+        Object[] fields = {
+                chapter.getId(), chapter.getMangaId(), chapter.getTitle(), chapter.getChapterNumber(),
+                chapter.getViewCount(), chapter.getPageUrls(), chapter.getCreatedAt()
+        };
+        writer.writeVarLong(presence(fields));
+        for (Object field : fields) {
+            writeIfPresent(writer, field);
+        }
+    }
+
+    private void writePage(Writer writer, Page<?> page) {
+        Pageable pageable = page.getPageable();
+        writer.writeBoolean(pageable.isPaged());
+        if (pageable.isPaged()) {
+            writer.writeVarLong(pageable.getPageNumber());
+            writer.writeVarLong(pageable.getPageSize());
+        }
+        writer.writeVarLong(page.getTotalElements());
+
+        List<Sort.Order> orders = page.getSort().toList();
+        writer.writeVarLong(orders.size());
+        for (Sort.Order order : orders) {
+            writer.writeString(order.getProperty());
+            writer.writeBoolean(order.isAscending());
+        }
+
+        List<?> content = page.getContent();
+        writer.writeVarLong(content.size());
+        for (Object element : content) {
+            writeValue(writer, element);
+        }
+    }
+
+    private static long presence(Object[] fields) {
+        long bits = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                bits |= 1L << i;
+            }
+        }
+        return bits;
+    }
+
+    private static void writeIfPresent(Writer writer, Object field) {
+        if (field == null) {
+            return;
+        }
+        if (field instanceof String string) {
+            writer.writeString(string);
+        } else if (field instanceof Long number) {
+            writer.writeVarLong(number);
+        } else if (field instanceof Integer number) {
+            writer.writeVarLong(number);
+        } else if (field instanceof Boolean bool) {
+            writer.writeBoolean(bool);
+        } else if (field instanceof LocalDateTime time) {
+            writer.writeVarLong(time.toEpochSecond(ZoneOffset.UTC));
+            writer.writeVarLong(time.getNano());
+        } else if (field instanceof Collection<?> strings) {
+            writeStrings(writer, strings);
+        } else {
+            throw new UnsupportedValueException();
+        }
+    }
+
+    private static void writeStrings(Writer writer, Collection<?> strings) {
+        if (strings == null) {
+            writer.writeVarLong(-1);
+            return;
+        }
+        writer.writeVarLong(strings.size());
+        for (Object string : strings) {
+            writer.writeString(String.valueOf(string));
+        }
+    }
+
+    // ==================== 解码 ====================
+
+    private Object readValue(Reader reader) {
+        byte type = reader.readByte();
+        return switch (type) {
+            case TYPE_NULL -> null;
+            case TYPE_STRING -> reader.readString();
+            case TYPE_LONG -> reader.readVarLong();
+            case TYPE_INTEGER -> (int) reader.readVarLong();
+            case TYPE_MANGA -> readManga(reader);
+            case TYPE_CHAPTER -> readChapter(reader);
+            case TYPE_TAGS -> TagsResponse.of(readStringList(reader));
+            case TYPE_RESPONSE -> readResponse(reader);
+            case TYPE_PAGE -> readPage(reader);
+            case TYPE_LIST -> {
+                int size = (int) reader.readVarLong();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(reader));
+                }
+                yield list;
+            }
+            default -> throw new SerializationException("Unknown cache value type " + type);
+        };
+    }
+
+    private MangaResponse readManga(Reader reader) {
+        long bits = reader.readVarLong();
+        MangaResponse manga = new MangaResponse();
+        int field = 0;
+        if (has(bits, field++)) manga.setId(reader.readVarLong());
+        if (has(bits, field++)) manga.setTitle(reader.readString());
+        if (has(bits, field++)) manga.setOldName(reader.readString());
+        if (has(bits, field++)) manga.setDescription(reader.readString());
+        if (has(bits, field++)) manga.setCoverImageUrl(reader.readString());
+        if (has(bits, field++)) manga.setDetailImages(readStringList(reader));
+        if (has(bits, field++)) manga.setAuthor(reader.readString());
+        if (has(bits, field++)) manga.setSlogan(reader.readString());
+        if (has(bits, field++)) manga.setIsChoiceness(reader.readBoolean());
+        if (has(bits, field++)) manga.setIsRecommend(reader.readBoolean());
+        if (has(bits, field++)) manga.setIsNew(reader.readBoolean());
+        if (has(bits, field++)) manga.setPeriod(reader.readString());
+        if (has(bits, field++)) manga.setIsPutaway(reader.readBoolean());
+        if (has(bits, field++)) manga.setPutawayTime(readTime(reader));
+        if (has(bits, field++)) manga.setOnlineTime(readTime(reader));
+        if (has(bits, field++)) manga.setTendency(reader.readString());
+        if (has(bits, field++)) manga.setCountry(reader.readString());
+        if (has(bits, field++)) manga.setIsFinish(reader.readString());
+        if (has(bits, field++)) manga.setSortOrder((int) reader.readVarLong());
+        if (has(bits, field++)) manga.setViewCount((int) reader.readVarLong());
+        if (has(bits, field++)) manga.setFavoriteCount((int) reader.readVarLong());
+        if (has(bits, field++)) manga.setChapterCount((int) reader.readVarLong());
+        if (has(bits, field++)) manga.setTags(readStringSet(reader));
+        if (has(bits, field++)) manga.setLabels(readStringSet(reader));
+        if (has(bits, field++)) manga.setSource(reader.readString());
+        if (has(bits, field++)) manga.setCreatedAt(readTime(reader));
+        if (has(bits, field++)) manga.setUpdatedAt(readTime(reader));
+        if (has(bits, field++)) manga.setLatestChapterNumber((int) reader.readVarLong());
+        if (has(bits, field)) manga.setLatestChapterAt(readTime(reader));
+        return manga;
+    }
+
+    private ChapterResponse readChapter(Reader reader) {
+        long bits = reader.readVarLong();
+        ChapterResponse chapter = new ChapterResponse();
+        int field = 0;
+        if (has(bits, field++)) chapter.setId(reader.readVarLong());
+        if (has(bits, field++)) chapter.setMangaId(reader.readVarLong());
+        if (has(bits, field++)) chapter.setTitle(reader.readString());
+        if (has(bits, field++)) chapter.setChapterNumber((int) reader.readVarLong());
+        if (has(bits, field++)) chapter.setViewCount((int) reader.readVarLong());
+        if (has(bits, field++)) chapter.setPageUrls(readStringList(reader));
+        if (has(bits, field)) chapter.setCreatedAt(readTime(reader));
+        return chapter;
+    }
+
+    private static CachedResponse readResponse(Reader reader) {
+        String contentType = reader.readString();
+        boolean gzipped = reader.readBoolean();
+        byte[] body = reader.readBytes((int) reader.readVarLong());
+        return new CachedResponse(contentType, body, gzipped);
+    }
+
+    private Page<Object> readPage(Reader reader) {
+        boolean paged = reader.readBoolean();
+        int pageNumber = paged ? (int) reader.readVarLong() : 0;
+        int pageSize = paged ? (int) reader.readVarLong() : 0;
+        long total = reader.readVarLong();
+
+        int orderCount = (int) reader.readVarLong();
+        List<Sort.Order> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            String property = reader.readString();
+            orders.add(reader.readBoolean() ? Sort.Order.asc(property) : Sort.Order.desc(property));
+        }
+
+        int size = (int) reader.readVarLong();
+        List<Object> content = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            content.add(readValue(reader));
+        }
+        Pageable pageable = paged ? PageRequest.of(pageNumber, pageSize, Sort.by(orders)) : Pageable.unpaged();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private static boolean has(long bits, int field) {
+        return (bits & (1L << field)) != 0;
+    }
+
+    private static LocalDateTime readTime(Reader reader) {
+        long seconds = reader.readVarLong();
+        int nanos = (int) reader.readVarLong();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static List<String> readStringList(Reader reader) {
+        int size = (int) reader.readVarLong();
+        if (size < 0) {
+            return null;
+        }
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(reader.readString());
+        }
+        return strings;
+    }
+
+    private static Set<String> readStringSet(Reader reader) {
+        List<String> strings = readStringList(reader);
+        return strings != null ? new LinkedHashSet<>(strings) : null;
+    }
+
+    // ==================== 字节读写 ====================
+
+    private static final class UnsupportedValueException extends RuntimeException {
+        private UnsupportedValueException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer = new byte[256];
+        private int position;
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeBoolean(boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        /**
+         * ZigZag + 变长编码，小的正负数都只占 1~2 字节
+         */
+        void writeVarLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                writeByte((int) ((zigzag & 0x7F) | 0x80));
+                zigzag >>>= 7;
+            }
+            writeByte((int) zigzag);
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            writeBytes(bytes);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensure(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        byte peekByte() {
+            return buffer[position];
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        long readVarLong() {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = readByte();
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            checkAvailable(length);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        byte[] readBytes(int length) {
+            checkAvailable(length);
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        private void checkAvailable(int length) {
+            if (length < 0 || position + length > buffer.length) {
+                throw new IndexOutOfBoundsException(position + length);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.manga.cache;
+
+/**
+ * 缓存的完整响应体（已拼接 CDN URL 并序列化为 JSON）
+ *
+ * @param contentType 响应的 Content-Type
+ * @param body        响应体字节，gzipped 为 true 时是 gzip 压缩后的字节
+ * @param gzipped     是否已预先压缩
+ */
+public record CachedResponse(String contentType, byte[] body, boolean gzipped) {
+}
@@ -0,0 +1,42 @@
+package com.manga.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 记录缓存值序列化后大小的序列化器包装
+ *
+ * 每个缓存名称使用一个实例，写入时把字节数记录到 cache.value.size{cache}，
+ * 用于判断哪些缓存的条目过大（例如大页码的列表页）。
+ */
+public class MeteredValueSerializer implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> delegate;
+    private final DistributionSummary valueSize;
+
+    public MeteredValueSerializer(RedisSerializer<Object> delegate, String cacheName, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.valueSize = DistributionSummary.builder("cache.value.size")
+                .description("Serialized size of cache values written to Redis")
+                .baseUnit("bytes")
+                .tags("cache", cacheName)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes != null) {
+            valueSize.record(bytes.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        return delegate.deserialize(bytes);
+    }
+}
@@ -0,0 +1,180 @@
+package com.manga.cache;
+
+import com.manga.config.CacheLayerProperties;
+import com.manga.config.CdnProperties;
+import com.manga.counter.CounterOverlay;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 响应体缓存
+ *
+ * 对 cache.response.paths 中的 GET 接口，缓存最终的响应字节（CDN URL 已拼接、JSON 已序列化，
+ * 超过 gzipMinSize 时预先 gzip），命中时跳过 Controller、CDN 拼接和 Jackson 序列化，直接写出字节。
+ * 客户端支持 gzip 时原样返回压缩字节，否则解压后返回。
+ *
+ * 缓存 key = 路径 + 排序后的查询参数 + CDN 配置指纹，CDN 域名变化后旧条目不再命中。
+ * 条目存放在 {@link #CACHE_NAME} 二级缓存中；数据缓存任何失效后由 {@link CacheInvalidator} 整体清空。
+ * 只缓存 200 且为 JSON 的响应。
+ *
+ * 启用实时计数叠加（counter.store=redis）时，cache.response.live-count-paths 中的接口不经过该缓存，
+ * 否则响应中的浏览量会停留在写入缓存时的值。cache.response.exclusions 中的请求（路径匹配且带有指定参数）
+ * 同样不经过该缓存，例如 /api/manga/popular?window=… 的热度榜每个 trending.refresh-interval 重建一次。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    public static final String CACHE_NAME = "responses";
+
+    private static final String CACHE_STATUS_HEADER = "X-Response-Cache";
+
+    private final CacheManager cacheManager;
+    private final CacheLayerProperties cacheLayerProperties;
+    private final CdnProperties cdnProperties;
+    private final CounterOverlay counterOverlay;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        CacheLayerProperties.Response config = cacheLayerProperties.getResponse();
+        if (!config.isEnabled() || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (config.getPaths().stream().noneMatch(pattern -> pathMatcher.match(pattern, path))) {
+            return true;
+        }
+        if (config.getExclusions().stream().anyMatch(exclusion -> pathMatcher.match(exclusion.getPath(), path)
+                && StringUtils.hasText(request.getParameter(exclusion.getParameter())))) {
+            return true;
+        }
+        return counterOverlay.isEnabled()
+                && config.getLiveCountPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = cacheKey(request);
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+
+        CachedResponse cached = null;
+        try {
+            cached = cache != null ? cache.get(key, CachedResponse.class) : null;
+        } catch (RuntimeException e) {
+            log.warn("Response cache lookup failed: {}", e.getMessage());
+        }
+        if (cached != null) {
+            write(cached, request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        wrapper.setHeader(CACHE_STATUS_HEADER, "MISS");
+        try {
+            chain.doFilter(request, wrapper);
+            if (cache != null && wrapper.getStatus() == HttpStatus.OK.value() && isJson(wrapper.getContentType())) {
+                cache.put(key, render(wrapper.getContentType(), wrapper.getContentAsByteArray()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to store response in cache: {}", e.getMessage());
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private String cacheKey(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : parameters.entrySet()) {
+            key.append(separator).append(parameter.getKey()).append('=')
+                    .append(String.join(",", parameter.getValue()));
+            separator = '&';
+        }
+        return key.append("#cdn:").append(cdnFingerprint()).toString();
+    }
+
+    /**
+     * CDN 配置指纹：决定响应中的 URL 形态
+     */
+    private String cdnFingerprint() {
+        String baseUrl = cdnProperties.isEnabled() ? cdnProperties.getBaseUrl() : "";
+        return Integer.toHexString((baseUrl != null ? baseUrl : "").hashCode());
+    }
+
+    private CachedResponse render(String contentType, byte[] body) throws IOException {
+        CacheLayerProperties.Response config = cacheLayerProperties.getResponse();
+        if (!config.isGzip() || body.length < config.getGzipMinSize()) {
+            return new CachedResponse(contentType, body, false);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return new CachedResponse(contentType, compressed.toByteArray(), true);
+    }
+
+    private void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        byte[] body = cached.body();
+        if (cached.gzipped()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(request)) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            } else {
+                try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                    body = gzip.readAllBytes();
+                }
+            }
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(cached.contentType());
+        response.setContentLength(body.length);
+        response.setHeader(CACHE_STATUS_HEADER, "HIT");
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && Arrays.stream(acceptEncoding.split(","))
+                .map(String::trim)
+                .anyMatch(encoding -> encoding.startsWith("gzip") && !encoding.endsWith("q=0"));
+    }
+
+    private static boolean isJson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            return MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.manga.cache;
+
+/**
+ * 写入 Redis 的缓存值及其写入时间（毫秒时间戳）
+ *
+ * 由 {@link TwoLevelCache} 写入，经 {@link TimestampedValueSerializer} 编码；
+ * 其他节点从 Redis 回填 L1 时据此沿用原写入时间，而不是从回填时刻重新计时。
+ */
+public record TimestampedValue(Object value, long writtenAtMillis) {
+}
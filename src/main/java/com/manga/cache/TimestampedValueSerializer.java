@@ -0,0 +1,53 @@
+package com.manga.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 在缓存值前附加写入时间的序列化器包装
+ *
+ * 格式：[标记 1 字节][写入时间 8 字节][原序列化器的字节]。
+ * 标记字节不会出现在 {@link CacheValueCodec} 或 JSON 编码的开头，
+ * 不带标记的旧条目原样交给原序列化器，读出的值不带写入时间。
+ * 原序列化器返回 null（例如编码版本不一致）时整体视为未命中。
+ */
+public class TimestampedValueSerializer implements RedisSerializer<Object> {
+
+    private static final byte MARKER = 0x7F;
+    private static final int HEADER_LENGTH = 1 + Long.BYTES;
+
+    private final RedisSerializer<Object> delegate;
+
+    public TimestampedValueSerializer(RedisSerializer<Object> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (!(value instanceof TimestampedValue timestamped)) {
+            return delegate.serialize(value);
+        }
+        byte[] bytes = delegate.serialize(timestamped.value());
+        int length = bytes != null ? bytes.length : 0;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + length)
+                .put(MARKER)
+                .putLong(timestamped.writtenAtMillis());
+        if (bytes != null) {
+            buffer.put(bytes);
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < HEADER_LENGTH || bytes[0] != MARKER) {
+            return delegate.deserialize(bytes);
+        }
+        long writtenAtMillis = ByteBuffer.wrap(bytes, 1, Long.BYTES).getLong();
+        Object value = delegate.deserialize(Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length));
+        return value != null ? new TimestampedValue(value, writtenAtMillis) : null;
+    }
+}
@@ -0,0 +1,370 @@
+package com.manga.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 二级缓存：L1 进程内 Caffeine 近端缓存 + L2 Redis 缓存
+ *
+ * 读取顺序：L1 -> L2 -> 加载器；L2 命中时回填 L1。
+ * 写入 Redis 的值带写入时间（{@link TimestampedValue}），回填的 L1 条目沿用原写入时间，
+ * 剩余寿命与 Redis 中的条目一致。
+ * 写入/失效同时作用于两级。L1 的 key 统一转为字符串，
+ * 与 RedisCache 生成的 key 保持一致（例如 5L 与 "5" 对应同一个条目），
+ * 并带上当前代号（见 {@link CacheGenerations}），其他节点递增代号后本地旧条目自动失效。
+ * {@link #clear()} 只递增代号，不扫描 Redis。
+ * L1 可以为 null（该缓存只走 Redis）。
+ *
+ * 通过 {@link #get(Object, Callable)} 加载的条目会收集加载器声明的依赖标签
+ * （见 {@link CacheDependencies}），并登记到 {@link CacheDependencyRegistry}。
+ *
+ * 未命中时按 key 合并请求（single-flight）：同一节点上同一 key 只有一个线程执行加载器，
+ * 其他线程等待其结果；配置了 {@link CacheLoadLease} 时，跨节点也只有一个节点加载。
+ *
+ * 配置了 refreshAfter 的缓存支持提前刷新（stale-while-revalidate）：
+ * L1 条目存活超过 refreshAfter 后，命中时仍返回旧值，同时在有界线程池中经由代理重新调用原缓存方法
+ * （见 {@link CacheReloadInterceptor}），新值写回 L1 和 L2（同时重置 Redis TTL），
+ * 用户请求不会因为过期而阻塞在查询上。
+ *
+ * 配置了 {@link CacheInvalidationBus} 时，失效会广播给其他节点，由它们丢弃各自的 L1 条目
+ * （{@link #evictLocal(Object)} / {@link #clearLocal()}）。
+ *
+ * 各项指标见 {@link CacheMetrics}。
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final Cache remote;
+    private final com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> local;
+    private final CacheDependencyRegistry dependencyRegistry;
+    private final CacheGenerations generations;
+    private final CacheLoadLease loadLease;
+    private final CacheInvalidationBus invalidationBus;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final long refreshAfterNanos;
+    private final Executor refreshExecutor;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    /**
+     * 当前线程上正在后台刷新的 key（L1 key），命中时跳过查找直接加载
+     */
+    private final ThreadLocal<String> forcedLoad = new ThreadLocal<>();
+
+    private final CacheMetrics metrics;
+
+    /**
+     * @param refreshAfter   L1 条目存活超过该时长后命中即触发后台刷新，null 表示不提前刷新
+     * @param refreshExecutor 后台刷新使用的有界线程池
+     * @param invalidationBus 跨节点失效总线，null 表示单节点部署
+     */
+    public TwoLevelCache(String name, Cache remote, com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> local,
+                         CacheDependencyRegistry dependencyRegistry, CacheGenerations generations,
+                         CacheLoadLease loadLease, Duration refreshAfter, Executor refreshExecutor,
+                         CacheInvalidationBus invalidationBus, CacheMetrics metrics) {
+        this.name = name;
+        this.remote = remote;
+        this.local = local;
+        this.dependencyRegistry = dependencyRegistry;
+        this.generations = generations;
+        this.loadLease = loadLease;
+        this.refreshAfterNanos = refreshAfter != null && local != null ? refreshAfter.toNanos() : 0L;
+        this.refreshExecutor = refreshExecutor;
+        this.invalidationBus = invalidationBus;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        LocalEntry entry = localEntry(localKey(key));
+        if (entry != null) {
+            metrics.localHits.increment();
+            return new SimpleValueWrapper(entry.read());
+        }
+        return remoteGet(key);
+    }
+
+    private LocalEntry localEntry(String localKey) {
+        return local != null ? local.getIfPresent(localKey) : null;
+    }
+
+    private ValueWrapper remoteGet(Object key) {
+        ValueWrapper wrapper = metrics.redisGet.record(() -> remote.get(key));
+        if (wrapper == null || wrapper.get() == null) {
+            metrics.misses.increment();
+            return null;
+        }
+        metrics.remoteHits.increment();
+        LocalEntry entry = fromRemote(wrapper.get());
+        if (local != null) {
+            local.put(localKey(key), entry);
+        }
+        return new SimpleValueWrapper(entry.value());
+    }
+
+    /**
+     * L2 条目转为 L1 条目：沿用原写入时间，回填的 L1 条目不会比 Redis 中的条目活得更久，
+     * 提前刷新的时机也不会因为回填而推迟
+     */
+    private static LocalEntry fromRemote(Object stored) {
+        if (stored instanceof TimestampedValue timestamped) {
+            long ageMillis = Math.max(0, System.currentTimeMillis() - timestamped.writtenAtMillis());
+            return new LocalEntry(timestamped.value(), System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(ageMillis));
+        }
+        // 引入写入时间之前写入的条目，只能从回填时刻开始计时
+        return new LocalEntry(stored, System.nanoTime());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String flightKey = localKey(key);
+        if (flightKey.equals(forcedLoad.get())) {
+            // 后台刷新经由代理重新调用到这里：跳过查找，直接加载并写回两级
+            forcedLoad.remove();
+            return load(key, valueLoader);
+        }
+        LocalEntry entry = localEntry(flightKey);
+        if (entry != null) {
+            if (refreshAfterNanos > 0 && System.nanoTime() - entry.writtenAt() > refreshAfterNanos) {
+                scheduleRefresh(flightKey, CacheReloadInterceptor.current());
+            }
+            metrics.localHits.increment();
+            return (T) entry.read();
+        }
+        ValueWrapper wrapper = remoteGet(key);
+        if (wrapper != null && wrapper.get() != null) {
+            return (T) wrapper.get();
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            metrics.localCoalesced.increment();
+            return (T) await(existing);
+        }
+
+        try {
+            // 抢到加载权后再查一次 L1，避免紧跟在上一次加载完成之后重复加载
+            LocalEntry loaded = localEntry(flightKey);
+            T value = loaded != null
+                    ? (T) loaded.value()
+                    : loadWithLease(key, flightKey, valueLoader);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T loadWithLease(Object key, String flightKey, Callable<T> valueLoader) {
+        if (loadLease == null) {
+            return load(key, valueLoader);
+        }
+        if (!loadLease.tryAcquire(name, flightKey)) {
+            metrics.remoteCoalesced.increment();
+            ValueWrapper loaded = metrics.coalescedWait.record(() -> loadLease.await(() -> remote.get(key)));
+            if (loaded != null && loaded.get() != null) {
+                LocalEntry entry = fromRemote(loaded.get());
+                if (local != null) {
+                    local.put(flightKey, entry);
+                }
+                return (T) entry.value();
+            }
+            // 持有租约的节点未在租约期内完成，自行加载
+            return load(key, valueLoader);
+        }
+        try {
+            return load(key, valueLoader);
+        } finally {
+            loadLease.release(name, flightKey);
+        }
+    }
+
+    private <T> T load(Object key, Callable<T> valueLoader) {
+        T value;
+        Set<String> dependencies;
+        long start = System.nanoTime();
+        try (CacheDependencies.Scope scope = CacheDependencies.open()) {
+            value = valueLoader.call();
+            dependencies = scope.tags();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            metrics.load.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (value != null) {
+            put(key, value);
+            dependencyRegistry.register(name, String.valueOf(key), dependencies);
+        }
+        return value;
+    }
+
+    /**
+     * 后台刷新：同一个 key 同时只有一个刷新任务，线程池满时放弃（旧值继续可用，稍后再试）
+     *
+     * 刷新通过代理重新调用原缓存方法（见 {@link CacheReloadInterceptor}），并标记该 key 强制加载；
+     * 不是经由代理发起的读取（reload 为 null）不提前刷新，条目按 TTL 过期。
+     */
+    private void scheduleRefresh(String flightKey, Callable<Object> reload) {
+        if (reload == null || refreshExecutor == null || !refreshing.add(flightKey)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                forcedLoad.set(flightKey);
+                try {
+                    reload.call();
+                    metrics.refreshSucceeded.increment();
+                } catch (Exception e) {
+                    metrics.refreshFailed.increment();
+                } finally {
+                    forcedLoad.remove();
+                    refreshing.remove(flightKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(flightKey);
+            metrics.refreshRejected.increment();
+        }
+    }
+
+    private Object await(CompletableFuture<Object> flight) {
+        try {
+            return metrics.coalescedWait.record(flight::join);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        // Redis 侧禁用了 null 值缓存，这里保持一致
+        if (value == null) {
+            return;
+        }
+        metrics.redisPut.record(() -> remote.put(key, new TimestampedValue(value, System.currentTimeMillis())));
+        if (local != null) {
+            local.put(localKey(key), new LocalEntry(value, System.nanoTime()));
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        metrics.redisEvict.record(() -> remote.evict(key));
+        metrics.explicitEvictions.increment();
+        evictLocal(key);
+        if (local != null && invalidationBus != null) {
+            invalidationBus.publishEvict(name, key);
+        }
+    }
+
+    /**
+     * 整体失效：递增代号（O(1)），旧代号的 Redis key 按 TTL 自然过期
+     */
+    @Override
+    public void clear() {
+        generations.bump(name);
+        metrics.clears.increment();
+        clearLocal();
+        if (local != null && invalidationBus != null) {
+            invalidationBus.publishClear(name);
+        }
+    }
+
+    /**
+     * 只丢弃本节点的 L1 条目（其他节点广播的失效）
+     */
+    public void evictLocal(Object key) {
+        if (local != null) {
+            local.invalidate(localKey(key));
+        }
+    }
+
+    /**
+     * 只清空本节点的 L1（其他节点广播的整体失效）
+     */
+    public void clearLocal() {
+        if (local != null) {
+            local.invalidateAll();
+        }
+    }
+
+    private String localKey(Object key) {
+        return generations.current(name) + ":" + key;
+    }
+
+    /**
+     * L1 条目：值 + 写入时间（用于判断是否需要提前刷新）+ 是否被读取过（用于统计无复用的条目）
+     */
+    public static final class LocalEntry {
+
+        private final Object value;
+        private final long writtenAt;
+        private volatile boolean read;
+
+        LocalEntry(Object value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+
+        Object value() {
+            return value;
+        }
+
+        long writtenAt() {
+            return writtenAt;
+        }
+
+        /**
+         * 读取值并标记为已读
+         */
+        Object read() {
+            if (!read) {
+                read = true;
+            }
+            return value;
+        }
+
+        boolean wasRead() {
+            return read;
+        }
+    }
+}
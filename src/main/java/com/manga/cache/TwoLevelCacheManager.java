@@ -0,0 +1,160 @@
+package com.manga.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * 二级缓存管理器
+ *
+ * 包装 RedisCacheManager，为每个缓存名称创建一个 {@link TwoLevelCache}。
+ * L1 的容量来自 localCacheSizes（未配置或为 0 表示只走 Redis），
+ * L1 的过期时间与该缓存在 Redis 中的 TTL 一致，从条目的原写入时间算起（见 {@link RemainingTtl}）。
+ * 所有缓存共享同一个 {@link CacheDependencyRegistry}（按标签精确失效）
+ * 和 {@link CacheGenerations}（按代号整体失效）。
+ * loadLease 为 null 时只做节点内请求合并，不做跨节点合并。
+ * refreshAheadRatios 中配置的缓存在 L1 条目存活超过 TTL × 比例后提前在后台刷新。
+ * 每个缓存的指标见 {@link CacheMetrics}。
+ * invalidationBus 不为 null 时，本节点的失效会广播出去，其他节点的失效会作用到本节点的 L1。
+ */
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager {
+
+    private final RedisCacheManager redisCacheManager;
+    private final Map<String, Long> localCacheSizes;
+    private final CacheDependencyRegistry dependencyRegistry;
+    private final CacheGenerations generations;
+    private final CacheLoadLease loadLease;
+    private final Map<String, Double> refreshAheadRatios;
+    private final Executor refreshExecutor;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TwoLevelCache> twoLevelCaches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(RedisCacheManager redisCacheManager, Map<String, Long> localCacheSizes,
+                                CacheDependencyRegistry dependencyRegistry, CacheGenerations generations,
+                                CacheLoadLease loadLease, Map<String, Double> refreshAheadRatios,
+                                Executor refreshExecutor, CacheInvalidationBus invalidationBus,
+                                MeterRegistry meterRegistry) {
+        this.redisCacheManager = redisCacheManager;
+        this.localCacheSizes = localCacheSizes;
+        this.dependencyRegistry = dependencyRegistry;
+        this.generations = generations;
+        this.loadLease = loadLease;
+        this.refreshAheadRatios = refreshAheadRatios;
+        this.refreshExecutor = refreshExecutor;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+        if (invalidationBus != null) {
+            invalidationBus.onInvalidation(this::applyRemoteInvalidation);
+        }
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return redisCacheManager.getCacheNames().stream()
+                .map(this::createCache)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name);
+    }
+
+    private Cache createCache(String name) {
+        Cache remote = redisCacheManager.getCache(name);
+        long maximumSize = localCacheSizes.getOrDefault(name, 0L);
+        Duration ttl = ttlOf(name);
+        CacheMetrics metrics = new CacheMetrics(name, meterRegistry);
+        com.github.benmanes.caffeine.cache.Cache<String, TwoLevelCache.LocalEntry> local = null;
+        if (maximumSize > 0) {
+            local = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfter(new RemainingTtl(ttl))
+                    .removalListener((String key, TwoLevelCache.LocalEntry entry, RemovalCause cause) ->
+                            metrics.recordLocalRemoval(entry, cause))
+                    .build();
+            Gauge.builder("cache.local.size", local, com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+                    .description("Entries currently held in the local tier")
+                    .tags("cache", name)
+                    .register(meterRegistry);
+        }
+
+        Double refreshRatio = refreshAheadRatios.get(name);
+        Duration refreshAfter = refreshRatio != null
+                ? Duration.ofMillis((long) (ttl.toMillis() * refreshRatio))
+                : null;
+        TwoLevelCache cache = new TwoLevelCache(name, remote, local, dependencyRegistry, generations, loadLease,
+                refreshAfter, refreshExecutor, invalidationBus, metrics);
+        twoLevelCaches.put(name, cache);
+        return cache;
+    }
+
+    /**
+     * 其他节点广播的失效：只丢弃本节点的 L1 条目
+     */
+    private void applyRemoteInvalidation(CacheInvalidationBus.Invalidation invalidation) {
+        if (invalidation.clears() != null) {
+            for (String name : invalidation.clears()) {
+                TwoLevelCache cache = twoLevelCaches.get(name);
+                if (cache != null) {
+                    cache.clearLocal();
+                }
+            }
+        }
+        if (invalidation.keys() != null) {
+            invalidation.keys().forEach((name, keys) -> {
+                TwoLevelCache cache = twoLevelCaches.get(name);
+                if (cache != null) {
+                    keys.forEach(cache::evictLocal);
+                }
+            });
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private Duration ttlOf(String name) {
+        RedisCacheConfiguration configuration = redisCacheManager.getCacheConfigurations().get(name);
+        Duration ttl = configuration != null ? configuration.getTtl() : null;
+        return ttl != null && !ttl.isZero() && !ttl.isNegative() ? ttl : Duration.ofHours(1);
+    }
+
+    /**
+     * L1 过期策略：TTL 减去条目已存活的时间
+     *
+     * 本节点写入的条目存活完整 TTL；从 Redis 回填的条目沿用原写入时间，与 Redis 中的条目同时过期。
+     * 读取不延长寿命。
+     */
+    private record RemainingTtl(Duration ttl) implements Expiry<String, TwoLevelCache.LocalEntry> {
+
+        @Override
+        public long expireAfterCreate(String key, TwoLevelCache.LocalEntry entry, long currentTime) {
+            return Math.max(0, ttl.toNanos() - (currentTime - entry.writtenAt()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TwoLevelCache.LocalEntry entry, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, TwoLevelCache.LocalEntry entry, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
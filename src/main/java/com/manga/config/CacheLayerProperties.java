@@ -0,0 +1,193 @@
+package com.manga.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 缓存层配置属性
+ *
+ * 各缓存的 TTL 和本地容量在 {@link RedisConfig} 中按缓存名称配置，
+ * 这里只放与部署环境相关的开关。
+ */
+@Component
+@ConfigurationProperties(prefix = "cache")
+@Getter
+@Setter
+public class CacheLayerProperties {
+
+    private SingleFlight singleFlight = new SingleFlight();
+
+    /**
+     * Redis 缓存值编码：binary（紧凑二进制，默认）或 json（带类型信息的 JSON，便于排查）
+     */
+    private Codec codec = Codec.BINARY;
+
+    private Bus bus = new Bus();
+
+    private Warmup warmup = new Warmup();
+
+    private Response response = new Response();
+
+    public enum Codec {
+        BINARY,
+        JSON
+    }
+
+    /**
+     * 缓存未命中时的请求合并
+     */
+    @Getter
+    @Setter
+    public static class SingleFlight {
+
+        /**
+         * 是否启用跨节点合并（通过 Redis 短租约保证同一时刻只有一个节点重建热点 key）
+         * 同一节点内的合并始终开启
+         */
+        private boolean distributed = false;
+
+        /**
+         * 租约时长，超过该时间仍未等到结果的节点自行加载
+         */
+        private Duration leaseTtl = Duration.ofSeconds(5);
+
+        /**
+         * 未拿到租约的节点轮询 Redis 的间隔
+         */
+        private Duration pollInterval = Duration.ofMillis(50);
+    }
+
+    /**
+     * 近端缓存跨节点失效总线
+     */
+    @Getter
+    @Setter
+    public static class Bus {
+
+        /**
+         * 是否启用（多实例部署时必须开启，否则其他节点的 L1 在 TTL 内保持旧值）
+         */
+        private boolean enabled = true;
+
+        /**
+         * Redis 频道
+         */
+        private String channel = "manga:cache:invalidation";
+
+        /**
+         * 合并窗口：窗口内的失效合并为一条消息
+         */
+        private Duration batchDelay = Duration.ofMillis(20);
+
+        /**
+         * 单条消息最多携带的 key 数量
+         */
+        private int maxBatchSize = 1000;
+    }
+
+    /**
+     * 启动预热：实例就绪前把首页相关的缓存条目加载好
+     */
+    @Getter
+    @Setter
+    public static class Warmup {
+
+        private boolean enabled = true;
+
+        /**
+         * 同时加载的条目数上限，避免启动时压垮数据库
+         */
+        private int parallelism = 4;
+
+        /**
+         * 预热总时长上限，超时后不再等待，实例照常就绪
+         */
+        private Duration timeout = Duration.ofSeconds(60);
+
+        /**
+         * 预热目标
+         */
+        private List<Target> targets = new ArrayList<>();
+    }
+
+    /**
+     * 预热目标：endpoint 为 /api/manga 下的路径，例如 popular、country/日本、tags；
+     * country/* 和 tendency/* 展开为所有已上架漫画中出现的取值
+     */
+    @Getter
+    @Setter
+    public static class Target {
+
+        private String endpoint;
+
+        private int page = 0;
+
+        private int size = 20;
+    }
+
+    /**
+     * 响应体缓存：缓存拼接好 CDN URL、序列化（可选 gzip）后的完整响应字节
+     */
+    @Getter
+    @Setter
+    public static class Response {
+
+        private boolean enabled = true;
+
+        /**
+         * 响应体缓存 TTL（应不长于其依赖的数据缓存 TTL）
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * 本地缓存条目数上限
+         */
+        private long localSize = 1000;
+
+        /**
+         * 是否预先 gzip 压缩（客户端支持 gzip 时直接返回压缩字节）
+         */
+        private boolean gzip = true;
+
+        /**
+         * 小于该大小的响应不压缩
+         */
+        private int gzipMinSize = 1024;
+
+        /**
+         * 可缓存的 GET 路径（Ant 风格），只能包含无副作用的接口（详情接口会累加浏览量，不能缓存）
+         */
+        private List<String> paths = new ArrayList<>();
+
+        /**
+         * paths 中带有实时浏览量的路径（Ant 风格）：counter.store=redis 时这些接口在读取缓存数据后叠加
+         * Redis 中的实时计数（见 {@link com.manga.counter.CounterOverlay}），整段缓存会把计数冻结一个 TTL，
+         * 因此此时不缓存这些路径；store=jdbc 时没有叠加，照常缓存
+         */
+        private List<String> liveCountPaths = new ArrayList<>();
+
+        /**
+         * paths 中按查询参数排除的请求：请求路径匹配且带有该参数时不经过响应体缓存，
+         * 用于底层数据刷新周期短于 ttl 的变体（例如按窗口的热度榜随 trending.refresh-interval 重建）
+         */
+        private List<Exclusion> exclusions = new ArrayList<>();
+    }
+
+    /**
+     * 响应体缓存排除规则：path 为 Ant 风格路径，parameter 为触发排除的查询参数
+     */
+    @Getter
+    @Setter
+    public static class Exclusion {
+
+        private String path;
+
+        private String parameter;
+    }
+}
@@ -0,0 +1,36 @@
+package com.manga.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 章节统计冗余列校正配置
+ *
+ * manga 表上的 chapterCount / latestChapterNumber / latestChapterAt 在章节写入时同步重算，
+ * 校正任务定期与 chapters 表比对，修复绕过应用直接改库等原因造成的偏差（也用于首次上线时回填）。
+ */
+@Component
+@ConfigurationProperties(prefix = "chapter-stats")
+@Getter
+@Setter
+public class ChapterStatsProperties {
+
+    /**
+     * 启动时执行一次校正
+     */
+    private boolean repairOnStartup = true;
+
+    /**
+     * 定时校正间隔
+     */
+    private Duration repairInterval = Duration.ofHours(6);
+
+    /**
+     * 每批重算的漫画数
+     */
+    private int batchSize = 500;
+}
@@ -0,0 +1,56 @@
+package com.manga.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 计数器配置（漫画、章节浏览量；收藏数在收藏事务中精确更新，不经过计数器）
+ *
+ * 计数先在内存中累加，按 flushInterval 批量写出：
+ * - store=jdbc：直接批量写 MySQL（单节点部署）
+ * - store=redis：写入 Redis 分钟桶，由一个主节点定期汇总写回 MySQL（多节点部署），
+ *   读取时可叠加 Redis 中尚未写回的实时计数
+ *
+ * 进程异常退出时最多丢失一个刷新周期内的计数；
+ * 写出失败时待写入的计数保留在内存中，超过 maxPendingKeys 后新的计数直接丢弃（计入指标）。
+ */
+@Component
+@ConfigurationProperties(prefix = "counter")
+@Getter
+@Setter
+public class CounterProperties {
+
+    /**
+     * 计数存储：jdbc / redis
+     */
+    private String store = "jdbc";
+
+    /**
+     * 内存缓冲刷新间隔
+     */
+    private Duration flushInterval = Duration.ofSeconds(5);
+
+    /**
+     * 待写入的不同 id 数量达到该值时立即触发一次刷新
+     */
+    private int flushThreshold = 10000;
+
+    /**
+     * 待写入的不同 id 数量上限（内存与丢失量的上限）
+     */
+    private int maxPendingKeys = 100000;
+
+    /**
+     * store=redis 时主节点把已结束的分钟桶写回 MySQL 的间隔
+     */
+    private Duration drainInterval = Duration.ofSeconds(30);
+
+    /**
+     * 主节点租约时长（应大于 drainInterval，主节点宕机后其他节点在租约过期后接管）
+     */
+    private Duration leaderLease = Duration.ofSeconds(90);
+}
@@ -0,0 +1,53 @@
+package com.manga.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 个性化推荐配置（"收藏了这部的用户也收藏了"）
+ *
+ * 后台按用户顺序分批读取 favorites 表，统计漫画两两被同一用户收藏的次数，
+ * 每部漫画只保留余弦相似度最高的 topK 个；/api/manga/recommended/for-me 合并用户最近收藏的相似漫画。
+ */
+@Component
+@ConfigurationProperties(prefix = "recommend")
+@Getter
+@Setter
+public class RecommendProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 全量重算间隔
+     */
+    private Duration refreshInterval = Duration.ofHours(1);
+
+    /**
+     * 读取 favorites 时每批的行数
+     */
+    private int batchSize = 10000;
+
+    /**
+     * 每部漫画保留的相似漫画数
+     */
+    private int topK = 50;
+
+    /**
+     * 至少被这么多用户同时收藏才算相似，过滤偶然的共现
+     */
+    private int minSupport = 2;
+
+    /**
+     * 收藏数超过该值的用户不参与统计（共现对数随收藏数平方增长，且这类收藏几乎不反映偏好）
+     */
+    private int maxUserFavorites = 500;
+
+    /**
+     * 推荐时使用的最近收藏数
+     */
+    private int seedFavorites = 50;
+}
@@ -6,21 +6,45 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.manga.cache.CacheDependencyRegistry;
+import com.manga.cache.CacheGenerations;
+import com.manga.cache.CacheInvalidationBus;
+import com.manga.cache.CacheLoadLease;
+import com.manga.cache.CacheReloadInterceptor;
+import com.manga.cache.CacheValueCodec;
+import com.manga.cache.MeteredValueSerializer;
+import com.manga.cache.ResponseCacheFilter;
+import com.manga.cache.TimestampedValueSerializer;
+import com.manga.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Redis 缓存配置 - 优化支持 3000+ PV
@@ -32,6 +56,19 @@ import java.util.Map;
  * - chapterList: 章节列表（2小时）
  * - recommended: 推荐内容（30分钟）
  * - tags: 标签列表（1小时）
+ * - responses: 渲染好的响应体（默认10分钟，见 {@link ResponseCacheFilter}）
+ *
+ * 在 Redis（L2）之前还有一层进程内 Caffeine 近端缓存（L1），
+ * 容量见 localCacheSizes，过期时间与对应的 Redis TTL 一致。
+ *
+ * Redis key 格式：manga:{cacheName}:g{generation}::{key}，
+ * 整体清空某个缓存时只递增 generation，不做 keyspace 扫描。
+ * 多实例部署时，各节点 L1 的失效通过 {@link CacheInvalidationBus}（Redis pub/sub）同步。
+ * 缓存值默认使用 {@link CacheValueCodec} 二进制编码（cache.codec=json 可切回 JSON）。
+ * 每个缓存的命中率、加载耗时、值大小、淘汰和 Redis 延迟见 /actuator/metrics/cache.*。
+ *
+ * featured / recommended 启用提前刷新：条目存活超过 TTL 的 80% 后，
+ * 命中时继续返回旧值并在后台线程池中经由代理重新调用原缓存方法（见 {@link CacheReloadInterceptor}）。
  */
 @Configuration
 @EnableCaching
@@ -87,9 +124,88 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * 缓存依赖登记表：记录每个缓存条目由哪些数据维度构建，用于精确失效
+     * 登记信息保留时间与最长的缓存 TTL（mangaDetail / chapterList：2小时）一致
+     */
+    @Bean
+    public CacheDependencyRegistry cacheDependencyRegistry(StringRedisTemplate stringRedisTemplate) {
+        return new CacheDependencyRegistry(stringRedisTemplate, Duration.ofHours(2));
+    }
+
+    /**
+     * 缓存代号：key 前缀中的 generation，本地备忘 2 秒
+     */
+    @Bean
+    public CacheGenerations cacheGenerations(StringRedisTemplate stringRedisTemplate) {
+        return new CacheGenerations(stringRedisTemplate, Duration.ofSeconds(2));
+    }
+
+    /**
+     * 缓存提前刷新的调用记录：排在缓存拦截器之外，后台刷新经由代理重新调用原方法
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor cacheReloadAdvisor() {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(Cacheable.class), new CacheReloadInterceptor());
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    /**
+     * 缓存提前刷新线程池（有界队列，满了直接放弃本次刷新，旧值继续可用）
+     */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public ThreadPoolTaskExecutor cacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * 近端缓存跨节点失效总线（cache.bus.enabled=false 时不订阅也不发布）
+     */
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate stringRedisTemplate,
+                                                     CacheLayerProperties cacheLayerProperties,
+                                                     MeterRegistry meterRegistry) {
+        CacheLayerProperties.Bus bus = cacheLayerProperties.getBus();
+        return new CacheInvalidationBus(stringRedisTemplate, bus.getChannel(), bus.getBatchDelay(),
+                bus.getMaxBatchSize(), meterRegistry);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheInvalidationBus cacheInvalidationBus,
+                                                                            CacheLayerProperties cacheLayerProperties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (cacheLayerProperties.getBus().isEnabled()) {
+            container.addMessageListener(cacheInvalidationBus, new ChannelTopic(cacheInvalidationBus.getChannel()));
+        }
+        return container;
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     CacheDependencyRegistry cacheDependencyRegistry,
+                                     CacheGenerations cacheGenerations,
+                                     CacheLayerProperties cacheLayerProperties,
+                                     ThreadPoolTaskExecutor cacheRefreshExecutor,
+                                     CacheInvalidationBus cacheInvalidationBus,
+                                     MeterRegistry meterRegistry) {
         GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(createObjectMapper());
+        // 缓存值编码：默认紧凑二进制，不支持的类型和旧 JSON 条目仍走 JSON；两种编码外都带上写入时间
+        RedisSerializer<Object> valueSerializer = new TimestampedValueSerializer(
+                cacheLayerProperties.getCodec() == CacheLayerProperties.Codec.JSON
+                        ? jsonSerializer
+                        : new CacheValueCodec(jsonSerializer));
         
         // 默认缓存配置：1小时
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
@@ -97,9 +213,9 @@ public class RedisConfig {
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair.fromSerializer(jsonSerializer))
+                        RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer))
                 .disableCachingNullValues()
-                .prefixCacheNameWith("manga:");
+                .computePrefixWith(cacheGenerations::prefixFor);
 
         // 针对不同业务场景配置不同的 TTL
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
@@ -128,11 +244,55 @@ public class RedisConfig {
         // 标签列表：1小时
         cacheConfigurations.put("tags", defaultConfig.entryTtl(Duration.ofHours(1)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        // 响应体缓存：完整响应字节，任何数据失效时整体清空
+        CacheLayerProperties.Response response = cacheLayerProperties.getResponse();
+        if (response.isEnabled()) {
+            cacheConfigurations.put(ResponseCacheFilter.CACHE_NAME, defaultConfig.entryTtl(response.getTtl()));
+        }
+
+        // L1 近端缓存容量（条目数），0 表示该缓存不启用 L1
+        Map<String, Long> localCacheSizes = new HashMap<>();
+        localCacheSizes.put("mangaSearch", 2000L);
+        localCacheSizes.put("mangaList", 2000L);
+        localCacheSizes.put("mangaDetail", 5000L);
+        localCacheSizes.put("chapterList", 5000L);
+        localCacheSizes.put("recommended", 500L);
+        localCacheSizes.put("featured", 200L);
+        // 用户收藏为个性化内容，命中率低，不占用本地内存
+        localCacheSizes.put("favorites", 0L);
+        localCacheSizes.put("tags", 10L);
+        localCacheSizes.put(ResponseCacheFilter.CACHE_NAME, response.getLocalSize());
+
+        // 提前刷新（stale-while-revalidate）：条目存活超过 TTL × 比例后在后台刷新
+        Map<String, Double> refreshAheadRatios = new HashMap<>();
+        refreshAheadRatios.put("featured", 0.8);
+        refreshAheadRatios.put("recommended", 0.8);
+
+        // 每个缓存单独包装序列化器，按缓存名称记录值大小
+        cacheConfigurations.replaceAll((name, configuration) -> configuration.serializeValuesWith(
+                RedisSerializationContext.SerializationPair.fromSerializer(
+                        new MeteredValueSerializer(valueSerializer, name, meterRegistry))));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
-                .transactionAware()
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        // 跨节点请求合并（可选）：同一时刻只有一个节点重建热点 key
+        CacheLayerProperties.SingleFlight singleFlight = cacheLayerProperties.getSingleFlight();
+        CacheLoadLease loadLease = singleFlight.isDistributed()
+                ? new CacheLoadLease(stringRedisTemplate, singleFlight.getLeaseTtl(), singleFlight.getPollInterval())
+                : null;
+
+        // 事务感知放在最外层，保证 L1 和 L2 的写入/失效都在事务提交后执行
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redisCacheManager, localCacheSizes,
+                cacheDependencyRegistry, cacheGenerations, loadLease,
+                refreshAheadRatios, cacheRefreshExecutor,
+                cacheLayerProperties.getBus().isEnabled() ? cacheInvalidationBus : null,
+                meterRegistry);
+        cacheManager.setTransactionAware(true);
+        return cacheManager;
     }
 }
 
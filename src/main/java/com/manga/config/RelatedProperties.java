@@ -0,0 +1,54 @@
+package com.manga.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 相关作品配置
+ *
+ * 后台按标签（tags、labels）、作者、地区的重合度为每部上架漫画预计算 topN 个相似作品：
+ * MinHash 签名分 bands 段做 LSH 分桶得到候选，再按加权 Jaccard 精确打分。
+ * /api/manga/{id}/related 从前 limit × samplePoolFactor 个相似作品中随机抽取。
+ */
+@Component
+@ConfigurationProperties(prefix = "related")
+@Getter
+@Setter
+public class RelatedProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 全量重算间隔
+     */
+    private Duration refreshInterval = Duration.ofMinutes(30);
+
+    /**
+     * MinHash 签名长度（哈希函数个数），需为 bands 的整数倍
+     */
+    private int signatureSize = 64;
+
+    /**
+     * LSH 分段数；每段 signatureSize / bands 行，段数越多召回越高、候选越多
+     */
+    private int bands = 16;
+
+    /**
+     * 超过该大小的桶不产生候选（只有地区等常见特征的漫画会落入同一个大桶）
+     */
+    private int maxBucketSize = 200;
+
+    /**
+     * 每部漫画保存的相似作品数
+     */
+    private int topN = 50;
+
+    /**
+     * 抽样范围相对 limit 的倍数，1 表示总是返回最相似的前 limit 个
+     */
+    private int samplePoolFactor = 3;
+}
@@ -0,0 +1,133 @@
+package com.manga.config;
+
+import com.manga.search.SearchBackendType;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 站内搜索配置
+ *
+ * 倒排索引随写操作增量更新，每个 snapshotInterval 把有变化的索引写入 snapshotPath；
+ * 启动时加载快照，并重放 updatedAt 晚于（快照时间 - replayMargin）的漫画，
+ * replayMargin 覆盖事务提交延迟与节点间时钟偏差。
+ * boosts 为各字段命中一个词元时的得分，relevance 排序按得分之和从高到低。
+ * backend 选择 /api/manga/search 使用的后端，只有 index 才在本节点构建倒排索引。
+ */
+@Component
+@ConfigurationProperties(prefix = "search")
+@Getter
+@Setter
+public class SearchProperties {
+
+    private boolean enabled = true;
+
+    private SearchBackendType backend = SearchBackendType.INDEX;
+
+    /**
+     * 快照文件路径，为空时不持久化（每次启动全量构建）
+     */
+    private String snapshotPath;
+
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+
+    private Duration replayMargin = Duration.ofMinutes(5);
+
+    /**
+     * 索引与数据库一致性检查间隔
+     */
+    private Duration consistencyCheckInterval = Duration.ofHours(1);
+
+    /**
+     * 检查发现不一致时是否重新索引相关漫画
+     */
+    private boolean consistencyRepair = true;
+
+    private Boosts boosts = new Boosts();
+
+    private Suggest suggest = new Suggest();
+
+    private Filter filter = new Filter();
+
+    private FullText fulltext = new FullText();
+
+    @Getter
+    @Setter
+    public static class Boosts {
+
+        private float title = 10;
+
+        private float oldName = 6;
+
+        private float author = 4;
+
+        private float description = 1;
+    }
+
+    /**
+     * 联想词（/api/manga/suggest）：标题、原名、作者、标签的前缀树，按浏览量加权
+     */
+    @Getter
+    @Setter
+    public static class Suggest {
+
+        private boolean enabled = true;
+
+        /**
+         * 每个前缀最多返回的条目数
+         */
+        private int maxResults = 10;
+
+        /**
+         * 内存上限，超出时丢弃权重最低的条目
+         */
+        private DataSize memoryBudget = DataSize.ofMegabytes(32);
+
+        /**
+         * 全量刷新间隔（更新浏览量权重）；漫画导入、删除后会随搜索索引增量更新
+         */
+        private Duration refreshInterval = Duration.ofMinutes(10);
+    }
+
+    /**
+     * 浏览筛选（/api/manga/browse）：标签、地区、受众、完结状态、推荐标记的压缩位图索引
+     */
+    @Getter
+    @Setter
+    public static class Filter {
+
+        private boolean enabled = true;
+
+        /**
+         * 全量刷新间隔（更新浏览量等排序字段）；漫画导入、删除后会随搜索索引增量更新
+         */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        /**
+         * 分面计数中每个维度最多返回的取值数
+         */
+        private int maxFacetValues = 50;
+    }
+
+    /**
+     * MySQL FULLTEXT 后端（backend: fulltext）
+     */
+    @Getter
+    @Setter
+    public static class FullText {
+
+        /**
+         * 启动时 FULLTEXT 索引不存在则自动创建（大表上建索引耗时较长，可关闭后手动创建）
+         */
+        private boolean createIndex = true;
+
+        /**
+         * 与 MySQL 的 ngram_token_size 一致，短于该长度的词不参与 FULLTEXT 查询
+         */
+        private int ngramTokenSize = 2;
+    }
+}
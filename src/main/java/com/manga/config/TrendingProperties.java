@@ -0,0 +1,43 @@
+package com.manga.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 热门排行配置
+ *
+ * 浏览事件随计数缓冲刷新、收藏事件在事务提交后写入时间桶，每个 refreshInterval 按窗口（24h / 7d / 30d）
+ * 对时间桶做指数衰减加权合并，只保留前 topK 名；不再查询 MySQL。
+ */
+@Component
+@ConfigurationProperties(prefix = "trending")
+@Getter
+@Setter
+public class TrendingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 排行重算间隔
+     */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+
+    /**
+     * 每个窗口保留的排行长度
+     */
+    private int topK = 1000;
+
+    /**
+     * 一次浏览的得分
+     */
+    private double viewWeight = 1.0;
+
+    /**
+     * 一次收藏的得分（取消收藏扣回）
+     */
+    private double favoriteWeight = 5.0;
+}
@@ -3,7 +3,9 @@ package com.manga.controller;
 import com.manga.dto.ApiResponse;
 import com.manga.dto.MangaImportRequest;
 import com.manga.dto.MangaResponse;
+import com.manga.search.SearchIndexConsistencyChecker;
 import com.manga.service.ChapterService;
+import com.manga.service.ChapterStatsRepairJob;
 import com.manga.service.MangaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -24,6 +26,8 @@ public class AdminController {
 
     private final MangaService mangaService;
     private final ChapterService chapterService;
+    private final SearchIndexConsistencyChecker searchIndexConsistencyChecker;
+    private final ChapterStatsRepairJob chapterStatsRepairJob;
 
     @PostMapping("/manga/import")
     @Operation(summary = "Import a single manga")
@@ -71,6 +75,26 @@ public class AdminController {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
     }
-}
 
+    @GetMapping("/search/consistency")
+    @Operation(summary = "Compare the search index with the database, optionally re-indexing differences")
+    public ResponseEntity<ApiResponse<SearchIndexConsistencyChecker.Result>> checkSearchIndex(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(searchIndexConsistencyChecker.check(repair)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
 
+    @PostMapping("/chapter-stats/repair")
+    @Operation(summary = "Recompute denormalized chapter stats that differ from the chapters table")
+    public ResponseEntity<ApiResponse<Integer>> repairChapterStats() {
+        try {
+            int repaired = chapterStatsRepairJob.repair();
+            return ResponseEntity.ok(ApiResponse.success("Repaired chapter stats of " + repaired + " manga", repaired));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
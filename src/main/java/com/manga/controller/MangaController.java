@@ -1,8 +1,14 @@
 package com.manga.controller;
 
 import com.manga.dto.ApiResponse;
+import com.manga.dto.CursorPageResponse;
+import com.manga.dto.FacetedPageResponse;
 import com.manga.dto.MangaResponse;
+import com.manga.dto.SuggestionResponse;
+import com.manga.repository.UserRepository;
+import com.manga.search.BrowseFilter;
 import com.manga.service.MangaService;
+import com.manga.trending.TrendingWindow;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +16,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -21,6 +29,7 @@ import java.util.List;
 public class MangaController {
 
     private final MangaService mangaService;
+    private final UserRepository userRepository;
 
     @GetMapping
     @Operation(summary = "Get all manga with pagination")
@@ -43,12 +52,15 @@ public class MangaController {
     }
 
     @GetMapping("/popular")
-    @Operation(summary = "Get popular manga")
+    @Operation(summary = "Get popular manga (all-time, or trending within window=24h/7d/30d)")
     public ResponseEntity<ApiResponse<Page<MangaResponse>>> getPopularManga(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String window) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<MangaResponse> manga = mangaService.getPopularManga(pageable);
+        Page<MangaResponse> manga = window == null || window.isEmpty()
+                ? mangaService.getPopularManga(pageable)
+                : mangaService.getTrendingManga(TrendingWindow.parse(window), pageable);
         return ResponseEntity.ok(ApiResponse.success(manga));
     }
 
@@ -77,6 +89,72 @@ public class MangaController {
         return ResponseEntity.ok(ApiResponse.success(manga));
     }
 
+    @GetMapping("/browse")
+    @Operation(summary = "Browse manga by combined filters",
+            description = "Values within one filter are OR-ed (tags AND-ed when tagMatch=all), different filters are AND-ed. " +
+                    "sort: default, latest, popular, updated")
+    public ResponseEntity<ApiResponse<Page<MangaResponse>>> browseManga(
+            @RequestParam(required = false) List<String> tag,
+            @RequestParam(defaultValue = "any") String tagMatch,
+            @RequestParam(required = false) List<String> country,
+            @RequestParam(required = false) List<String> tendency,
+            @RequestParam(required = false) List<String> finish,
+            @RequestParam(required = false) Boolean choiceness,
+            @RequestParam(required = false) Boolean recommended,
+            @RequestParam(name = "new", required = false) Boolean isNew,
+            @RequestParam(required = false, defaultValue = "default") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        BrowseFilter filter = new BrowseFilter(tag, "all".equals(tagMatch), country, tendency, finish,
+                choiceness, recommended, isNew);
+        Page<MangaResponse> manga = mangaService.browseManga(filter, sort, pageable);
+        return ResponseEntity.ok(ApiResponse.success(manga));
+    }
+
+    @GetMapping("/search/faceted")
+    @Operation(summary = "Search manga and count matches per tag, country, tendency and finish state")
+    public ResponseEntity<ApiResponse<FacetedPageResponse>> searchMangaFaceted(
+            @RequestParam String keyword,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false, defaultValue = "default") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        FacetedPageResponse manga = mangaService.searchMangaFaceted(keyword, tag, sort, pageable);
+        return ResponseEntity.ok(ApiResponse.success(manga));
+    }
+
+    @GetMapping("/browse/faceted")
+    @Operation(summary = "Browse manga by combined filters and count matches per tag, country, tendency and finish state",
+            description = "Same filters as /browse; facets are counted over the whole filtered result")
+    public ResponseEntity<ApiResponse<FacetedPageResponse>> browseMangaFaceted(
+            @RequestParam(required = false) List<String> tag,
+            @RequestParam(defaultValue = "any") String tagMatch,
+            @RequestParam(required = false) List<String> country,
+            @RequestParam(required = false) List<String> tendency,
+            @RequestParam(required = false) List<String> finish,
+            @RequestParam(required = false) Boolean choiceness,
+            @RequestParam(required = false) Boolean recommended,
+            @RequestParam(name = "new", required = false) Boolean isNew,
+            @RequestParam(required = false, defaultValue = "default") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        BrowseFilter filter = new BrowseFilter(tag, "all".equals(tagMatch), country, tendency, finish,
+                choiceness, recommended, isNew);
+        FacetedPageResponse manga = mangaService.browseMangaFaceted(filter, sort, pageable);
+        return ResponseEntity.ok(ApiResponse.success(manga));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Typeahead suggestions (title, old name, author, tag) for a prefix, ranked by views")
+    public ResponseEntity<ApiResponse<List<SuggestionResponse>>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(mangaService.suggest(q, limit)));
+    }
+
     @GetMapping("/choiceness")
     @Operation(summary = "Get featured/curated manga")
     public ResponseEntity<ApiResponse<Page<MangaResponse>>> getChoicenessManga(
@@ -97,6 +175,19 @@ public class MangaController {
         return ResponseEntity.ok(ApiResponse.success(manga));
     }
 
+    @GetMapping("/recommended/for-me")
+    @Operation(summary = "Personalized recommendations from favorites of users with similar favorites")
+    public ResponseEntity<ApiResponse<List<MangaResponse>>> getRecommendedForMe(
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+        try {
+            List<MangaResponse> manga = mangaService.getRecommendedForUser(getUserIdFromAuth(authentication), limit);
+            return ResponseEntity.ok(ApiResponse.success(manga));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @GetMapping("/new")
     @Operation(summary = "Get new manga releases")
     public ResponseEntity<ApiResponse<Page<MangaResponse>>> getNewManga(
@@ -107,6 +198,16 @@ public class MangaController {
         return ResponseEntity.ok(ApiResponse.success(manga));
     }
 
+    @GetMapping("/updated")
+    @Operation(summary = "Get recently updated manga (by latest chapter)")
+    public ResponseEntity<ApiResponse<Page<MangaResponse>>> getRecentlyUpdatedManga(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        Page<MangaResponse> manga = mangaService.getRecentlyUpdatedManga(pageable);
+        return ResponseEntity.ok(ApiResponse.success(manga));
+    }
+
     @GetMapping("/country/{country}")
     @Operation(summary = "Get manga by country/region")
     public ResponseEntity<ApiResponse<Page<MangaResponse>>> getMangaByCountry(
@@ -138,7 +239,7 @@ public class MangaController {
     }
 
     @GetMapping("/{id}/related")
-    @Operation(summary = "Get related manga (random recommendations)")
+    @Operation(summary = "Get related manga (sampled from precomputed similar works)")
     public ResponseEntity<ApiResponse<List<MangaResponse>>> getRelatedWorks(
             @PathVariable Long id,
             @RequestParam(defaultValue = "6") int limit) {
@@ -161,12 +262,71 @@ public class MangaController {
         return ResponseEntity.ok(ApiResponse.success(manga));
     }
 
+    // ==================== 游标分页（无限滚动）：不统计总数，深翻页不随页码变慢 ====================
+
+    @GetMapping("/cursor")
+    @Operation(summary = "Get all manga with cursor pagination",
+            description = "Pass nextCursor from the previous response to get the next page; omit it for the first page")
+    public ResponseEntity<ApiResponse<CursorPageResponse>> getAllMangaByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ApiResponse.success(mangaService.getAllMangaByCursor(cursor, size)));
+    }
+
+    @GetMapping("/latest/cursor")
+    @Operation(summary = "Get latest manga with cursor pagination")
+    public ResponseEntity<ApiResponse<CursorPageResponse>> getLatestMangaByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ApiResponse.success(mangaService.getLatestMangaByCursor(cursor, size)));
+    }
+
+    @GetMapping("/new/cursor")
+    @Operation(summary = "Get new manga releases with cursor pagination")
+    public ResponseEntity<ApiResponse<CursorPageResponse>> getNewMangaByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ApiResponse.success(mangaService.getNewMangaByCursor(cursor, size)));
+    }
+
+    @GetMapping("/country/{country}/cursor")
+    @Operation(summary = "Get manga by country/region with cursor pagination")
+    public ResponseEntity<ApiResponse<CursorPageResponse>> getMangaByCountryByCursor(
+            @PathVariable String country,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ApiResponse.success(mangaService.getMangaByCountryByCursor(country, cursor, size)));
+    }
+
+    @GetMapping("/tendency/{tendency}/cursor")
+    @Operation(summary = "Get manga by target audience with cursor pagination")
+    public ResponseEntity<ApiResponse<CursorPageResponse>> getMangaByTendencyByCursor(
+            @PathVariable String tendency,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ApiResponse.success(mangaService.getMangaByTendencyByCursor(tendency, cursor, size)));
+    }
+
+    @GetMapping("/tag/{tag}/cursor")
+    @Operation(summary = "Get manga by tag with cursor pagination")
+    public ResponseEntity<ApiResponse<CursorPageResponse>> getMangaByTagByCursor(
+            @PathVariable String tag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ApiResponse.success(mangaService.getMangaByTagByCursor(tag, cursor, size)));
+    }
+
     @GetMapping("/tags")
     @Operation(summary = "Get all available tags")
     public ResponseEntity<ApiResponse<List<String>>> getAllTags() {
         List<String> tags = mangaService.getAllTags().getTags();
         return ResponseEntity.ok(ApiResponse.success(tags));
     }
-}
-
 
+    private Long getUserIdFromAuth(Authentication authentication) {
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        return userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"))
+                .getId();
+    }
+}
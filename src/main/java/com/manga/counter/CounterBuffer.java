@@ -0,0 +1,213 @@
+package com.manga.counter;
+
+import com.manga.config.CounterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 计数写回缓冲（write-behind），用于漫画和章节的浏览量
+ *
+ * 收藏数要求精确，在收藏事务中直接更新（见 {@link com.manga.service.FavoriteService}），不经过缓冲。
+ *
+ * 每次计数只在 ConcurrentHashMap 中按 id 累加（merge 只锁所在的桶，不同 id 之间互不阻塞），
+ * 定时取出全部增量交给 {@link CounterSink} 批量写出（MySQL 或 Redis 分钟桶，见 counter.store）。
+ * 取出时逐个 remove，与并发累加之间不会丢失或重复计数。
+ *
+ * 丢失上限：
+ * - 正常关闭时 {@link #shutdown()} 会写出剩余计数；
+ * - 进程崩溃最多丢失一个刷新周期（counter.flush-interval）内的计数；
+ * - 写出失败时增量放回缓冲区下次重试，不同 id 数量超过 max-pending-keys 后新计数直接丢弃并计入
+ *   counter.buffer.dropped，内存占用有上限。
+ *
+ * 写出成功后把同一批增量交给各 {@link CounterFlushListener}（热门排行等），监听器失败不影响计数。
+ *
+ * 指标：counter.buffer.pending.keys / counter.buffer.pending（积压）、counter.buffer.flushed、
+ * counter.buffer.dropped、counter.buffer.flush（耗时）。
+ */
+@Component
+@Slf4j
+public class CounterBuffer {
+
+    private final CounterSink sink;
+    private final CounterProperties properties;
+    private final ObjectProvider<CounterFlushListener> listeners;
+    private final Map<CounterType, ConcurrentHashMap<Long, Long>> pending = new EnumMap<>(CounterType.class);
+    private final AtomicLong pendingDeltas = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Executor thresholdFlushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "counter-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter flushed;
+    private final Counter dropped;
+    private final Timer flushTimer;
+
+    public CounterBuffer(CounterSink sink, CounterProperties properties,
+                         ObjectProvider<CounterFlushListener> listeners, MeterRegistry meterRegistry) {
+        this.sink = sink;
+        this.properties = properties;
+        this.listeners = listeners;
+        for (CounterType type : CounterType.values()) {
+            pending.put(type, new ConcurrentHashMap<>());
+        }
+        Gauge.builder("counter.buffer.pending.keys", this, CounterBuffer::pendingKeys)
+                .description("Distinct ids with counts not yet written out")
+                .register(meterRegistry);
+        Gauge.builder("counter.buffer.pending", pendingDeltas, AtomicLong::get)
+                .description("Sum of count deltas not yet written out")
+                .register(meterRegistry);
+        this.flushed = Counter.builder("counter.buffer.flushed")
+                .description("Count deltas written out")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("counter.buffer.dropped")
+                .description("Count deltas dropped because the buffer was full")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("counter.buffer.flush")
+                .description("Time spent writing buffered counts")
+                .register(meterRegistry);
+    }
+
+    public void recordMangaView(Long mangaId) {
+        record(CounterType.MANGA_VIEWS, mangaId, 1L);
+    }
+
+    public void recordChapterView(Long chapterId) {
+        record(CounterType.CHAPTER_VIEWS, chapterId, 1L);
+    }
+
+    private void record(CounterType type, Long id, long delta) {
+        ConcurrentHashMap<Long, Long> counts = pending.get(type);
+        int pendingKeys = pendingKeys();
+        if (pendingKeys >= properties.getMaxPendingKeys() && !counts.containsKey(id)) {
+            dropped.increment(Math.abs(delta));
+            return;
+        }
+        counts.merge(id, delta, Long::sum);
+        pendingDeltas.addAndGet(delta);
+        if (pendingKeys >= properties.getFlushThreshold() && flushRequested.compareAndSet(false, true)) {
+            thresholdFlushExecutor.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        }
+    }
+
+    private int pendingKeys() {
+        int keys = 0;
+        for (ConcurrentHashMap<Long, Long> counts : pending.values()) {
+            keys += counts.size();
+        }
+        return keys;
+    }
+
+    @Scheduled(fixedDelayString = "#{@counterProperties.flushInterval.toMillis()}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * 取出全部增量并写出；同一时刻只有一个刷新在执行
+     */
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            doFlush();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void doFlush() {
+        Map<CounterType, Map<Long, Long>> deltas = new EnumMap<>(CounterType.class);
+        long total = 0;
+        for (Map.Entry<CounterType, ConcurrentHashMap<Long, Long>> entry : pending.entrySet()) {
+            Map<Long, Long> drained = drain(entry.getValue());
+            if (!drained.isEmpty()) {
+                deltas.put(entry.getKey(), drained);
+                total += sum(drained);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            flushTimer.record(() -> sink.apply(deltas));
+            pendingDeltas.addAndGet(-total);
+            flushed.increment(Math.abs(total));
+        } catch (RuntimeException e) {
+            log.warn("Failed to write buffered counts, will retry: {}", e.getMessage());
+            deltas.forEach((type, drained) -> drained.forEach((id, delta) -> pending.get(type).merge(id, delta, Long::sum)));
+            return;
+        }
+        notifyListeners(deltas);
+    }
+
+    private void notifyListeners(Map<CounterType, Map<Long, Long>> deltas) {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onFlush(deltas);
+            } catch (RuntimeException e) {
+                log.warn("Counter flush listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 等待正在进行的刷新结束后再写出剩余计数
+        flushLock.lock();
+        try {
+            doFlush();
+        } finally {
+            flushLock.unlock();
+        }
+        if (pendingKeys() > 0) {
+            log.warn("{} buffered counters could not be written before shutdown", pendingKeys());
+        }
+    }
+
+    /**
+     * 按 id 排序取出，多实例同时写入时以相同顺序加行锁，避免死锁
+     */
+    private static Map<Long, Long> drain(ConcurrentHashMap<Long, Long> counts) {
+        Map<Long, Long> deltas = new TreeMap<>();
+        for (Long id : counts.keySet()) {
+            Long delta = counts.remove(id);
+            if (delta != null && delta != 0) {
+                deltas.put(id, delta);
+            }
+        }
+        return deltas;
+    }
+
+    private static long sum(Map<Long, Long> deltas) {
+        long total = 0;
+        for (long delta : deltas.values()) {
+            total += delta;
+        }
+        return total;
+    }
+}
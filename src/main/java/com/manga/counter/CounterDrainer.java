@@ -0,0 +1,177 @@
+package com.manga.counter;
+
+import com.manga.config.CounterProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * 把 Redis 分钟桶汇总写回 MySQL（只由一个主节点执行）
+ *
+ * 主节点通过 Redis 租约（manga:counter:leader）选出，每个 drainInterval 执行一次：
+ * 1. 已结束的分钟桶原子改名为 {key}:draining（Lua：存在才改名，并更新索引），
+ *    之后迟到的写入会落到新的 key 上，下一轮再汇总；
+ *    上一轮认领后主节点退出留下的 :draining 桶先于新的认领汇总，认领时目标仍存在则合并增量（HINCRBY），
+ *    不会覆盖未汇总的桶；
+ * 2. 读取桶内增量，通过 {@link JdbcCounterSink} 一次批量 UPDATE 写入 MySQL，并读回最新值；
+ * 3. 更新 base（MySQL 当前值）、扣减 pending，删除该桶。
+ *
+ * 第 2 步成功、第 3 步之前进程退出时，该桶会在下一轮被重复写入一次（最多一个分钟桶的计数）。
+ */
+@Component
+@ConditionalOnProperty(prefix = "counter", name = "store", havingValue = "redis")
+@Slf4j
+public class CounterDrainer {
+
+    /**
+     * 认领已结束的分钟桶：改名为 :draining；上一轮认领后未汇总完（主节点中途退出）的 :draining 桶仍在时，
+     * 把增量合并进去而不是覆盖
+     */
+    private static final DefaultRedisScript<Long> CLAIM_BUCKET = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then "
+                    + "if redis.call('EXISTS', KEYS[2]) == 1 then "
+                    + "local entries = redis.call('HGETALL', KEYS[1]) "
+                    + "for i = 1, #entries, 2 do redis.call('HINCRBY', KEYS[2], entries[i], entries[i + 1]) end "
+                    + "redis.call('DEL', KEYS[1]) "
+                    + "else redis.call('RENAME', KEYS[1], KEYS[2]) end "
+                    + "redis.call('SADD', KEYS[3], KEYS[2]) end "
+                    + "redis.call('SREM', KEYS[3], KEYS[1]) "
+                    + "return redis.call('EXISTS', KEYS[2])",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcCounterSink jdbcCounterSink;
+    private final CounterProperties properties;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CounterDrainer(StringRedisTemplate redisTemplate, JdbcCounterSink jdbcCounterSink,
+                          CounterProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcCounterSink = jdbcCounterSink;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "#{@counterProperties.drainInterval.toMillis()}")
+    public void drain() {
+        try {
+            if (!acquireLeadership()) {
+                return;
+            }
+            drainClosedBuckets();
+        } catch (Exception e) {
+            log.warn("Counter drain failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private boolean acquireLeadership() {
+        Boolean acquired = redisTemplate.opsForValue()
+                .setIfAbsent(RedisCounterKeys.LEADER, nodeId, properties.getLeaderLease());
+        if (Boolean.TRUE.equals(acquired)) {
+            log.info("Became counter drain leader");
+            return true;
+        }
+        if (nodeId.equals(redisTemplate.opsForValue().get(RedisCounterKeys.LEADER))) {
+            redisTemplate.expire(RedisCounterKeys.LEADER, properties.getLeaderLease());
+            return true;
+        }
+        return false;
+    }
+
+    private void drainClosedBuckets() {
+        Set<String> keys = redisTemplate.opsForSet().members(RedisCounterKeys.BUCKET_INDEX);
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+        long currentMinute = System.currentTimeMillis() / 60_000;
+        List<RedisCounterKeys.Bucket> draining = new ArrayList<>();
+        List<RedisCounterKeys.Bucket> closed = new ArrayList<>();
+        for (String key : new TreeSet<>(keys)) {
+            RedisCounterKeys.Bucket bucket = RedisCounterKeys.parseBucket(key);
+            if (bucket == null) {
+                redisTemplate.opsForSet().remove(RedisCounterKeys.BUCKET_INDEX, key);
+            } else if (bucket.draining()) {
+                draining.add(bucket);
+            } else if (bucket.epochMinute() < currentMinute) {
+                // 当前分钟的桶仍在写入
+                closed.add(bucket);
+            }
+        }
+
+        // 先汇总上一轮留下的 :draining 桶，再认领新的分钟桶
+        for (RedisCounterKeys.Bucket bucket : draining) {
+            drainBucket(bucket.type(), bucket.key());
+        }
+        for (RedisCounterKeys.Bucket bucket : closed) {
+            String drainingKey = bucket.key() + RedisCounterKeys.DRAINING_SUFFIX;
+            Long claimed = redisTemplate.execute(CLAIM_BUCKET,
+                    List.of(bucket.key(), drainingKey, RedisCounterKeys.BUCKET_INDEX));
+            if (claimed != null && claimed != 0) {
+                drainBucket(bucket.type(), drainingKey);
+            }
+        }
+    }
+
+    private void drainBucket(CounterType type, String drainingKey) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(drainingKey);
+        Map<Long, Long> deltas = new TreeMap<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            long delta = Long.parseLong(String.valueOf(entry.getValue()));
+            if (delta != 0) {
+                deltas.put(Long.parseLong(String.valueOf(entry.getKey())), delta);
+            }
+        }
+
+        Map<Long, Long> values = Map.of();
+        if (!deltas.isEmpty()) {
+            jdbcCounterSink.apply(Map.of(type, deltas));
+            values = jdbcCounterSink.currentValues(type, deltas.keySet());
+        }
+
+        Map<Long, Long> currentValues = values;
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                String pending = RedisCounterKeys.pending(type);
+                String base = RedisCounterKeys.base(type);
+                deltas.forEach((id, delta) -> {
+                    String field = String.valueOf(id);
+                    operations.opsForHash().increment(pending, field, -delta);
+                    Long value = currentValues.get(id);
+                    if (value != null) {
+                        operations.opsForHash().put(base, field, String.valueOf(value));
+                    }
+                });
+                operations.delete(drainingKey);
+                operations.opsForSet().remove(RedisCounterKeys.BUCKET_INDEX, drainingKey);
+                return null;
+            }
+        });
+        log.debug("Drained {} {} counters from {}", deltas.size(), type, drainingKey);
+    }
+
+    @PreDestroy
+    public void releaseLeadership() {
+        try {
+            if (nodeId.equals(redisTemplate.opsForValue().get(RedisCounterKeys.LEADER))) {
+                redisTemplate.delete(RedisCounterKeys.LEADER);
+            }
+        } catch (Exception e) {
+            // 租约到期后其他节点自然接管
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.manga.counter;
+
+import java.util.Map;
+
+/**
+ * 计数缓冲成功写出一批增量后的回调（例如热门排行），在刷新线程中同步调用
+ */
+public interface CounterFlushListener {
+
+    void onFlush(Map<CounterType, Map<Long, Long>> deltas);
+}
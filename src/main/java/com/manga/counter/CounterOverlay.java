@@ -0,0 +1,103 @@
+package com.manga.counter;
+
+import com.manga.config.CounterProperties;
+import com.manga.dto.MangaResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 在缓存的 DTO 上叠加实时浏览量和收藏数
+ *
+ * 浏览量（counter.store=redis 时）：实时值 = base（最近一次写回后的 MySQL 值，缺失时用 DTO 中的值）
+ * + pending（尚未写回的增量）。
+ * 收藏数（始终叠加）：收藏事务提交后写入的精确值（见 {@link LiveFavoriteCounts}），缺失时用 DTO 中的值。
+ * 计数变化都不需要失效 mangaDetail 等缓存。一批 DTO 只需一次 pipeline（至多 3 个 HMGET）。
+ * 调用方传入的必须是已拷贝的 DTO（缓存中的实例是共享的）。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CounterOverlay {
+
+    private final StringRedisTemplate redisTemplate;
+    private final CounterProperties properties;
+
+    /**
+     * 是否叠加实时浏览量（列表接口的响应体缓存据此绕过，见 ResponseCacheFilter）
+     */
+    public boolean isEnabled() {
+        return "redis".equalsIgnoreCase(properties.getStore());
+    }
+
+    public void apply(MangaResponse manga) {
+        if (manga != null) {
+            apply(List.of(manga));
+        }
+    }
+
+    public void apply(Collection<MangaResponse> mangas) {
+        if (mangas.isEmpty()) {
+            return;
+        }
+        boolean views = isEnabled();
+        List<Object> fields = new ArrayList<>(mangas.size());
+        for (MangaResponse manga : mangas) {
+            fields.add(String.valueOf(manga.getId()));
+        }
+
+        List<Object> results;
+        try {
+            results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) {
+                    operations.opsForHash().multiGet(RedisCounterKeys.FAVORITES, fields);
+                    if (views) {
+                        operations.opsForHash().multiGet(RedisCounterKeys.base(CounterType.MANGA_VIEWS), fields);
+                        operations.opsForHash().multiGet(RedisCounterKeys.pending(CounterType.MANGA_VIEWS), fields);
+                    }
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            // Redis 不可用时返回缓存中的计数
+            log.debug("Failed to read live counters: {}", e.getMessage());
+            return;
+        }
+
+        List<?> favorites = (List<?>) results.get(0);
+        List<?> viewBase = views ? (List<?>) results.get(1) : null;
+        List<?> viewPending = views ? (List<?>) results.get(2) : null;
+        int i = 0;
+        for (MangaResponse manga : mangas) {
+            Long favoriteCount = LiveFavoriteCounts.parse(favorites.get(i));
+            if (favoriteCount != null) {
+                manga.setFavoriteCount(clamp(favoriteCount));
+            }
+            if (views) {
+                manga.setViewCount(live(manga.getViewCount(), viewBase.get(i), viewPending.get(i)));
+            }
+            i++;
+        }
+    }
+
+    private static Integer live(Integer cached, Object base, Object pending) {
+        long value = base != null ? Long.parseLong(String.valueOf(base)) : (cached != null ? cached : 0);
+        if (pending != null) {
+            value += Long.parseLong(String.valueOf(pending));
+        }
+        return clamp(value);
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, value));
+    }
+}
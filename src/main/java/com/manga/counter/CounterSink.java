@@ -0,0 +1,16 @@
+package com.manga.counter;
+
+import java.util.Map;
+
+/**
+ * 计数增量的写入目标
+ */
+public interface CounterSink {
+
+    /**
+     * 写入一批增量
+     *
+     * @param deltas 计数器类型 -> (id -> 增量)
+     */
+    void apply(Map<CounterType, Map<Long, Long>> deltas);
+}
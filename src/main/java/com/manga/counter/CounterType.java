@@ -0,0 +1,33 @@
+package com.manga.counter;
+
+/**
+ * 计数器类型：对应数据库中的表和计数列
+ */
+public enum CounterType {
+
+    MANGA_VIEWS("manga", "view_count"),
+    CHAPTER_VIEWS("chapters", "view_count");
+
+    private final String table;
+    private final String column;
+
+    CounterType(String table, String column) {
+        this.table = table;
+        this.column = column;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Redis key 中使用的名称
+     */
+    public String key() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,60 @@
+package com.manga.counter;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 直接写 MySQL：每种计数一条批量 UPDATE ... SET col = GREATEST(col + ?, 0)
+ *
+ * 原子自增，不需要先 SELECT，也不会更新 updated_at（浏览不算内容更新）。
+ * 连接串开启了 rewriteBatchedStatements，批量语句会合并为一次往返。
+ */
+@Component
+@RequiredArgsConstructor
+public class JdbcCounterSink implements CounterSink {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void apply(Map<CounterType, Map<Long, Long>> deltas) {
+        deltas.forEach(this::batchUpdate);
+    }
+
+    private void batchUpdate(CounterType type, Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE " + type.getTable() + " SET " + type.getColumn()
+                + " = GREATEST(" + type.getColumn() + " + ?, 0) WHERE id = ?";
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> args.add(new Object[]{delta, id}));
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    /**
+     * 读取数据库中的当前计数
+     */
+    public Map<Long, Long> currentValues(CounterType type, Collection<Long> ids) {
+        Map<Long, Long> values = new HashMap<>();
+        if (ids.isEmpty()) {
+            return values;
+        }
+        String sql = "SELECT id, " + type.getColumn() + " FROM " + type.getTable() + " WHERE id IN (:ids)";
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(sql, new MapSqlParameterSource("ids", ids),
+                rs -> {
+                    values.put(rs.getLong(1), rs.getLong(2));
+                });
+        return values;
+    }
+}
@@ -0,0 +1,97 @@
+package com.manga.counter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * 实时收藏数：收藏事务提交后把 MySQL 中的精确值写入 Redis（manga:counter:favorites），
+ * 由 {@link CounterOverlay} 叠加到缓存的 DTO 上，收藏 / 取消收藏不失效任何缓存
+ *
+ * 同一部漫画的收藏事务在 manga 行锁上串行提交。事务内（仍持有行锁）取一个全局递增序号，
+ * 提交后只有序号更大的值才能覆盖已有值，afterCommit 回调乱序执行也不会写回旧值。
+ * 取序号失败（Redis 不可用）时提交后删除该字段，读取回退到缓存中的值。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LiveFavoriteCounts {
+
+    /**
+     * 字段值为「序号:收藏数」，序号不大于已有序号时不写入
+     */
+    private static final DefaultRedisScript<Long> PUBLISH = new DefaultRedisScript<>(
+            "local current = redis.call('HGET', KEYS[1], ARGV[1]) "
+                    + "if current then "
+                    + "local sequence = tonumber(string.match(current, '^(%d+):')) "
+                    + "if sequence and sequence >= tonumber(ARGV[2]) then return 0 end "
+                    + "end "
+                    + "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2] .. ':' .. ARGV[3]) "
+                    + "return 1",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 发布收藏数（必须在收藏事务中、更新 favorite_count 之后调用）；事务提交后才写入，回滚时不写入
+     *
+     * @param favoriteCount 本事务更新后的 favorite_count
+     */
+    public void publish(Long mangaId, long favoriteCount) {
+        Long sequence;
+        try {
+            sequence = redisTemplate.opsForValue().increment(RedisCounterKeys.FAVORITE_SEQUENCE);
+        } catch (Exception e) {
+            log.debug("Failed to reserve a favorite count sequence: {}", e.getMessage());
+            sequence = null;
+        }
+        Long reserved = sequence;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write(mangaId, reserved, favoriteCount);
+                }
+            });
+            return;
+        }
+        write(mangaId, reserved, favoriteCount);
+    }
+
+    private void write(Long mangaId, Long sequence, long favoriteCount) {
+        String field = String.valueOf(mangaId);
+        try {
+            if (sequence != null) {
+                redisTemplate.execute(PUBLISH, List.of(RedisCounterKeys.FAVORITES), field,
+                        String.valueOf(sequence), String.valueOf(favoriteCount));
+            } else {
+                redisTemplate.opsForHash().delete(RedisCounterKeys.FAVORITES, field);
+            }
+        } catch (Exception e) {
+            // 旧值保留到该漫画下一次收藏 / 取消收藏
+            log.warn("Failed to publish favorite count of manga {}: {}", mangaId, e.getMessage());
+        }
+    }
+
+    /**
+     * 解析 Redis 中的字段值，不存在或格式不符时返回 null
+     */
+    static Long parse(Object stored) {
+        if (stored == null) {
+            return null;
+        }
+        String value = String.valueOf(stored);
+        int separator = value.indexOf(':');
+        try {
+            return Long.parseLong(value.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
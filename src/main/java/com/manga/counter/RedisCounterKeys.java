@@ -0,0 +1,66 @@
+package com.manga.counter;
+
+/**
+ * 计数器在 Redis 中的 key
+ *
+ * - manga:counter:bucket:{type}:{epochMinute}：分钟桶（Hash，id -> 增量），各节点写入
+ * - manga:counter:buckets：所有待汇总的分钟桶（Set）
+ * - manga:counter:pending:{type}：尚未写回 MySQL 的增量合计（Hash，id -> 增量）
+ * - manga:counter:base:{type}：最近一次写回后 MySQL 中的值（Hash，id -> 计数）
+ * - manga:counter:leader：汇总主节点租约
+ * - manga:counter:favorites：收藏事务提交后的精确收藏数（Hash，id -> 序号:计数，见 {@link LiveFavoriteCounts}）
+ * - manga:counter:favorites:sequence：收藏数写入序号
+ */
+final class RedisCounterKeys {
+
+    static final String BUCKET_INDEX = "manga:counter:buckets";
+    static final String LEADER = "manga:counter:leader";
+    static final String DRAINING_SUFFIX = ":draining";
+    static final String FAVORITES = "manga:counter:favorites";
+    static final String FAVORITE_SEQUENCE = "manga:counter:favorites:sequence";
+
+    private static final String BUCKET_PREFIX = "manga:counter:bucket:";
+
+    private RedisCounterKeys() {
+    }
+
+    static String bucket(CounterType type, long epochMinute) {
+        return BUCKET_PREFIX + type.key() + ":" + epochMinute;
+    }
+
+    static String pending(CounterType type) {
+        return "manga:counter:pending:" + type.key();
+    }
+
+    static String base(CounterType type) {
+        return "manga:counter:base:" + type.key();
+    }
+
+    /**
+     * 解析分钟桶 key（含正在汇总的 :draining 后缀），格式不符时返回 null
+     */
+    static Bucket parseBucket(String key) {
+        if (!key.startsWith(BUCKET_PREFIX)) {
+            return null;
+        }
+        String rest = key.substring(BUCKET_PREFIX.length());
+        boolean draining = rest.endsWith(DRAINING_SUFFIX);
+        if (draining) {
+            rest = rest.substring(0, rest.length() - DRAINING_SUFFIX.length());
+        }
+        int separator = rest.lastIndexOf(':');
+        if (separator < 0) {
+            return null;
+        }
+        try {
+            CounterType type = CounterType.valueOf(rest.substring(0, separator).toUpperCase());
+            long minute = Long.parseLong(rest.substring(separator + 1));
+            return new Bucket(key, type, minute, draining);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    record Bucket(String key, CounterType type, long epochMinute, boolean draining) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.manga.counter;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 多节点计数：把增量写入 Redis 当前分钟桶（一次 pipeline 的 HINCRBY），
+ * 同时累加到 pending 哈希供读取时叠加实时计数（见 {@link CounterOverlay}）。
+ * 分钟桶由 {@link CounterDrainer} 的主节点汇总写回 MySQL，不再由每个节点各自更新同一行。
+ */
+@Component
+@Primary
+@ConditionalOnProperty(prefix = "counter", name = "store", havingValue = "redis")
+public class RedisCounterSink implements CounterSink {
+
+    /**
+     * 分钟桶的兜底过期时间（正常情况下几十秒内就会被主节点汇总删除）
+     */
+    private static final Duration BUCKET_TTL = Duration.ofDays(1);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisCounterSink(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void apply(Map<CounterType, Map<Long, Long>> deltas) {
+        long minute = System.currentTimeMillis() / 60_000;
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                deltas.forEach((type, counts) -> {
+                    String bucket = RedisCounterKeys.bucket(type, minute);
+                    String pending = RedisCounterKeys.pending(type);
+                    counts.forEach((id, delta) -> {
+                        String field = String.valueOf(id);
+                        operations.opsForHash().increment(bucket, field, delta);
+                        operations.opsForHash().increment(pending, field, delta);
+                    });
+                    operations.expire(bucket, BUCKET_TTL);
+                    operations.opsForSet().add(RedisCounterKeys.BUCKET_INDEX, bucket);
+                });
+                return null;
+            }
+        });
+    }
+}
@@ -6,8 +6,10 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.springframework.beans.BeanUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Getter
@@ -49,11 +51,20 @@ public class ChapterResponse {
         if (cdnService != null) {
             response.setPageUrls(cdnService.buildUrls(chapter.getPageUrls()));
         } else {
-            response.setPageUrls(chapter.getPageUrls());
+            // 复制集合，避免把 Hibernate 的懒加载集合放进缓存
+            response.setPageUrls(chapter.getPageUrls() != null ? new ArrayList<>(chapter.getPageUrls()) : null);
         }
         
         response.setCreatedAt(chapter.getCreatedAt());
         return response;
     }
-}
 
+    /**
+     * 浅拷贝（本地缓存中的对象是共享实例，拼接 CDN URL 前必须先拷贝）
+     */
+    public ChapterResponse copy() {
+        ChapterResponse copy = new ChapterResponse();
+        BeanUtils.copyProperties(this, copy);
+        return copy;
+    }
+}
@@ -0,0 +1,21 @@
+package com.manga.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 游标分页结果：不统计总数，nextCursor 原样传回即可取下一页（没有下一页时为 null）
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse {
+    private List<MangaResponse> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,23 @@
+package com.manga.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分页结果 + 分面计数
+ * facets 的 key 为 tag / country / tendency / isFinish，按计数从高到低排列
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedPageResponse {
+    private Page<MangaResponse> results;
+    private Map<String, List<FacetCount>> facets;
+}
@@ -0,0 +1,53 @@
+package com.manga.dto;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * 列表卡片投影：列表页只需要的标量字段和章节统计，由构造表达式查询直接生成（见 MangaRepository#MANGA_CARD）
+ *
+ * 不含简介、详情图和 labels；这些只在漫画详情（/api/manga/{id}）中加载。
+ */
+public record MangaCard(Long id, String title, String oldName, String coverImageUrl, String author, String slogan,
+                        Boolean isChoiceness, Boolean isRecommend, Boolean isNew, String period, Boolean isPutaway,
+                        LocalDateTime putawayTime, LocalDateTime onlineTime, String tendency, String country,
+                        String isFinish, Integer sortOrder, Integer viewCount, Integer favoriteCount,
+                        Integer chapterCount, Integer latestChapterNumber, LocalDateTime latestChapterAt,
+                        String source, LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    /**
+     * 转换为列表响应（不进行 CDN URL 转换）
+     *
+     * @param tags 该漫画的标签（按页批量查询）
+     */
+    public MangaResponse toResponse(Set<String> tags) {
+        MangaResponse response = new MangaResponse();
+        response.setId(id);
+        response.setTitle(title);
+        response.setOldName(oldName);
+        response.setCoverImageUrl(coverImageUrl);
+        response.setAuthor(author);
+        response.setSlogan(slogan);
+        response.setIsChoiceness(isChoiceness);
+        response.setIsRecommend(isRecommend);
+        response.setIsNew(isNew);
+        response.setPeriod(period);
+        response.setIsPutaway(isPutaway);
+        response.setPutawayTime(putawayTime);
+        response.setOnlineTime(onlineTime);
+        response.setTendency(tendency);
+        response.setCountry(country);
+        response.setIsFinish(isFinish);
+        response.setSortOrder(sortOrder);
+        response.setViewCount(viewCount);
+        response.setFavoriteCount(favoriteCount);
+        response.setChapterCount(chapterCount != null ? chapterCount : 0);
+        response.setLatestChapterNumber(latestChapterNumber);
+        response.setLatestChapterAt(latestChapterAt);
+        response.setTags(tags);
+        response.setSource(source);
+        response.setCreatedAt(createdAt);
+        response.setUpdatedAt(updatedAt);
+        return response;
+    }
+}
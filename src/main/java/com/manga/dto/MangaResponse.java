@@ -6,8 +6,11 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.springframework.beans.BeanUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -38,6 +41,8 @@ public class MangaResponse {
     private Integer viewCount;
     private Integer favoriteCount;
     private Integer chapterCount;
+    private Integer latestChapterNumber;
+    private LocalDateTime latestChapterAt;
     private Set<String> tags;
     private Set<String> labels;
     private String source;
@@ -71,7 +76,7 @@ public class MangaResponse {
             response.setDetailImages(cdnService.buildUrls(manga.getDetailImages()));
         } else {
             response.setCoverImageUrl(manga.getCoverImageUrl());
-            response.setDetailImages(manga.getDetailImages());
+            response.setDetailImages(manga.getDetailImages() != null ? new ArrayList<>(manga.getDetailImages()) : null);
         }
         
         response.setAuthor(manga.getAuthor());
@@ -89,13 +94,24 @@ public class MangaResponse {
         response.setSortOrder(manga.getSortOrder());
         response.setViewCount(manga.getViewCount());
         response.setFavoriteCount(manga.getFavoriteCount());
-        response.setChapterCount(manga.getChapters() != null ? manga.getChapters().size() : 0);
-        response.setTags(manga.getTags());
-        response.setLabels(manga.getLabels());
+        response.setChapterCount(manga.getChapterCount() != null ? manga.getChapterCount() : 0);
+        response.setLatestChapterNumber(manga.getLatestChapterNumber());
+        response.setLatestChapterAt(manga.getLatestChapterAt());
+        // 复制集合，避免把 Hibernate 的懒加载集合放进缓存
+        response.setTags(manga.getTags() != null ? new HashSet<>(manga.getTags()) : null);
+        response.setLabels(manga.getLabels() != null ? new HashSet<>(manga.getLabels()) : null);
         response.setSource(manga.getSource());
         response.setCreatedAt(manga.getCreatedAt());
         response.setUpdatedAt(manga.getUpdatedAt());
         return response;
     }
-}
 
+    /**
+     * 浅拷贝（本地缓存中的对象是共享实例，拼接 CDN URL 前必须先拷贝）
+     */
+    public MangaResponse copy() {
+        MangaResponse copy = new MangaResponse();
+        BeanUtils.copyProperties(this, copy);
+        return copy;
+    }
+}
@@ -0,0 +1,20 @@
+package com.manga.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 搜索联想词
+ * type：title / oldName / author / tag；mangaId 只在 title、oldName 时有值
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionResponse {
+    private String text;
+    private String type;
+    private Long mangaId;
+}
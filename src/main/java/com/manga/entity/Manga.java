@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -15,7 +16,15 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "manga")
+@Table(name = "manga", indexes = {
+        // 游标分页按这些索引的顺序定位和扫描（见 MangaRepository 的 *After 查询）
+        @Index(name = "idx_manga_catalog", columnList = "is_putaway, sort_order, created_at DESC, id DESC"),
+        @Index(name = "idx_manga_latest", columnList = "is_putaway, created_at DESC, id DESC"),
+        @Index(name = "idx_manga_new", columnList = "is_putaway, is_new, created_at DESC, id DESC"),
+        @Index(name = "idx_manga_country_catalog", columnList = "country, is_putaway, sort_order, created_at DESC, id DESC"),
+        @Index(name = "idx_manga_tendency_catalog", columnList = "tendency, is_putaway, sort_order, created_at DESC, id DESC"),
+        @Index(name = "idx_manga_chapter_updated", columnList = "is_putaway, latest_chapter_at DESC, id DESC")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -89,6 +98,23 @@ public class Manga {
     @Column(nullable = false)
     private Integer favoriteCount = 0;
 
+    /**
+     * 章节统计（冗余字段）：新增 / 删除章节、导入时从 chapters 表重算，
+     * 定时任务批量校正（见 ChapterStatsRepairJob），列表页不再加载章节集合
+     */
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Integer chapterCount = 0;
+
+    @Column
+    private Integer latestChapterNumber;
+
+    /**
+     * 最新章节的发布时间，"最近更新"列表按它排序
+     */
+    @Column
+    private LocalDateTime latestChapterAt;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
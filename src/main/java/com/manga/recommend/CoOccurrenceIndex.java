@@ -0,0 +1,226 @@
+package com.manga.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 不可变的收藏共现快照
+ *
+ * 漫画按 id 升序编为序号，每部漫画的相似漫画（序号）与相似度保存在 CSR 布局的 int[] / float[] 中，
+ * 按相似度从高到低。相似度为余弦：共同收藏的用户数 / sqrt(收藏 a 的用户数 × 收藏 b 的用户数)。
+ *
+ * 构建不生成完整的共现矩阵：收藏按用户顺序追加为"用户 -> 漫画"数组，再倒排为"漫画 -> 用户"数组，
+ * 之后逐部漫画用一个稠密计数数组累加它的一行共现计数，立即裁剪为 topK 并清零，
+ * 额外内存只有两份收藏数组和一行计数数组。
+ */
+final class CoOccurrenceIndex {
+
+    private static final long[] NONE = new long[0];
+
+    private final long[] mangaIds;
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final float[] scores;
+
+    private CoOccurrenceIndex(long[] mangaIds, int[] offsets, int[] neighbours, float[] scores) {
+        this.mangaIds = mangaIds;
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.scores = scores;
+    }
+
+    int size() {
+        return mangaIds.length;
+    }
+
+    int neighbourCount() {
+        return neighbours.length;
+    }
+
+    long memoryBytes() {
+        return (long) mangaIds.length * Long.BYTES
+                + (long) offsets.length * Integer.BYTES
+                + (long) neighbours.length * (Integer.BYTES + Float.BYTES);
+    }
+
+    /**
+     * 相似漫画 id，按相似度从高到低；没有共现数据时返回空数组
+     */
+    long[] neighbours(long mangaId) {
+        int ordinal = Arrays.binarySearch(mangaIds, mangaId);
+        if (ordinal < 0) {
+            return NONE;
+        }
+        long[] ids = new long[offsets[ordinal + 1] - offsets[ordinal]];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = mangaIds[neighbours[offsets[ordinal] + i]];
+        }
+        return ids;
+    }
+
+    /**
+     * 合并多部漫画的相似漫画：候选得分为各来源相似度之和，排除 excluded，按得分从高到低取 limit 个
+     */
+    List<Long> merge(Collection<Long> seeds, Set<Long> excluded, int limit) {
+        Map<Integer, Float> merged = new HashMap<>();
+        for (Long seed : seeds) {
+            int ordinal = Arrays.binarySearch(mangaIds, seed);
+            if (ordinal < 0) {
+                continue;
+            }
+            for (int i = offsets[ordinal]; i < offsets[ordinal + 1]; i++) {
+                if (!excluded.contains(mangaIds[neighbours[i]])) {
+                    merged.merge(neighbours[i], scores[i], Float::sum);
+                }
+            }
+        }
+        List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(merged.entrySet());
+        ranked.sort(Map.Entry.<Integer, Float>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && ids.size() < limit; i++) {
+            ids.add(mangaIds[ranked.get(i).getKey()]);
+        }
+        return ids;
+    }
+
+    /**
+     * 按用户顺序接收收藏（同一用户的收藏必须连续），最后一次性构建快照
+     */
+    static final class Builder {
+
+        private long[] items = new long[1 << 16];
+        private int[] userStarts = new int[1 << 12];
+        private int itemCount;
+        private int userCount;
+        private long currentUser = Long.MIN_VALUE;
+
+        void add(long userId, long mangaId) {
+            if (userId != currentUser) {
+                if (userCount == userStarts.length) {
+                    userStarts = Arrays.copyOf(userStarts, userCount * 2);
+                }
+                userStarts[userCount++] = itemCount;
+                currentUser = userId;
+            }
+            if (itemCount == items.length) {
+                items = Arrays.copyOf(items, itemCount * 2);
+            }
+            items[itemCount++] = mangaId;
+        }
+
+        int favorites() {
+            return itemCount;
+        }
+
+        /**
+         * @param maxUserFavorites 收藏数超过该值的用户不参与统计
+         */
+        CoOccurrenceIndex build(int topK, int minSupport, int maxUserFavorites) {
+            // 漫画 id 去重排序后编为序号
+            long[] mangaIds = Arrays.copyOf(items, itemCount);
+            Arrays.sort(mangaIds);
+            int distinct = 0;
+            for (int i = 0; i < mangaIds.length; i++) {
+                if (i == 0 || mangaIds[i] != mangaIds[i - 1]) {
+                    mangaIds[distinct++] = mangaIds[i];
+                }
+            }
+            mangaIds = Arrays.copyOf(mangaIds, distinct);
+
+            // 用户 -> 漫画序号（跳过收藏过多的用户）
+            int[] userOffsets = new int[userCount + 1];
+            int[] userItems = new int[itemCount];
+            int kept = 0;
+            int users = 0;
+            for (int user = 0; user < userCount; user++) {
+                int from = userStarts[user];
+                int to = user + 1 < userCount ? userStarts[user + 1] : itemCount;
+                if (to - from > maxUserFavorites) {
+                    continue;
+                }
+                userOffsets[users] = kept;
+                for (int i = from; i < to; i++) {
+                    userItems[kept++] = Arrays.binarySearch(mangaIds, items[i]);
+                }
+                users++;
+            }
+            userOffsets[users] = kept;
+            items = null;
+
+            // 漫画 -> 用户（计数排序倒排）
+            int[] itemOffsets = new int[distinct + 1];
+            for (int i = 0; i < kept; i++) {
+                itemOffsets[userItems[i] + 1]++;
+            }
+            for (int item = 0; item < distinct; item++) {
+                itemOffsets[item + 1] += itemOffsets[item];
+            }
+            int[] itemUsers = new int[kept];
+            int[] cursor = Arrays.copyOf(itemOffsets, distinct);
+            for (int user = 0; user < users; user++) {
+                for (int i = userOffsets[user]; i < userOffsets[user + 1]; i++) {
+                    itemUsers[cursor[userItems[i]]++] = user;
+                }
+            }
+
+            // 逐行累加共现计数并裁剪为 topK
+            int[] counts = new int[distinct];
+            int[] touched = new int[distinct];
+            long[] ranked = new long[distinct];
+            int[] offsets = new int[distinct + 1];
+            int[] neighbours = new int[Math.min(distinct * Math.max(0, topK), 1 << 20)];
+            float[] scores = new float[neighbours.length];
+            int neighbourCount = 0;
+            int support = Math.max(1, minSupport);
+
+            for (int item = 0; item < distinct; item++) {
+                offsets[item] = neighbourCount;
+                int touchedCount = 0;
+                for (int u = itemOffsets[item]; u < itemOffsets[item + 1]; u++) {
+                    int user = itemUsers[u];
+                    for (int i = userOffsets[user]; i < userOffsets[user + 1]; i++) {
+                        int other = userItems[i];
+                        if (other != item && counts[other]++ == 0) {
+                            touched[touchedCount++] = other;
+                        }
+                    }
+                }
+
+                // 相似度（非负 float 的位模式与大小同序）<< 32 | 序号，升序排序后从尾部取
+                int rankedCount = 0;
+                double itemUsersCount = itemOffsets[item + 1] - itemOffsets[item];
+                for (int t = 0; t < touchedCount; t++) {
+                    int other = touched[t];
+                    if (counts[other] >= support) {
+                        double otherUsers = itemOffsets[other + 1] - itemOffsets[other];
+                        float score = (float) (counts[other] / Math.sqrt(itemUsersCount * otherUsers));
+                        ranked[rankedCount++] = (long) Float.floatToIntBits(score) << 32 | other;
+                    }
+                    counts[other] = 0;
+                }
+                Arrays.sort(ranked, 0, rankedCount);
+                int keep = Math.min(topK, rankedCount);
+                if (neighbourCount + keep > neighbours.length) {
+                    int capacity = Math.max(neighbours.length * 2, neighbourCount + keep);
+                    neighbours = Arrays.copyOf(neighbours, capacity);
+                    scores = Arrays.copyOf(scores, capacity);
+                }
+                for (int i = 0; i < keep; i++) {
+                    long entry = ranked[rankedCount - 1 - i];
+                    neighbours[neighbourCount] = (int) entry;
+                    scores[neighbourCount] = Float.intBitsToFloat((int) (entry >>> 32));
+                    neighbourCount++;
+                }
+            }
+            offsets[distinct] = neighbourCount;
+            return new CoOccurrenceIndex(mangaIds, offsets, Arrays.copyOf(neighbours, neighbourCount),
+                    Arrays.copyOf(scores, neighbourCount));
+        }
+    }
+}
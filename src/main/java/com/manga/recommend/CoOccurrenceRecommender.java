@@ -0,0 +1,111 @@
+package com.manga.recommend;
+
+import com.manga.config.RecommendProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于收藏共现的推荐（item-to-item）
+ *
+ * 每个 recommend.refresh-interval 按 (user_id, manga_id) 顺序分批读取 favorites 表
+ * （唯一约束的索引有序，键集分页，不长时间占用连接），构建新的 {@link CoOccurrenceIndex} 并整体替换。
+ * 查询只读内存快照、无锁；新收藏在下一次重算后生效。
+ */
+@Component
+@Slf4j
+public class CoOccurrenceRecommender implements ApplicationRunner {
+
+    private static final String BATCH_SQL = "SELECT user_id, manga_id FROM favorites " +
+            "WHERE user_id > ? OR (user_id = ? AND manga_id > ?) ORDER BY user_id, manga_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RecommendProperties properties;
+
+    private volatile CoOccurrenceIndex index;
+
+    public CoOccurrenceRecommender(JdbcTemplate jdbcTemplate, RecommendProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        Gauge.builder("recommend.index.memory", this, recommender -> {
+                    CoOccurrenceIndex current = recommender.index;
+                    return current != null ? current.memoryBytes() : 0;
+                })
+                .description("Heap used by the favorite co-occurrence snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("recommend.index.neighbours", this, recommender -> {
+                    CoOccurrenceIndex current = recommender.index;
+                    return current != null ? current.neighbourCount() : 0;
+                })
+                .description("Item-to-item pairs held in the co-occurrence snapshot")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "#{@recommendProperties.refreshInterval.toMillis()}",
+            initialDelayString = "#{@recommendProperties.refreshInterval.toMillis()}")
+    public void refresh() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            CoOccurrenceIndex.Builder builder = new CoOccurrenceIndex.Builder();
+            int batchSize = Math.max(1, properties.getBatchSize());
+            long[] last = {Long.MIN_VALUE, Long.MIN_VALUE};
+            int fetched;
+            do {
+                int[] rows = {0};
+                jdbcTemplate.query(BATCH_SQL, resultSet -> {
+                    last[0] = resultSet.getLong(1);
+                    last[1] = resultSet.getLong(2);
+                    builder.add(last[0], last[1]);
+                    rows[0]++;
+                }, last[0], last[0], last[1], batchSize);
+                fetched = rows[0];
+            } while (fetched == batchSize);
+
+            CoOccurrenceIndex rebuilt = builder.build(properties.getTopK(), properties.getMinSupport(),
+                    properties.getMaxUserFavorites());
+            index = rebuilt;
+            log.info("Favorite co-occurrence rebuilt: {} favorites, {} manga, {} pairs, ~{} KB in {} ms",
+                    builder.favorites(), rebuilt.size(), rebuilt.neighbourCount(), rebuilt.memoryBytes() / 1024,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.warn("Failed to rebuild favorite co-occurrence: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return properties.isEnabled() && index != null;
+    }
+
+    /**
+     * 根据用户的收藏推荐漫画 id（按合并得分从高到低）
+     *
+     * @param favorites 用户的收藏，最近收藏在前；前 seed-favorites 个作为推荐来源，全部从结果中排除
+     */
+    public List<Long> recommend(List<Long> favorites, int limit) {
+        CoOccurrenceIndex current = index;
+        if (!properties.isEnabled() || current == null || limit <= 0 || favorites.isEmpty()) {
+            return List.of();
+        }
+        List<Long> seeds = favorites.subList(0, Math.min(favorites.size(), Math.max(1, properties.getSeedFavorites())));
+        return current.merge(seeds, new HashSet<>(favorites), limit);
+    }
+}
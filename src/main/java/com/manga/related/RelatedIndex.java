@@ -0,0 +1,388 @@
+package com.manga.related;
+
+import com.manga.config.RelatedProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * 不可变的相关作品快照
+ *
+ * 上架漫画按 id 升序编为序号，每部漫画的相似作品以序号保存在一个 int[] 中（CSR 布局：
+ * offsets[n]..offsets[n+1] 为第 n 部的相似作品，按相似度从高到低），100k 部 × 50 约 20 MB。
+ *
+ * 构建过程：
+ * - 特征：作者（按 / , 、 & 拆分）、地区、tags、labels，统一编号；
+ *   特征权重 = 类型权重 × log(1 + 总数 / 包含该特征的漫画数)，常见特征权重低；
+ * - 候选：对特征集合计算 MinHash 签名并分段（LSH），同一段哈希相同的漫画互为候选，
+ *   每部漫画只与少量候选比较，不做 O(n²) 的两两比较；
+ * - 打分：对候选计算加权 Jaccard（交集权重 / 并集权重），保留前 topN。
+ */
+final class RelatedIndex {
+
+    private static final long[] NONE = new long[0];
+
+    private static final int AUTHOR = 0;
+    private static final int COUNTRY = 1;
+    private static final int TAG = 2;
+    private static final int LABEL = 3;
+
+    /**
+     * 各类特征的权重：同作者最能说明相关，地区最弱
+     */
+    private static final double[] TYPE_WEIGHTS = {3.0, 0.5, 2.0, 1.0};
+
+    /**
+     * LSH 桶条目 = 段哈希（高 39 位）<< 24 | 序号，按 long 排序后同一个桶连续存放
+     */
+    private static final int ORDINAL_BITS = 24;
+    private static final long ORDINAL_MASK = (1L << ORDINAL_BITS) - 1;
+
+    /**
+     * MinHash 种子固定，同样的数据每次生成同样的分桶
+     */
+    private static final long SEED = 0x5DEECE66DL;
+
+    private final long[] mangaIds;
+    private final int[] offsets;
+    private final int[] neighbours;
+
+    private RelatedIndex(long[] mangaIds, int[] offsets, int[] neighbours) {
+        this.mangaIds = mangaIds;
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+    }
+
+    static RelatedIndex build(Collection<RelatedSource> sources, Map<Long, ? extends Collection<String>> tagsById,
+                              Map<Long, ? extends Collection<String>> labelsById, RelatedProperties properties) {
+        List<RelatedSource> rows = new ArrayList<>(sources);
+        rows.sort(Comparator.comparing(RelatedSource::id));
+        int size = rows.size();
+        if (size > ORDINAL_MASK) {
+            throw new IllegalStateException("Too many manga for the related index: " + size);
+        }
+
+        long[] mangaIds = new long[size];
+        Features features = new Features(size);
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            RelatedSource row = rows.get(ordinal);
+            mangaIds[ordinal] = row.id();
+            if (row.author() != null) {
+                for (String author : row.author().split("[/,，、&]")) {
+                    features.add(ordinal, AUTHOR, author);
+                }
+            }
+            features.add(ordinal, COUNTRY, row.country());
+            features.addAll(ordinal, TAG, tagsById.get(row.id()));
+            features.addAll(ordinal, LABEL, labelsById.get(row.id()));
+        }
+        int[][] featureSets = features.sets();
+        double[] weights = features.weights();
+        long[] featureHashes = features.hashes();
+
+        int bands = Math.max(1, properties.getBands());
+        int rowsPerBand = Math.max(1, properties.getSignatureSize() / bands);
+        long[] seeds = new long[bands * rowsPerBand];
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+
+        // 每段一个有序的桶条目数组
+        long[][] buckets = new long[bands][];
+        long[] signature = new long[seeds.length];
+        int[] count = new int[bands];
+        for (int band = 0; band < bands; band++) {
+            buckets[band] = new long[size];
+        }
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (featureSets[ordinal].length == 0) {
+                continue;
+            }
+            minHash(featureSets[ordinal], featureHashes, seeds, signature);
+            for (int band = 0; band < bands; band++) {
+                buckets[band][count[band]++] = bandKey(signature, band, rowsPerBand) << ORDINAL_BITS | ordinal;
+            }
+        }
+        for (int band = 0; band < bands; band++) {
+            buckets[band] = Arrays.copyOf(buckets[band], count[band]);
+            Arrays.sort(buckets[band]);
+        }
+
+        double[] totals = new double[size];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            for (int feature : featureSets[ordinal]) {
+                totals[ordinal] += weights[feature];
+            }
+        }
+
+        int topN = Math.max(0, properties.getTopN());
+        int maxBucketSize = Math.max(2, properties.getMaxBucketSize());
+        int[] offsets = new int[size + 1];
+        int[] neighbours = new int[Math.min(size * topN, 1 << 20)];
+        int neighbourCount = 0;
+        int[] seen = new int[size];
+        int[] candidates = new int[bands * maxBucketSize];
+        long[] scored = new long[candidates.length];
+
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            offsets[ordinal] = neighbourCount;
+            if (featureSets[ordinal].length == 0 || topN == 0) {
+                continue;
+            }
+            minHash(featureSets[ordinal], featureHashes, seeds, signature);
+            int candidateCount = 0;
+            seen[ordinal] = ordinal + 1;
+            for (int band = 0; band < bands; band++) {
+                long key = bandKey(signature, band, rowsPerBand);
+                int from = lowerBound(buckets[band], key << ORDINAL_BITS);
+                int to = upperBound(buckets[band], key << ORDINAL_BITS | ORDINAL_MASK);
+                if (to - from < 2 || to - from > maxBucketSize) {
+                    continue;
+                }
+                for (int i = from; i < to; i++) {
+                    int candidate = (int) (buckets[band][i] & ORDINAL_MASK);
+                    if (seen[candidate] != ordinal + 1) {
+                        seen[candidate] = ordinal + 1;
+                        candidates[candidateCount++] = candidate;
+                    }
+                }
+            }
+
+            // 相似度（非负 float 的位模式与大小同序）<< 32 | 序号，升序排序后从尾部取
+            int scoredCount = 0;
+            for (int i = 0; i < candidateCount; i++) {
+                int candidate = candidates[i];
+                double shared = sharedWeight(featureSets[ordinal], featureSets[candidate], weights);
+                if (shared <= 0) {
+                    continue;
+                }
+                float similarity = (float) (shared / (totals[ordinal] + totals[candidate] - shared));
+                scored[scoredCount++] = (long) Float.floatToIntBits(similarity) << 32 | candidate;
+            }
+            Arrays.sort(scored, 0, scoredCount);
+            int kept = Math.min(topN, scoredCount);
+            if (neighbourCount + kept > neighbours.length) {
+                neighbours = Arrays.copyOf(neighbours, Math.max(neighbours.length * 2, neighbourCount + kept));
+            }
+            for (int i = 0; i < kept; i++) {
+                neighbours[neighbourCount++] = (int) scored[scoredCount - 1 - i];
+            }
+        }
+        offsets[size] = neighbourCount;
+        return new RelatedIndex(mangaIds, offsets, Arrays.copyOf(neighbours, neighbourCount));
+    }
+
+    private static void minHash(int[] features, long[] featureHashes, long[] seeds, long[] signature) {
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (int feature : features) {
+            long hash = featureHashes[feature];
+            for (int i = 0; i < seeds.length; i++) {
+                long value = mix(hash ^ seeds[i]);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+    }
+
+    /**
+     * 一段签名的哈希，取高 39 位（条目的符号位保持为 0，有序数组中同一个桶连续）
+     */
+    private static long bandKey(long[] signature, int band, int rowsPerBand) {
+        long hash = band;
+        for (int row = band * rowsPerBand; row < (band + 1) * rowsPerBand; row++) {
+            hash = mix(hash ^ signature[row]);
+        }
+        return hash >>> (ORDINAL_BITS + 1);
+    }
+
+    /**
+     * 第一个 >= value 的位置
+     */
+    private static int lowerBound(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 第一个 > value 的位置
+     */
+    private static int upperBound(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 两个有序特征集合交集的权重和
+     */
+    private static double sharedWeight(int[] a, int[] b, double[] weights) {
+        double shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                shared += weights[a[i]];
+                i++;
+                j++;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * SplitMix64 的混合函数
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    int size() {
+        return mangaIds.length;
+    }
+
+    int neighbourCount() {
+        return neighbours.length;
+    }
+
+    long memoryBytes() {
+        return (long) mangaIds.length * Long.BYTES
+                + (long) offsets.length * Integer.BYTES
+                + (long) neighbours.length * Integer.BYTES;
+    }
+
+    /**
+     * 相似作品 id，按相似度从高到低；不在索引中（未上架）时返回空数组
+     */
+    long[] neighbours(long mangaId) {
+        int ordinal = Arrays.binarySearch(mangaIds, mangaId);
+        if (ordinal < 0) {
+            return NONE;
+        }
+        int from = offsets[ordinal];
+        int to = offsets[ordinal + 1];
+        long[] ids = new long[to - from];
+        for (int i = from; i < to; i++) {
+            ids[i - from] = mangaIds[neighbours[i]];
+        }
+        return ids;
+    }
+
+    /**
+     * 随机取一部上架漫画（相似作品不足时补位），没有漫画时返回 -1
+     */
+    long randomId(RandomGenerator random) {
+        return mangaIds.length > 0 ? mangaIds[random.nextInt(mangaIds.length)] : -1;
+    }
+
+    /**
+     * 构建期的特征编号与文档频率
+     */
+    private static final class Features {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<Integer> types = new ArrayList<>();
+        private final List<List<Integer>> byManga;
+        private int[] documentFrequency = new int[256];
+
+        private Features(int size) {
+            byManga = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                byManga.add(new ArrayList<>(8));
+            }
+        }
+
+        private void addAll(int ordinal, int type, Collection<String> values) {
+            if (values != null) {
+                values.forEach(value -> add(ordinal, type, value));
+            }
+        }
+
+        private void add(int ordinal, int type, String value) {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            String key = type + ":" + value.trim().toLowerCase(Locale.ROOT);
+            int feature = ids.computeIfAbsent(key, k -> {
+                keys.add(k);
+                types.add(type);
+                return keys.size() - 1;
+            });
+            List<Integer> features = byManga.get(ordinal);
+            if (features.contains(feature)) {
+                return;
+            }
+            features.add(feature);
+            if (feature >= documentFrequency.length) {
+                documentFrequency = Arrays.copyOf(documentFrequency, documentFrequency.length * 2);
+            }
+            documentFrequency[feature]++;
+        }
+
+        private int[][] sets() {
+            int[][] sets = new int[byManga.size()][];
+            for (int ordinal = 0; ordinal < sets.length; ordinal++) {
+                sets[ordinal] = byManga.get(ordinal).stream().mapToInt(Integer::intValue).sorted().toArray();
+            }
+            return sets;
+        }
+
+        private double[] weights() {
+            double total = byManga.size();
+            double[] weights = new double[keys.size()];
+            for (int feature = 0; feature < weights.length; feature++) {
+                weights[feature] = TYPE_WEIGHTS[types.get(feature)] * Math.log(1 + total / documentFrequency[feature]);
+            }
+            return weights;
+        }
+
+        /**
+         * 特征的 64 位哈希（FNV-1a 后再混合）
+         */
+        private long[] hashes() {
+            long[] hashes = new long[keys.size()];
+            for (int feature = 0; feature < hashes.length; feature++) {
+                long hash = 0xCBF29CE484222325L;
+                String key = keys.get(feature);
+                for (int i = 0; i < key.length(); i++) {
+                    hash = (hash ^ key.charAt(i)) * 0x100000001B3L;
+                }
+                hashes[feature] = mix(hash);
+            }
+            return hashes;
+        }
+    }
+}
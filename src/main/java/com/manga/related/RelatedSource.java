@@ -0,0 +1,7 @@
+package com.manga.related;
+
+/**
+ * 计算相关作品所需的漫画字段（标签、label 另行批量加载）
+ */
+public record RelatedSource(Long id, String author, String country) {
+}
@@ -0,0 +1,140 @@
+package com.manga.related;
+
+import com.manga.config.RelatedProperties;
+import com.manga.repository.MangaRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 相关作品
+ *
+ * 后台每个 related.refresh-interval 从数据库读取上架漫画的作者、地区、tags、labels，
+ * 重新计算 {@link RelatedIndex} 快照并整体替换，查询只读内存、无锁。
+ * 新上架的漫画在下一次重算前没有相似作品，由随机上架漫画补位。
+ */
+@Component
+@Slf4j
+public class RelatedWorksEngine implements ApplicationRunner {
+
+    /**
+     * 补位时随机抽取的最多尝试次数（相对 limit 的倍数）
+     */
+    private static final int FILL_ATTEMPTS = 4;
+
+    private final MangaRepository mangaRepository;
+    private final RelatedProperties properties;
+
+    private volatile RelatedIndex index;
+
+    public RelatedWorksEngine(MangaRepository mangaRepository, RelatedProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.mangaRepository = mangaRepository;
+        this.properties = properties;
+        Gauge.builder("related.index.memory", this, engine -> {
+                    RelatedIndex current = engine.index;
+                    return current != null ? current.memoryBytes() : 0;
+                })
+                .description("Heap used by the precomputed related works")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("related.index.neighbours", this, engine -> {
+                    RelatedIndex current = engine.index;
+                    return current != null ? current.neighbourCount() : 0;
+                })
+                .description("Related works pairs held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "#{@relatedProperties.refreshInterval.toMillis()}",
+            initialDelayString = "#{@relatedProperties.refreshInterval.toMillis()}")
+    public void refresh() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            List<RelatedSource> sources = mangaRepository.findRelatedSources();
+            Map<Long, List<String>> tags = new HashMap<>();
+            for (Object[] pair : mangaRepository.findPutawayTagPairs()) {
+                tags.computeIfAbsent((Long) pair[0], id -> new ArrayList<>()).add((String) pair[1]);
+            }
+            Map<Long, List<String>> labels = new HashMap<>();
+            for (Object[] pair : mangaRepository.findPutawayLabelPairs()) {
+                labels.computeIfAbsent((Long) pair[0], id -> new ArrayList<>()).add((String) pair[1]);
+            }
+            RelatedIndex rebuilt = RelatedIndex.build(sources, tags, labels, properties);
+            index = rebuilt;
+            log.info("Related works rebuilt: {} manga, {} pairs, ~{} KB in {} ms", rebuilt.size(),
+                    rebuilt.neighbourCount(), rebuilt.memoryBytes() / 1024,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.warn("Failed to rebuild related works: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return properties.isEnabled() && index != null;
+    }
+
+    /**
+     * 取 limit 部相关作品的 id
+     *
+     * 从最相似的 limit × sample-pool-factor 部中随机抽取 limit 部，按相似度顺序返回；
+     * 相似作品不足时用随机上架漫画补位。未就绪时返回空列表。
+     */
+    public List<Long> relatedIds(Long mangaId, int limit) {
+        RelatedIndex current = index;
+        if (!properties.isEnabled() || current == null || limit <= 0) {
+            return List.of();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] neighbours = current.neighbours(mangaId);
+        int pool = (int) Math.min(neighbours.length, (long) limit * Math.max(1, properties.getSamplePoolFactor()));
+
+        // 部分 Fisher-Yates：前 picked 个位置即抽中的名次
+        int[] ranks = new int[pool];
+        for (int i = 0; i < pool; i++) {
+            ranks[i] = i;
+        }
+        int picked = Math.min(limit, pool);
+        for (int i = 0; i < picked; i++) {
+            int j = i + random.nextInt(pool - i);
+            int swap = ranks[i];
+            ranks[i] = ranks[j];
+            ranks[j] = swap;
+        }
+        Arrays.sort(ranks, 0, picked);
+
+        Set<Long> ids = new LinkedHashSet<>();
+        for (int i = 0; i < picked; i++) {
+            ids.add(neighbours[ranks[i]]);
+        }
+        for (int attempt = 0; ids.size() < limit && attempt < limit * FILL_ATTEMPTS; attempt++) {
+            long id = current.randomId(random);
+            if (id >= 0 && id != mangaId) {
+                ids.add(id);
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+}
@@ -1,12 +1,16 @@
 package com.manga.repository;
 
+import com.manga.dto.MangaCard;
 import com.manga.entity.Favorite;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,10 +18,41 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     Optional<Favorite> findByUserIdAndMangaId(Long userId, Long mangaId);
     boolean existsByUserIdAndMangaId(Long userId, Long mangaId);
     
-    @Query("SELECT f FROM Favorite f WHERE f.user.id = :userId ORDER BY f.createdAt DESC")
-    Page<Favorite> findByUserId(Long userId, Pageable pageable);
+    /**
+     * 用户收藏的漫画（列表卡片投影，最近收藏在前）
+     */
+    @Query(value = "SELECT " + MangaRepository.MANGA_CARD + " FROM Favorite f JOIN f.manga m " +
+            "WHERE f.user.id = :userId ORDER BY f.createdAt DESC",
+            countQuery = "SELECT COUNT(f) FROM Favorite f WHERE f.user.id = :userId")
+    Page<MangaCard> findMangaCardsByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    /**
+     * 用户收藏的漫画 id（最近收藏在前）
+     */
+    @Query("SELECT f.manga.id FROM Favorite f WHERE f.user.id = :userId ORDER BY f.createdAt DESC, f.id DESC")
+    List<Long> findMangaIdsByUserId(@Param("userId") Long userId);
     
     void deleteByUserIdAndMangaId(Long userId, Long mangaId);
+
+    /**
+     * 插入收藏，不先加载实体
+     *
+     * 已收藏时由 (user_id, manga_id) 唯一约束拒绝，抛出 {@link org.springframework.dao.DataIntegrityViolationException}；
+     * 不使用 INSERT IGNORE，外键等其他约束错误照常抛出
+     */
+    @Modifying
+    @Query(value = "INSERT INTO favorites (user_id, manga_id, created_at) VALUES (:userId, :mangaId, NOW())",
+            nativeQuery = true)
+    int insertFavorite(@Param("userId") Long userId, @Param("mangaId") Long mangaId);
+
+    /**
+     * 按 id 直接删除，不先加载实体
+     *
+     * @return 删除的行数（0 表示原本未收藏）
+     */
+    @Modifying
+    @Query("DELETE FROM Favorite f WHERE f.user.id = :userId AND f.manga.id = :mangaId")
+    int deleteByIds(@Param("userId") Long userId, @Param("mangaId") Long mangaId);
 }
 
 
@@ -1,67 +1,268 @@
 package com.manga.repository;
 
+import com.manga.dto.MangaCard;
 import com.manga.entity.Manga;
+import com.manga.related.RelatedSource;
+import com.manga.search.FilterSource;
+import com.manga.search.SearchDocument;
+import com.manga.search.SuggestSource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface MangaRepository extends JpaRepository<Manga, Long> {
+
+    /**
+     * 列表卡片的构造表达式：只取标量字段（章节统计为冗余列），不加载简介、详情图、标签等集合；
+     * 标签由调用方按页批量查询（{@link #findTagPairsByIds}）
+     */
+    String MANGA_CARD = "new com.manga.dto.MangaCard(m.id, m.title, m.oldName, m.coverImageUrl, m.author, m.slogan, " +
+            "m.isChoiceness, m.isRecommend, m.isNew, m.period, m.isPutaway, m.putawayTime, m.onlineTime, " +
+            "m.tendency, m.country, m.isFinish, m.sortOrder, m.viewCount, m.favoriteCount, m.chapterCount, " +
+            "m.latestChapterNumber, m.latestChapterAt, m.source, m.createdAt, m.updatedAt)";
+
+    /**
+     * 游标分页的定位条件：排在 (sortOrder, createdAt, id) 之后（sortOrder 升序，createdAt、id 倒序）
+     */
+    String AFTER_CATALOG_CURSOR = "(m.sortOrder > :sortOrder OR (m.sortOrder = :sortOrder AND " +
+            "(m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id))))";
+
+    /**
+     * 游标分页的定位条件：排在 (createdAt, id) 之后（均倒序）
+     */
+    String AFTER_LATEST_CURSOR = "(m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id))";
     
-    @Query("SELECT m FROM Manga m WHERE m.isPutaway = true AND " +
+    /**
+     * LIKE 搜索，只查 id（漫画数据从缓存加载）
+     */
+    @Query("SELECT m.id FROM Manga m WHERE m.isPutaway = true AND " +
            "(LOWER(m.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
            "OR LOWER(m.oldName) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
            "OR LOWER(m.author) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
            "OR LOWER(m.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Manga> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+    Page<Long> searchIdsByKeyword(@Param("keyword") String keyword, Pageable pageable);
     
-    @Query("SELECT DISTINCT m FROM Manga m JOIN m.tags t WHERE m.isPutaway = true AND t = :tag AND " +
+    /**
+     * 标签在同一漫画内唯一，连接后每部漫画至多一行，不需要 DISTINCT
+     */
+    @Query("SELECT m.id FROM Manga m JOIN m.tags t WHERE m.isPutaway = true AND t = :tag AND " +
            "(LOWER(m.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
            "OR LOWER(m.oldName) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
            "OR LOWER(m.author) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
            "OR LOWER(m.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Manga> searchByKeywordAndTag(@Param("keyword") String keyword, @Param("tag") String tag, Pageable pageable);
+    Page<Long> searchIdsByKeywordAndTag(@Param("keyword") String keyword, @Param("tag") String tag, Pageable pageable);
     
-    @Query("SELECT m FROM Manga m WHERE m.isPutaway = true ORDER BY m.viewCount DESC")
-    Page<Manga> findTopByViewCount(Pageable pageable);
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true ORDER BY m.viewCount DESC")
+    Page<MangaCard> findTopByViewCount(Pageable pageable);
     
-    @Query("SELECT m FROM Manga m WHERE m.isPutaway = true ORDER BY m.favoriteCount DESC")
-    Page<Manga> findTopByFavoriteCount(Pageable pageable);
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true ORDER BY m.favoriteCount DESC")
+    Page<MangaCard> findTopByFavoriteCount(Pageable pageable);
     
-    @Query("SELECT m FROM Manga m WHERE m.isPutaway = true ORDER BY m.createdAt DESC")
-    Page<Manga> findLatest(Pageable pageable);
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true ORDER BY m.createdAt DESC")
+    Page<MangaCard> findLatest(Pageable pageable);
     
-    @Query("SELECT m FROM Manga m WHERE m.isPutaway = true AND m.isChoiceness = true ORDER BY m.sortOrder ASC, m.createdAt DESC")
-    Page<Manga> findChoiceness(Pageable pageable);
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true AND m.isChoiceness = true ORDER BY m.sortOrder ASC, m.createdAt DESC")
+    Page<MangaCard> findChoiceness(Pageable pageable);
     
-    @Query("SELECT m FROM Manga m WHERE m.isPutaway = true AND m.isRecommend = true ORDER BY m.sortOrder ASC, m.createdAt DESC")
-    Page<Manga> findRecommended(Pageable pageable);
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true AND m.isRecommend = true ORDER BY m.sortOrder ASC, m.createdAt DESC")
+    Page<MangaCard> findRecommended(Pageable pageable);
     
-    @Query("SELECT m FROM Manga m WHERE m.isPutaway = true AND m.isNew = true ORDER BY m.createdAt DESC")
-    Page<Manga> findNew(Pageable pageable);
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true AND m.isNew = true ORDER BY m.createdAt DESC")
+    Page<MangaCard> findNew(Pageable pageable);
     
-    @Query("SELECT m FROM Manga m WHERE m.isPutaway = true AND m.country = :country ORDER BY m.sortOrder ASC, m.createdAt DESC")
-    Page<Manga> findByCountry(@Param("country") String country, Pageable pageable);
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true AND m.country = :country ORDER BY m.sortOrder ASC, m.createdAt DESC")
+    Page<MangaCard> findByCountry(@Param("country") String country, Pageable pageable);
     
-    @Query("SELECT m FROM Manga m WHERE m.isPutaway = true AND m.tendency = :tendency ORDER BY m.sortOrder ASC, m.createdAt DESC")
-    Page<Manga> findByTendency(@Param("tendency") String tendency, Pageable pageable);
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true AND m.tendency = :tendency ORDER BY m.sortOrder ASC, m.createdAt DESC")
+    Page<MangaCard> findByTendency(@Param("tendency") String tendency, Pageable pageable);
     
-    @Query("SELECT m FROM Manga m WHERE m.isPutaway = true ORDER BY m.sortOrder ASC, m.createdAt DESC")
-    Page<Manga> findAllPutaway(Pageable pageable);
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true ORDER BY m.sortOrder ASC, m.createdAt DESC")
+    Page<MangaCard> findAllPutaway(Pageable pageable);
     
-    @Query(value = "SELECT * FROM manga WHERE is_putaway = true AND id != :excludeId ORDER BY RAND() LIMIT :limit", nativeQuery = true)
-    List<Manga> findRandomManga(@Param("excludeId") Long excludeId, @Param("limit") int limit);
+    /**
+     * 按 id 批量加载上架漫画的列表卡片（结果顺序不定，由调用方按 id 顺序重排）
+     */
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.id IN :ids AND m.isPutaway = true")
+    List<MangaCard> findPutawayCardsByIds(@Param("ids") Collection<Long> ids);
     
-    @Query("SELECT DISTINCT m FROM Manga m JOIN m.tags t WHERE m.isPutaway = true AND t = :tag ORDER BY m.sortOrder ASC, m.createdAt DESC")
-    Page<Manga> findByTag(@Param("tag") String tag, Pageable pageable);
+    /**
+     * 最近更新：按最新章节时间倒序，只包含有章节的漫画
+     */
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true AND m.latestChapterAt IS NOT NULL " +
+           "ORDER BY m.latestChapterAt DESC, m.id DESC")
+    Page<MangaCard> findRecentlyUpdated(Pageable pageable);
+    
+    // ==================== 章节统计（冗余列） ====================
+
+    /**
+     * 从 chapters 表重算这些漫画的章节数、最新章节号和最新章节时间
+     *
+     * 原生 UPDATE，不改变 updated_at（章节变化不算漫画信息更新，也不触发搜索索引重放）；
+     * 在调用方事务中执行，单独调用（校正任务）时各批次自成事务
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE manga m SET " +
+            "m.chapter_count = (SELECT COUNT(*) FROM chapters c WHERE c.manga_id = m.id), " +
+            "m.latest_chapter_number = (SELECT MAX(c.chapter_number) FROM chapters c WHERE c.manga_id = m.id), " +
+            "m.latest_chapter_at = (SELECT MAX(c.created_at) FROM chapters c WHERE c.manga_id = m.id) " +
+            "WHERE m.id IN (:ids)", nativeQuery = true)
+    int refreshChapterStats(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 收藏数原子加减，在收藏 / 取消收藏的事务中与收藏记录一起提交；原生 UPDATE，不改变 updated_at
+     */
+    @Modifying
+    @Query(value = "UPDATE manga SET favorite_count = favorite_count + :delta WHERE id = :id", nativeQuery = true)
+    int adjustFavoriteCount(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * 当前 favorite_count；在 {@link #adjustFavoriteCount} 之后的同一事务中读取即本事务提交后的精确值
+     */
+    @Query(value = "SELECT favorite_count FROM manga WHERE id = :id", nativeQuery = true)
+    Integer findFavoriteCount(@Param("id") Long id);
+
+    /**
+     * 冗余章节统计与 chapters 表不一致的漫画
+     */
+    @Query(value = "SELECT m.id FROM manga m LEFT JOIN (" +
+            "SELECT manga_id, COUNT(*) AS chapter_count, MAX(chapter_number) AS latest_number, MAX(created_at) AS latest_at " +
+            "FROM chapters GROUP BY manga_id) c ON c.manga_id = m.id " +
+            "WHERE m.chapter_count <> COALESCE(c.chapter_count, 0) " +
+            "OR NOT (m.latest_chapter_number <=> c.latest_number) " +
+            "OR NOT (m.latest_chapter_at <=> c.latest_at)", nativeQuery = true)
+    List<Long> findIdsWithStaleChapterStats();
+    
+    // ==================== 游标分页：按排序键定位，不跳过行、不统计总数 ====================
+    // 返回 List 时 Pageable 只用于 LIMIT，调用方多取一条判断是否还有下一页
+
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true AND " + AFTER_CATALOG_CURSOR +
+           " ORDER BY m.sortOrder ASC, m.createdAt DESC, m.id DESC")
+    List<MangaCard> findAllPutawayAfter(@Param("sortOrder") int sortOrder, @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") long id, Pageable limit);
+
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true AND " + AFTER_LATEST_CURSOR +
+           " ORDER BY m.createdAt DESC, m.id DESC")
+    List<MangaCard> findLatestAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") long id, Pageable limit);
+
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true AND m.isNew = true AND " + AFTER_LATEST_CURSOR +
+           " ORDER BY m.createdAt DESC, m.id DESC")
+    List<MangaCard> findNewAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") long id, Pageable limit);
+
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true AND m.country = :country AND " + AFTER_CATALOG_CURSOR +
+           " ORDER BY m.sortOrder ASC, m.createdAt DESC, m.id DESC")
+    List<MangaCard> findByCountryAfter(@Param("country") String country, @Param("sortOrder") int sortOrder,
+                                   @Param("createdAt") LocalDateTime createdAt, @Param("id") long id, Pageable limit);
+
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m WHERE m.isPutaway = true AND m.tendency = :tendency AND " + AFTER_CATALOG_CURSOR +
+           " ORDER BY m.sortOrder ASC, m.createdAt DESC, m.id DESC")
+    List<MangaCard> findByTendencyAfter(@Param("tendency") String tendency, @Param("sortOrder") int sortOrder,
+                                    @Param("createdAt") LocalDateTime createdAt, @Param("id") long id, Pageable limit);
+
+    /**
+     * 标签在同一漫画内唯一，连接后每部漫画至多一行，不需要 DISTINCT
+     */
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m JOIN m.tags t WHERE m.isPutaway = true AND t = :tag AND " + AFTER_CATALOG_CURSOR +
+           " ORDER BY m.sortOrder ASC, m.createdAt DESC, m.id DESC")
+    List<MangaCard> findByTagAfter(@Param("tag") String tag, @Param("sortOrder") int sortOrder,
+                               @Param("createdAt") LocalDateTime createdAt, @Param("id") long id, Pageable limit);
+    
+    @Query("SELECT " + MANGA_CARD + " FROM Manga m JOIN m.tags t WHERE m.isPutaway = true AND t = :tag ORDER BY m.sortOrder ASC, m.createdAt DESC")
+    Page<MangaCard> findByTag(@Param("tag") String tag, Pageable pageable);
     
     @Query("SELECT DISTINCT t FROM Manga m JOIN m.tags t WHERE m.isPutaway = true ORDER BY t")
     List<String> findAllTags();
+    
+    /**
+     * 这些标签各自的上架漫画数，(tag, count) 对；没有上架漫画的标签不出现在结果中
+     */
+    @Query("SELECT t, COUNT(m) FROM Manga m JOIN m.tags t WHERE m.isPutaway = true AND t IN :tags GROUP BY t")
+    List<Object[]> countPutawayByTags(@Param("tags") Collection<String> tags);
+    
+    @Query("SELECT DISTINCT m.country FROM Manga m WHERE m.isPutaway = true AND m.country IS NOT NULL")
+    List<String> findAllCountries();
+    
+    @Query("SELECT DISTINCT m.tendency FROM Manga m WHERE m.isPutaway = true AND m.tendency IS NOT NULL")
+    List<String> findAllTendencies();
+    
+    /**
+     * 搜索索引的文档字段（只取需要的列，不加载图片、章节等关联集合）
+     */
+    @Query("SELECT new com.manga.search.SearchDocument(m.id, m.title, m.oldName, m.author, m.description, " +
+           "m.sortOrder, m.createdAt, m.updatedAt) FROM Manga m WHERE m.isPutaway = true ORDER BY m.id")
+    List<SearchDocument> findSearchDocuments();
+    
+    /**
+     * 上架漫画的 (id, tag) 对
+     */
+    @Query("SELECT m.id, t FROM Manga m JOIN m.tags t WHERE m.isPutaway = true")
+    List<Object[]> findPutawayTagPairs();
+    
+    /**
+     * 上架漫画的 (id, label) 对
+     */
+    @Query("SELECT m.id, l FROM Manga m JOIN m.labels l WHERE m.isPutaway = true")
+    List<Object[]> findPutawayLabelPairs();
+    
+    /**
+     * 相关作品的特征字段
+     */
+    @Query("SELECT new com.manga.related.RelatedSource(m.id, m.author, m.country) FROM Manga m WHERE m.isPutaway = true")
+    List<RelatedSource> findRelatedSources();
+    
+    @Query("SELECT new com.manga.search.SearchDocument(m.id, m.title, m.oldName, m.author, m.description, " +
+           "m.sortOrder, m.createdAt, m.updatedAt) FROM Manga m WHERE m.isPutaway = true AND m.id IN :ids")
+    List<SearchDocument> findSearchDocumentsByIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT m.id, t FROM Manga m JOIN m.tags t WHERE m.isPutaway = true AND m.id IN :ids")
+    List<Object[]> findPutawayTagPairsByIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 一页漫画的 (id, tag) 对（不限上架状态，用于列表卡片）
+     */
+    @Query("SELECT m.id, t FROM Manga m JOIN m.tags t WHERE m.id IN :ids")
+    List<Object[]> findTagPairsByIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 某时刻之后更新过的漫画（含已下架），用于快照加载后的重放
+     */
+    @Query("SELECT m.id FROM Manga m WHERE m.updatedAt >= :since")
+    List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT m.id FROM Manga m WHERE m.isPutaway = true")
+    List<Long> findPutawayIds();
+    
+    /**
+     * 联想词的来源字段（不含简介）
+     */
+    @Query("SELECT new com.manga.search.SuggestSource(m.id, m.title, m.oldName, m.author, m.viewCount) " +
+           "FROM Manga m WHERE m.isPutaway = true")
+    List<SuggestSource> findSuggestSources();
+    
+    @Query("SELECT new com.manga.search.SuggestSource(m.id, m.title, m.oldName, m.author, m.viewCount) " +
+           "FROM Manga m WHERE m.isPutaway = true AND m.id IN :ids")
+    List<SuggestSource> findSuggestSourcesByIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 浏览筛选索引的字段
+     */
+    @Query("SELECT new com.manga.search.FilterSource(m.id, m.country, m.tendency, m.isFinish, m.isChoiceness, " +
+           "m.isRecommend, m.isNew, m.sortOrder, m.viewCount, m.createdAt, m.updatedAt) " +
+           "FROM Manga m WHERE m.isPutaway = true")
+    List<FilterSource> findFilterSources();
+    
+    @Query("SELECT new com.manga.search.FilterSource(m.id, m.country, m.tendency, m.isFinish, m.isChoiceness, " +
+           "m.isRecommend, m.isNew, m.sortOrder, m.viewCount, m.createdAt, m.updatedAt) " +
+           "FROM Manga m WHERE m.isPutaway = true AND m.id IN :ids")
+    List<FilterSource> findFilterSourcesByIds(@Param("ids") Collection<Long> ids);
 }
-
-
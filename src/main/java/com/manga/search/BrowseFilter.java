@@ -0,0 +1,14 @@
+package com.manga.search;
+
+import java.util.List;
+
+/**
+ * 浏览筛选条件
+ *
+ * 同一维度的多个取值取并集（tags 在 matchAllTags 时取交集），不同维度之间取交集；
+ * 为空的维度不限制。布尔标记为 null 时不限制，true / false 分别要求有 / 没有该标记。
+ */
+public record BrowseFilter(List<String> tags, boolean matchAllTags, List<String> countries,
+                           List<String> tendencies, List<String> finishStates,
+                           Boolean choiceness, Boolean recommended, Boolean isNew) {
+}
@@ -0,0 +1,29 @@
+package com.manga.search;
+
+/**
+ * 浏览排序方式
+ *
+ * - default：运营排序（sortOrder 升序）+ 创建时间倒序
+ * - latest：创建时间倒序
+ * - popular：浏览量倒序
+ * - updated：更新时间倒序
+ */
+public enum BrowseSort {
+
+    DEFAULT,
+    LATEST,
+    POPULAR,
+    UPDATED;
+
+    public static BrowseSort parse(String value) {
+        if (value == null) {
+            return DEFAULT;
+        }
+        return switch (value) {
+            case "latest" -> LATEST;
+            case "popular" -> POPULAR;
+            case "updated" -> UPDATED;
+            default -> DEFAULT;
+        };
+    }
+}
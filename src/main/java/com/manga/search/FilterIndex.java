@@ -0,0 +1,287 @@
+package com.manga.search;
+
+import com.manga.dto.FacetCount;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 不可变的浏览筛选索引快照
+ *
+ * 上架漫画按 id 升序编为稠密序号（ordinal），每个维度的每个取值对应一个 RoaringBitmap：
+ * tag:{标签}、country:{地区}、tendency:{受众}、finish:{完结状态}，以及 choiceness / recommend / new 三个标记。
+ * 组合筛选只做位图的并（同一维度多个取值）和交（不同维度），不访问数据库。
+ *
+ * 每种排序预先生成按该顺序排列的序号数组 sorted 和它的逆 rank（序号 -> 名次）：
+ * 结果较少时取出结果序号按名次排序，结果较多时顺序扫描 sorted 并用位图判断是否命中，
+ * 两种方式都只需取到所需的一页。
+ *
+ * 分面计数对结果位图与每个取值的位图求交集基数（{@link RoaringBitmap#andCardinality}），
+ * 不生成中间结果；代价与取值个数和位图容器数成正比，与数据库中的关联行数无关。
+ */
+public final class FilterIndex {
+
+    static final String TAG = "tag";
+    static final String COUNTRY = "country";
+    static final String TENDENCY = "tendency";
+    static final String FINISH = "finish";
+    static final String FLAG = "flag";
+    static final String CHOICENESS = "choiceness";
+    static final String RECOMMEND = "recommend";
+    static final String NEW = "new";
+
+    /**
+     * 结果数低于总数的 1/SCAN_RATIO 时按名次排序取页，否则扫描预排序数组
+     */
+    private static final int SCAN_RATIO = 16;
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    /**
+     * 参与分面统计的维度及其在响应中的名称
+     */
+    private static final Map<String, String> FACETS = Map.of(
+            TAG, "tag", COUNTRY, "country", TENDENCY, "tendency", FINISH, "isFinish");
+
+    private final long[] mangaIds;
+    private final RoaringBitmap all;
+    private final Map<String, Map<String, RoaringBitmap>> bitmaps;
+    private final int[][] sorted;
+    private final int[][] ranks;
+
+    private FilterIndex(long[] mangaIds, RoaringBitmap all, Map<String, Map<String, RoaringBitmap>> bitmaps,
+                        int[][] sorted, int[][] ranks) {
+        this.mangaIds = mangaIds;
+        this.all = all;
+        this.bitmaps = bitmaps;
+        this.sorted = sorted;
+        this.ranks = ranks;
+    }
+
+    public static FilterIndex build(Collection<FilterSource> sources, Map<Long, ? extends Collection<String>> tagsById) {
+        List<FilterSource> rows = new ArrayList<>(sources);
+        rows.sort(Comparator.comparing(FilterSource::id));
+        int size = rows.size();
+        long[] mangaIds = new long[size];
+        Map<String, Map<String, RoaringBitmap>> bitmaps = new HashMap<>();
+
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            FilterSource row = rows.get(ordinal);
+            mangaIds[ordinal] = row.id();
+            Collection<String> tags = tagsById.get(row.id());
+            if (tags != null) {
+                for (String tag : tags) {
+                    add(bitmaps, TAG, tag, ordinal);
+                }
+            }
+            add(bitmaps, COUNTRY, row.country(), ordinal);
+            add(bitmaps, TENDENCY, row.tendency(), ordinal);
+            add(bitmaps, FINISH, row.isFinish(), ordinal);
+            if (Boolean.TRUE.equals(row.isChoiceness())) {
+                add(bitmaps, FLAG, CHOICENESS, ordinal);
+            }
+            if (Boolean.TRUE.equals(row.isRecommend())) {
+                add(bitmaps, FLAG, RECOMMEND, ordinal);
+            }
+            if (Boolean.TRUE.equals(row.isNew())) {
+                add(bitmaps, FLAG, NEW, ordinal);
+            }
+        }
+        bitmaps.values().forEach(byValue -> byValue.values().forEach(RoaringBitmap::runOptimize));
+
+        RoaringBitmap all = new RoaringBitmap();
+        all.add(0L, size);
+
+        int[][] sorted = new int[BrowseSort.values().length][];
+        int[][] ranks = new int[BrowseSort.values().length][];
+        for (BrowseSort sort : BrowseSort.values()) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, comparator(sort, rows));
+            int[] byRank = new int[size];
+            int[] rankOf = new int[size];
+            for (int rank = 0; rank < size; rank++) {
+                byRank[rank] = order[rank];
+                rankOf[order[rank]] = rank;
+            }
+            sorted[sort.ordinal()] = byRank;
+            ranks[sort.ordinal()] = rankOf;
+        }
+        return new FilterIndex(mangaIds, all, bitmaps, sorted, ranks);
+    }
+
+    private static void add(Map<String, Map<String, RoaringBitmap>> bitmaps, String dimension, String value, int ordinal) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        bitmaps.computeIfAbsent(dimension, key -> new HashMap<>())
+                .computeIfAbsent(value, key -> new RoaringBitmap())
+                .add(ordinal);
+    }
+
+    private static Comparator<Integer> comparator(BrowseSort sort, List<FilterSource> rows) {
+        Function<Integer, FilterSource> row = rows::get;
+        Comparator<Integer> byCreated = Comparator.<Integer, LocalDateTime>comparing(n -> row.apply(n).createdAt(),
+                Comparator.nullsLast(Comparator.reverseOrder()));
+        Comparator<Integer> comparator = switch (sort) {
+            case DEFAULT -> Comparator.<Integer>comparingInt(n -> valueOf(row.apply(n).sortOrder()))
+                    .thenComparing(byCreated);
+            case LATEST -> byCreated;
+            case POPULAR -> Comparator.<Integer>comparingInt(n -> -valueOf(row.apply(n).viewCount()));
+            case UPDATED -> Comparator.<Integer, LocalDateTime>comparing(n -> row.apply(n).updatedAt(),
+                    Comparator.nullsLast(Comparator.reverseOrder()));
+        };
+        // 序号按 id 升序分配，最后按 id 倒序保证顺序稳定
+        return comparator.thenComparing(Comparator.reverseOrder());
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    public int size() {
+        return mangaIds.length;
+    }
+
+    /**
+     * 计算满足条件的漫画序号集合（返回新位图，调用方可修改）
+     */
+    public RoaringBitmap filter(BrowseFilter filter) {
+        RoaringBitmap result = all.clone();
+        if (filter.matchAllTags()) {
+            intersectEach(result, TAG, filter.tags());
+        } else {
+            intersectAny(result, TAG, filter.tags());
+        }
+        intersectAny(result, COUNTRY, filter.countries());
+        intersectAny(result, TENDENCY, filter.tendencies());
+        intersectAny(result, FINISH, filter.finishStates());
+        applyFlag(result, CHOICENESS, filter.choiceness());
+        applyFlag(result, RECOMMEND, filter.recommended());
+        applyFlag(result, NEW, filter.isNew());
+        return result;
+    }
+
+    private void intersectAny(RoaringBitmap result, String dimension, List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        RoaringBitmap[] matching = values.stream().map(value -> bitmap(dimension, value)).toArray(RoaringBitmap[]::new);
+        result.and(matching.length == 1 ? matching[0] : FastAggregation.or(matching));
+    }
+
+    private void intersectEach(RoaringBitmap result, String dimension, List<String> values) {
+        if (values == null) {
+            return;
+        }
+        for (String value : values) {
+            result.and(bitmap(dimension, value));
+        }
+    }
+
+    private void applyFlag(RoaringBitmap result, String flag, Boolean required) {
+        if (required == null) {
+            return;
+        }
+        if (required) {
+            result.and(bitmap(FLAG, flag));
+        } else {
+            result.andNot(bitmap(FLAG, flag));
+        }
+    }
+
+    RoaringBitmap bitmap(String dimension, String value) {
+        return bitmaps.getOrDefault(dimension, Map.of()).getOrDefault(value, EMPTY);
+    }
+
+    /**
+     * 把漫画 id 转换为序号位图（不在索引中的 id 忽略），用于对搜索结果统计分面
+     */
+    public RoaringBitmap toBitmap(long[] ids) {
+        long[] sortedIds = ids.clone();
+        Arrays.sort(sortedIds);
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (long id : sortedIds) {
+            int ordinal = Arrays.binarySearch(mangaIds, id);
+            if (ordinal >= 0) {
+                bitmap.add(ordinal);
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * 统计结果中各维度取值的漫画数
+     *
+     * @param maxValues 每个维度最多返回的取值数（按计数从高到低）
+     */
+    public Map<String, List<FacetCount>> facets(RoaringBitmap result, int maxValues) {
+        Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+        for (String dimension : List.of(TAG, COUNTRY, TENDENCY, FINISH)) {
+            List<FacetCount> counts = new ArrayList<>();
+            if (!result.isEmpty()) {
+                bitmaps.getOrDefault(dimension, Map.of()).forEach((value, bitmap) -> {
+                    int count = RoaringBitmap.andCardinality(result, bitmap);
+                    if (count > 0) {
+                        counts.add(new FacetCount(value, count));
+                    }
+                });
+            }
+            counts.sort(Comparator.comparingLong(FacetCount::getCount).reversed()
+                    .thenComparing(FacetCount::getValue));
+            facets.put(FACETS.get(dimension), counts.size() > maxValues ? counts.subList(0, maxValues) : counts);
+        }
+        return facets;
+    }
+
+    /**
+     * 按排序方式取结果的一页
+     */
+    public SearchHits page(RoaringBitmap result, BrowseSort sort, long offset, int limit) {
+        int total = result.getCardinality();
+        if (offset >= total || limit <= 0) {
+            return new SearchHits(List.of(), total);
+        }
+        int[] order = sorted[sort.ordinal()];
+        int end = (int) Math.min(total, offset + limit);
+        List<Long> ids = new ArrayList<>(end - (int) offset);
+
+        if ((long) total * SCAN_RATIO < order.length) {
+            int[] rankOf = ranks[sort.ordinal()];
+            int[] matched = result.toArray();
+            for (int i = 0; i < matched.length; i++) {
+                matched[i] = rankOf[matched[i]];
+            }
+            Arrays.sort(matched);
+            for (int i = (int) offset; i < end; i++) {
+                ids.add(mangaIds[order[matched[i]]]);
+            }
+        } else {
+            int seen = 0;
+            for (int ordinal : order) {
+                if (!result.contains(ordinal)) {
+                    continue;
+                }
+                if (seen++ >= offset) {
+                    ids.add(mangaIds[ordinal]);
+                    if (ids.size() == end - offset) {
+                        break;
+                    }
+                }
+            }
+        }
+        return new SearchHits(ids, total);
+    }
+}
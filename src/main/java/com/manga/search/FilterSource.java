@@ -0,0 +1,11 @@
+package com.manga.search;
+
+import java.time.LocalDateTime;
+
+/**
+ * 浏览筛选索引所需的漫画字段
+ */
+public record FilterSource(Long id, String country, String tendency, String isFinish, Boolean isChoiceness,
+                           Boolean isRecommend, Boolean isNew, Integer sortOrder, Integer viewCount,
+                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
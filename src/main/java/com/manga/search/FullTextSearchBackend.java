@@ -0,0 +1,167 @@
+package com.manga.search;
+
+import com.manga.config.SearchProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MySQL FULLTEXT 搜索
+ *
+ * manga 表在 title、old_name、author、description 上建 ngram 分词的 FULLTEXT 索引
+ * （JPA 的 ddl-auto 无法声明，启动时检查并按需创建，见 search.fulltext.create-index）。
+ * 关键词按空白切分，每个词作为必须命中的短语（+"词"），以 BOOLEAN MODE 查询；
+ * relevance 排序按 MATCH 的相关度得分倒序。
+ *
+ * ngram 只索引 ngram_token_size（默认 2）个字符的片段，短于该长度的词会被忽略；
+ * 全部词都过短时改用 {@link LikeSearchBackend}。InnoDB 默认停用词会让包含停用词的 ngram 不被索引，
+ * 部署时建议设置 innodb_ft_enable_stopword=OFF。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FullTextSearchBackend implements SearchBackend, ApplicationRunner {
+
+    static final String INDEX_NAME = "ft_manga_search";
+
+    private static final String MATCH = "MATCH(m.title, m.old_name, m.author, m.description) AGAINST (? IN BOOLEAN MODE)";
+
+    /**
+     * BOOLEAN MODE 中有特殊含义的字符，从用户输入中去掉
+     */
+    private static final String OPERATORS = "+-<>()~*\"@";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SearchProperties properties;
+    private final LikeSearchBackend likeSearchBackend;
+
+    private volatile boolean ready;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.getBackend() != SearchBackendType.FULLTEXT) {
+            return;
+        }
+        try {
+            if (!indexExists()) {
+                if (!properties.getFulltext().isCreateIndex()) {
+                    log.warn("FULLTEXT index {} is missing, falling back to LIKE search", INDEX_NAME);
+                    return;
+                }
+                log.info("Creating FULLTEXT index {} on manga", INDEX_NAME);
+                jdbcTemplate.execute("ALTER TABLE manga ADD FULLTEXT INDEX " + INDEX_NAME
+                        + " (title, old_name, author, description) WITH PARSER ngram");
+            }
+            ready = true;
+            log.info("FULLTEXT search ready");
+        } catch (DataAccessException e) {
+            log.warn("FULLTEXT search unavailable, falling back to LIKE search: {}", e.getMessage());
+        }
+    }
+
+    private boolean indexExists() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                        "WHERE table_schema = DATABASE() AND table_name = 'manga' AND index_name = ?",
+                Integer.class, INDEX_NAME);
+        return count != null && count > 0;
+    }
+
+    @Override
+    public SearchBackendType type() {
+        return SearchBackendType.FULLTEXT;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public SearchHits search(String keyword, String tag, SearchSort sort, long offset, int limit) {
+        String query = booleanQuery(keyword, properties.getFulltext().getNgramTokenSize());
+        if (query == null) {
+            return likeSearchBackend.search(keyword, tag, sort, offset, limit);
+        }
+
+        List<Object> args = new ArrayList<>();
+        String from = fromClause(query, tag, args);
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*)" + from, Long.class, args.toArray());
+        if (total == null || total == 0 || offset >= total) {
+            return new SearchHits(List.of(), total != null ? total : 0);
+        }
+
+        String order = switch (sort) {
+            case UPDATED -> "m.updated_at DESC";
+            case CREATED -> "m.created_at DESC";
+            case RELEVANCE -> MATCH + " DESC, m.sort_order ASC, m.created_at DESC";
+            case DEFAULT -> "m.sort_order ASC, m.created_at DESC";
+        };
+        if (sort == SearchSort.RELEVANCE) {
+            args.add(query);
+        }
+        args.add(limit);
+        args.add(offset);
+        List<Long> ids = jdbcTemplate.queryForList("SELECT m.id" + from + " ORDER BY " + order + ", m.id DESC LIMIT ? OFFSET ?",
+                Long.class, args.toArray());
+        return new SearchHits(ids, total);
+    }
+
+    @Override
+    public long[] matchingIds(String keyword, String tag) {
+        String query = booleanQuery(keyword, properties.getFulltext().getNgramTokenSize());
+        if (query == null) {
+            return likeSearchBackend.matchingIds(keyword, tag);
+        }
+        List<Object> args = new ArrayList<>();
+        String from = fromClause(query, tag, args);
+        return jdbcTemplate.queryForList("SELECT m.id" + from, Long.class, args.toArray()).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    /**
+     * 命中条件（上架、可选标签、MATCH），参数按出现顺序追加到 args
+     */
+    private static String fromClause(String query, String tag, List<Object> args) {
+        StringBuilder from = new StringBuilder(" FROM manga m");
+        if (tag != null) {
+            from.append(" JOIN manga_tags t ON t.manga_id = m.id AND t.tag = ?");
+            args.add(tag);
+        }
+        from.append(" WHERE m.is_putaway = 1 AND ").append(MATCH);
+        args.add(query);
+        return from.toString();
+    }
+
+    /**
+     * 把用户输入转换为 BOOLEAN MODE 查询：每个词都必须作为短语命中；没有可用的词时返回 null
+     */
+    static String booleanQuery(String keyword, int minLength) {
+        if (keyword == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        for (String word : keyword.trim().split("\\s+")) {
+            StringBuilder cleaned = new StringBuilder(word.length());
+            word.codePoints()
+                    .filter(c -> OPERATORS.indexOf(c) < 0)
+                    .forEach(cleaned::appendCodePoint);
+            if (cleaned.codePointCount(0, cleaned.length()) < minLength) {
+                continue;
+            }
+            if (!query.isEmpty()) {
+                query.append(' ');
+            }
+            query.append("+\"").append(cleaned).append('"');
+        }
+        return query.isEmpty() ? null : query.toString();
+    }
+}
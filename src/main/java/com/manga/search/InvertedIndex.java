@@ -0,0 +1,388 @@
+package com.manga.search;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 不可变的倒排索引快照
+ *
+ * 文档按加入顺序编号（doc），排序字段存放在按 doc 下标的基本类型数组中。
+ * 每个词元的倒排表是一个 int[]，元素为 (doc << SearchField.BITS) | 字段掩码，按 doc 升序，
+ * 同时给出"哪篇文档"和"出现在哪些字段"，不需要额外对象。
+ *
+ * 查询对各词元倒排表求交集（从最短的表开始，其余表二分定位），按字段掩码累加得分。
+ *
+ * 增量更新采用写时复制：{@link #apply} 把变更的文档标记删除，再以新 doc 编号追加到末尾
+ * （倒排表只需在尾部追加，仍保持有序），返回新的快照；旧快照不受影响，可被任意线程并发查询。
+ * 已删除的文档在查询时跳过，积累到一定比例后由 {@link #compact()} 重新编号并清除。
+ */
+public final class InvertedIndex {
+
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private static final float[] NO_SCORES = new float[1 << SearchField.BITS];
+
+    static final InvertedIndex EMPTY = new InvertedIndex(new long[0], new int[0], new long[0], new long[0],
+            new String[0][], new long[0], Map.of());
+
+    final long[] mangaIds;
+    final int[] sortOrders;
+    final long[] createdAt;
+    final long[] updatedAt;
+    final String[][] tags;
+    /**
+     * 已删除文档的位图（按 doc 下标）
+     */
+    final long[] deleted;
+    final Map<String, int[]> postings;
+    private final Map<Long, Integer> docsById;
+    private final int deletedCount;
+
+    InvertedIndex(long[] mangaIds, int[] sortOrders, long[] createdAt, long[] updatedAt,
+                  String[][] tags, long[] deleted, Map<String, int[]> postings) {
+        this.mangaIds = mangaIds;
+        this.sortOrders = sortOrders;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.tags = tags;
+        this.deleted = deleted;
+        this.postings = postings;
+        this.docsById = new HashMap<>(mangaIds.length * 4 / 3 + 1);
+        int removed = 0;
+        for (int doc = 0; doc < mangaIds.length; doc++) {
+            if (isDeleted(deleted, doc)) {
+                removed++;
+            } else {
+                docsById.put(mangaIds[doc], doc);
+            }
+        }
+        this.deletedCount = removed;
+    }
+
+    public static InvertedIndex build(List<SearchDocument> documents, Map<Long, ? extends Collection<String>> tagsById) {
+        return EMPTY.apply(documents, tagsById, List.of());
+    }
+
+    /**
+     * 生成应用了变更的新快照
+     *
+     * @param upserts  新增或变更的文档（已存在的旧版本会被删除）
+     * @param tagsById upserts 的标签
+     * @param removals 需要移除的漫画 id（不存在的忽略）
+     */
+    public InvertedIndex apply(List<SearchDocument> upserts, Map<Long, ? extends Collection<String>> tagsById,
+                               Collection<Long> removals) {
+        int oldSize = mangaIds.length;
+        int size = oldSize + upserts.size();
+        long[] newDeleted = Arrays.copyOf(deleted, (size + 63) >>> 6);
+        for (Long mangaId : removals) {
+            markDeleted(newDeleted, mangaId);
+        }
+        for (SearchDocument document : upserts) {
+            markDeleted(newDeleted, document.id());
+        }
+
+        long[] newMangaIds = Arrays.copyOf(mangaIds, size);
+        int[] newSortOrders = Arrays.copyOf(sortOrders, size);
+        long[] newCreatedAt = Arrays.copyOf(createdAt, size);
+        long[] newUpdatedAt = Arrays.copyOf(updatedAt, size);
+        String[][] newTags = Arrays.copyOf(tags, size);
+        Map<String, IntList> appended = new HashMap<>();
+
+        for (int i = 0; i < upserts.size(); i++) {
+            SearchDocument document = upserts.get(i);
+            int doc = oldSize + i;
+            newMangaIds[doc] = document.id();
+            newSortOrders[doc] = document.sortOrder() != null ? document.sortOrder() : 0;
+            newCreatedAt[doc] = epochMillis(document.createdAt());
+            newUpdatedAt[doc] = epochMillis(document.updatedAt());
+            Collection<String> docTags = tagsById.get(document.id());
+            newTags[doc] = docTags != null ? docTags.toArray(new String[0]) : new String[0];
+
+            Map<String, Integer> masks = new HashMap<>();
+            for (SearchField field : SearchField.values()) {
+                for (String token : Tokenizer.indexTokens(field.valueOf(document))) {
+                    masks.merge(token, field.bit(), (a, b) -> a | b);
+                }
+            }
+            int base = doc << SearchField.BITS;
+            masks.forEach((token, mask) -> appended.computeIfAbsent(token, key -> new IntList()).add(base | mask));
+        }
+
+        Map<String, int[]> newPostings = new HashMap<>((postings.size() + appended.size()) * 4 / 3 + 1);
+        newPostings.putAll(postings);
+        appended.forEach((token, list) -> {
+            int[] existing = newPostings.getOrDefault(token, NO_POSTINGS);
+            int[] merged = Arrays.copyOf(existing, existing.length + list.size);
+            System.arraycopy(list.values, 0, merged, existing.length, list.size);
+            newPostings.put(token, merged);
+        });
+        return new InvertedIndex(newMangaIds, newSortOrders, newCreatedAt, newUpdatedAt, newTags, newDeleted,
+                newPostings);
+    }
+
+    /**
+     * 去掉已删除的文档并重新编号，返回新快照
+     */
+    public InvertedIndex compact() {
+        if (deletedCount == 0) {
+            return this;
+        }
+        int size = mangaIds.length - deletedCount;
+        int[] remap = new int[mangaIds.length];
+        long[] newMangaIds = new long[size];
+        int[] newSortOrders = new int[size];
+        long[] newCreatedAt = new long[size];
+        long[] newUpdatedAt = new long[size];
+        String[][] newTags = new String[size][];
+        int next = 0;
+        for (int doc = 0; doc < mangaIds.length; doc++) {
+            if (isDeleted(deleted, doc)) {
+                remap[doc] = -1;
+                continue;
+            }
+            remap[doc] = next;
+            newMangaIds[next] = mangaIds[doc];
+            newSortOrders[next] = sortOrders[doc];
+            newCreatedAt[next] = createdAt[doc];
+            newUpdatedAt[next] = updatedAt[doc];
+            newTags[next] = tags[doc];
+            next++;
+        }
+
+        Map<String, int[]> newPostings = new HashMap<>(postings.size() * 4 / 3 + 1);
+        postings.forEach((token, list) -> {
+            int[] rewritten = new int[list.length];
+            int count = 0;
+            for (int entry : list) {
+                int doc = remap[entry >>> SearchField.BITS];
+                if (doc >= 0) {
+                    rewritten[count++] = (doc << SearchField.BITS) | (entry & SearchField.MASK);
+                }
+            }
+            if (count > 0) {
+                newPostings.put(token, count == list.length ? rewritten : Arrays.copyOf(rewritten, count));
+            }
+        });
+        return new InvertedIndex(newMangaIds, newSortOrders, newCreatedAt, newUpdatedAt, newTags,
+                new long[(size + 63) >>> 6], newPostings);
+    }
+
+    private void markDeleted(long[] bits, Long mangaId) {
+        Integer doc = docsById.get(mangaId);
+        if (doc != null) {
+            bits[doc >>> 6] |= 1L << doc;
+        }
+    }
+
+    private static boolean isDeleted(long[] bits, int doc) {
+        int word = doc >>> 6;
+        return word < bits.length && (bits[word] & (1L << doc)) != 0;
+    }
+
+    /**
+     * 已删除但尚未清除的文档数
+     */
+    public int deletedCount() {
+        return deletedCount;
+    }
+
+    public boolean contains(Long mangaId) {
+        return docsById.containsKey(mangaId);
+    }
+
+    public Set<Long> mangaIds() {
+        return Collections.unmodifiableSet(docsById.keySet());
+    }
+
+    /**
+     * 索引中该漫画的 updatedAt（epoch 毫秒，UTC）；不存在时返回 null
+     */
+    public Long updatedAtOf(Long mangaId) {
+        Integer doc = docsById.get(mangaId);
+        return doc != null ? updatedAt[doc] : null;
+    }
+
+    public List<String> tagsOf(Long mangaId) {
+        Integer doc = docsById.get(mangaId);
+        return doc != null ? List.of(tags[doc]) : List.of();
+    }
+
+    /**
+     * 有效文档数
+     */
+    public int size() {
+        return docsById.size();
+    }
+
+    public int terms() {
+        return postings.size();
+    }
+
+    /**
+     * 查询一页结果
+     *
+     * @param scoreTable 以字段掩码为下标的得分表（见 {@link SearchField#scoreTable}）
+     */
+    public SearchHits search(String keyword, String tag, SearchSort sort, float[] scoreTable, long offset, int limit) {
+        int[][] lists = postingLists(keyword);
+        if (lists == null) {
+            return SearchHits.empty();
+        }
+
+        int[] matches = new int[lists[0].length];
+        float[] scores = new float[lists[0].length];
+        int count = intersect(lists, tag, scoreTable, matches, scores);
+        if (count == 0 || offset >= count) {
+            return new SearchHits(List.of(), count);
+        }
+
+        Integer[] order = new Integer[count];
+        for (int n = 0; n < count; n++) {
+            order[n] = n;
+        }
+        Arrays.sort(order, comparator(sort, matches, scores));
+
+        int end = (int) Math.min(count, offset + limit);
+        List<Long> ids = new ArrayList<>(end - (int) offset);
+        for (int n = (int) offset; n < end; n++) {
+            ids.add(mangaIds[matches[order[n]]]);
+        }
+        return new SearchHits(ids, count);
+    }
+
+    /**
+     * 全部命中的漫画 id（不排序），用于统计分面
+     */
+    public long[] matchingIds(String keyword, String tag) {
+        int[][] lists = postingLists(keyword);
+        if (lists == null) {
+            return new long[0];
+        }
+        int[] matches = new int[lists[0].length];
+        int count = intersect(lists, tag, NO_SCORES, matches, new float[lists[0].length]);
+        long[] ids = new long[count];
+        for (int n = 0; n < count; n++) {
+            ids[n] = mangaIds[matches[n]];
+        }
+        return ids;
+    }
+
+    /**
+     * 查询词元的倒排表，按长度升序；没有词元或任一词元无命中时返回 null
+     */
+    private int[][] postingLists(String keyword) {
+        Set<String> tokens = Tokenizer.queryTokens(keyword);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        int[][] lists = new int[tokens.size()][];
+        int i = 0;
+        for (String token : tokens) {
+            int[] list = postings.getOrDefault(token, NO_POSTINGS);
+            if (list.length == 0) {
+                return null;
+            }
+            lists[i++] = list;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+        return lists;
+    }
+
+    private int intersect(int[][] lists, String tag, float[] scoreTable, int[] matches, float[] scores) {
+        int[] positions = new int[lists.length];
+        int count = 0;
+        candidates:
+        for (int entry : lists[0]) {
+            int doc = entry >>> SearchField.BITS;
+            float score = scoreTable[entry & SearchField.MASK];
+            for (int l = 1; l < lists.length; l++) {
+                int position = lowerBound(lists[l], positions[l], doc << SearchField.BITS);
+                positions[l] = position;
+                if (position == lists[l].length) {
+                    break candidates;
+                }
+                int other = lists[l][position];
+                if (other >>> SearchField.BITS != doc) {
+                    continue candidates;
+                }
+                score += scoreTable[other & SearchField.MASK];
+            }
+            if (isDeleted(deleted, doc) || (tag != null && !hasTag(doc, tag))) {
+                continue;
+            }
+            matches[count] = doc;
+            scores[count] = score;
+            count++;
+        }
+        return count;
+    }
+
+    private Comparator<Integer> comparator(SearchSort sort, int[] matches, float[] scores) {
+        Comparator<Integer> byCreated = Comparator.comparingLong(n -> -createdAt[matches[n]]);
+        return switch (sort) {
+            case UPDATED -> Comparator.<Integer>comparingLong(n -> -updatedAt[matches[n]]);
+            case CREATED -> byCreated;
+            case RELEVANCE -> Comparator.<Integer>comparingDouble(n -> -scores[n])
+                    .thenComparingInt(n -> sortOrders[matches[n]])
+                    .thenComparing(byCreated);
+            case DEFAULT -> Comparator.<Integer>comparingInt(n -> sortOrders[matches[n]])
+                    .thenComparing(byCreated);
+        };
+    }
+
+    private boolean hasTag(int doc, String tag) {
+        for (String docTag : tags[doc]) {
+            if (docTag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 从 from 开始第一个 >= key 的位置（倒排表按 doc 升序，字段掩码在低位，不影响顺序）
+     */
+    private static int lowerBound(int[] list, int from, int key) {
+        int low = from;
+        int high = list.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (list[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static long epochMillis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : 0L;
+    }
+
+    /**
+     * 构建期间使用的可增长 int 数组
+     */
+    static final class IntList {
+
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.manga.search;
+
+import com.manga.repository.MangaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * LIKE 搜索：标题、原名、作者、简介任一包含关键词（不区分大小写）
+ *
+ * 无法使用索引，每次查询扫描上架漫画；不计算相关度，relevance 按默认顺序返回。
+ */
+@Component
+@RequiredArgsConstructor
+public class LikeSearchBackend implements SearchBackend {
+
+    private final MangaRepository mangaRepository;
+
+    @Override
+    public SearchBackendType type() {
+        return SearchBackendType.LIKE;
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public SearchHits search(String keyword, String tag, SearchSort sort, long offset, int limit) {
+        Sort order = switch (sort) {
+            case UPDATED -> Sort.by(Sort.Direction.DESC, "updatedAt");
+            case CREATED -> Sort.by(Sort.Direction.DESC, "createdAt");
+            case DEFAULT, RELEVANCE -> Sort.by(Sort.Order.asc("sortOrder"), Sort.Order.desc("createdAt"));
+        };
+        int size = Math.max(1, limit);
+        PageRequest pageable = PageRequest.of((int) (offset / size), size, order.and(Sort.by(Sort.Direction.DESC, "id")));
+        Page<Long> page = tag != null
+                ? mangaRepository.searchIdsByKeywordAndTag(keyword, tag, pageable)
+                : mangaRepository.searchIdsByKeyword(keyword, pageable);
+        return new SearchHits(page.getContent(), page.getTotalElements());
+    }
+
+    @Override
+    public long[] matchingIds(String keyword, String tag) {
+        Page<Long> all = tag != null
+                ? mangaRepository.searchIdsByKeywordAndTag(keyword, tag, Pageable.unpaged())
+                : mangaRepository.searchIdsByKeyword(keyword, Pageable.unpaged());
+        return all.getContent().stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,138 @@
+package com.manga.search;
+
+import com.manga.repository.MangaRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 上架漫画的内存副本：每部漫画一条数据行（S）加上它的标签，供联想词、筛选索引等派生结构重建使用
+ *
+ * - {@link #refresh()} 全量加载后立即重建；
+ * - {@link #update} 按 id 重新加载（已下架或已删除的移除），只标记待重建，
+ *   由 {@link #rebuildIfDirty()} 合并一段时间内的增量后重建一次（批量导入只重建一次）。
+ *
+ * 数据以不可变快照（{@link Data}）整体替换：更新在副本上完成后再换入，重建读取的快照不会被并发修改。
+ * 写入（全量加载、增量更新）之间串行，重建之间也串行，较旧的数据不会覆盖较新的。
+ */
+@Slf4j
+class ListedMangaData<S> {
+
+    private final String name;
+    private final MangaRepository mangaRepository;
+    private final Supplier<List<S>> loadAll;
+    private final Function<Collection<Long>, List<S>> loadByIds;
+    private final ToLongFunction<S> idOf;
+    private final Consumer<Data<S>> builder;
+    private final Object writeLock = new Object();
+    private final Object rebuildLock = new Object();
+
+    private volatile Data<S> data = new Data<>(Map.of(), Map.of());
+    private volatile boolean dirty;
+
+    /**
+     * @param name      日志中的名称
+     * @param loadAll   加载全部上架漫画的数据行
+     * @param loadByIds 按 id 加载仍上架漫画的数据行
+     * @param idOf      数据行的漫画 id
+     * @param builder   由快照重建派生结构
+     */
+    ListedMangaData(String name, MangaRepository mangaRepository, Supplier<List<S>> loadAll,
+                    Function<Collection<Long>, List<S>> loadByIds, ToLongFunction<S> idOf,
+                    Consumer<Data<S>> builder) {
+        this.name = name;
+        this.mangaRepository = mangaRepository;
+        this.loadAll = loadAll;
+        this.loadByIds = loadByIds;
+        this.idOf = idOf;
+        this.builder = builder;
+    }
+
+    /**
+     * 数据快照，sources 和 tags 均不可变
+     */
+    record Data<S>(Map<Long, S> sources, Map<Long, List<String>> tags) {
+    }
+
+    void refresh() {
+        try {
+            synchronized (writeLock) {
+                Map<Long, S> sources = new HashMap<>();
+                for (S source : loadAll.get()) {
+                    sources.put(idOf.applyAsLong(source), source);
+                }
+                swap(sources, groupTags(mangaRepository.findPutawayTagPairs()));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh {}: {}", name, e.getMessage());
+            return;
+        }
+        rebuild();
+    }
+
+    void update(Collection<Long> mangaIds) {
+        List<Long> ids = List.copyOf(mangaIds);
+        synchronized (writeLock) {
+            Data<S> current = data;
+            Map<Long, S> sources = new HashMap<>(current.sources());
+            Map<Long, List<String>> tags = new HashMap<>(current.tags());
+            ids.forEach(sources::remove);
+            ids.forEach(tags::remove);
+            for (S source : loadByIds.apply(ids)) {
+                sources.put(idOf.applyAsLong(source), source);
+            }
+            tags.putAll(groupTags(mangaRepository.findPutawayTagPairsByIds(ids)));
+            swap(sources, tags);
+        }
+    }
+
+    void rebuildIfDirty() {
+        if (dirty) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 重建之间串行且总是读取最新快照，较早开始的重建不会覆盖较新的结果；
+     * 先清除标记再读取快照，重建期间换入的数据会再次标记，失败时保留标记等待下次重试
+     */
+    private void rebuild() {
+        synchronized (rebuildLock) {
+            dirty = false;
+            try {
+                builder.accept(data);
+            } catch (Exception e) {
+                dirty = true;
+                log.warn("Failed to rebuild {}: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    boolean contains(long mangaId) {
+        return data.sources().containsKey(mangaId);
+    }
+
+    private void swap(Map<Long, S> sources, Map<Long, List<String>> tags) {
+        Data<S> swapped = new Data<>(Map.copyOf(sources), Map.copyOf(tags));
+        data = swapped;
+        dirty = true;
+    }
+
+    private static Map<Long, List<String>> groupTags(List<Object[]> pairs) {
+        Map<Long, List<String>> grouped = new HashMap<>();
+        for (Object[] pair : pairs) {
+            grouped.computeIfAbsent((Long) pair[0], id -> new ArrayList<>()).add((String) pair[1]);
+        }
+        grouped.replaceAll((id, names) -> Collections.unmodifiableList(names));
+        return grouped;
+    }
+}
@@ -0,0 +1,119 @@
+package com.manga.search;
+
+import com.manga.config.SearchProperties;
+import com.manga.dto.FacetCount;
+import com.manga.repository.MangaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 浏览筛选索引
+ *
+ * 内存中保存上架漫画的筛选、排序字段与标签，生成不可变的 {@link FilterIndex} 快照：
+ * - 启动时从数据库加载；每个 search.filter.refresh-interval 全量刷新（更新浏览量等排序字段）；
+ * - 漫画导入、删除后随搜索索引（{@link SearchIndexListener}）更新内存数据，快照在后台合并重建。
+ * 内存数据由 {@link ListedMangaData} 维护，快照整体替换，查询无锁。
+ * 浏览和搜索结果的分面计数也由该索引统计（见 {@link FilterIndex#facets}）。
+ */
+@Component
+@Slf4j
+public class MangaFilterIndex implements ApplicationRunner, SearchIndexListener {
+
+    private final SearchProperties properties;
+    private final ListedMangaData<FilterSource> data;
+
+    private volatile FilterIndex index;
+
+    public MangaFilterIndex(MangaRepository mangaRepository, SearchProperties properties) {
+        this.properties = properties;
+        this.data = new ListedMangaData<>("filter index", mangaRepository, mangaRepository::findFilterSources,
+                mangaRepository::findFilterSourcesByIds, FilterSource::id, this::rebuild);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "#{@searchProperties.filter.refreshInterval.toMillis()}",
+            initialDelayString = "#{@searchProperties.filter.refreshInterval.toMillis()}")
+    public void refresh() {
+        if (properties.getFilter().isEnabled()) {
+            data.refresh();
+        }
+    }
+
+    @Override
+    public void onReindexed(Collection<Long> mangaIds) {
+        if (properties.getFilter().isEnabled() && index != null) {
+            data.update(mangaIds);
+        }
+    }
+
+    /**
+     * 合并一段时间内的增量更新后重建（批量导入只重建一次）
+     */
+    @Scheduled(fixedDelay = 2000)
+    public void rebuildIfDirty() {
+        data.rebuildIfDirty();
+    }
+
+    private void rebuild(ListedMangaData.Data<FilterSource> snapshot) {
+        long start = System.nanoTime();
+        FilterIndex rebuilt = FilterIndex.build(snapshot.sources().values(), snapshot.tags());
+        index = rebuilt;
+        log.debug("Filter index rebuilt: {} manga in {} ms", rebuilt.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    public boolean isReady() {
+        return properties.getFilter().isEnabled() && index != null;
+    }
+
+    /**
+     * 是否为上架漫画（随全量刷新和增量更新维护，不访问数据库）
+     */
+    public boolean isListed(long mangaId) {
+        return data.contains(mangaId);
+    }
+
+    /**
+     * 组合筛选取一页；withFacets 为 true 时同时统计整个结果集的分面
+     */
+    public FacetedHits browse(BrowseFilter filter, BrowseSort sort, long offset, int limit, boolean withFacets) {
+        FilterIndex current = index;
+        if (current == null) {
+            return new FacetedHits(SearchHits.empty(), Map.of());
+        }
+        RoaringBitmap result = current.filter(filter);
+        SearchHits hits = current.page(result, sort, offset, limit);
+        return new FacetedHits(hits, withFacets ? current.facets(result, maxFacetValues()) : Map.of());
+    }
+
+    /**
+     * 对一组漫画 id（例如全部搜索命中）统计分面；索引未就绪时返回空
+     */
+    public Map<String, List<FacetCount>> facetsOf(long[] mangaIds) {
+        FilterIndex current = index;
+        if (current == null) {
+            return Map.of();
+        }
+        return current.facets(current.toBitmap(mangaIds), maxFacetValues());
+    }
+
+    private int maxFacetValues() {
+        return Math.max(1, properties.getFilter().getMaxFacetValues());
+    }
+
+    public record FacetedHits(SearchHits hits, Map<String, List<FacetCount>> facets) {
+    }
+}
@@ -0,0 +1,325 @@
+package com.manga.search;
+
+import com.manga.config.SearchProperties;
+import com.manga.repository.MangaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 漫画搜索索引
+ *
+ * 启动时（ApplicationRunner，readiness 之前）优先加载快照文件，只重放快照水位线之后更新的漫画，
+ * 并按上架 id 列表移除已被物理删除的漫画；没有可用快照时从数据库全量构建。
+ *
+ * 写操作通过 {@link #reindex} 登记受影响的漫画 id，事务提交后统一从数据库读取这些漫画并更新索引
+ * （仍上架的重新索引，已下架或已删除的移除），回滚则不更新。更新以写时复制生成新的 {@link InvertedIndex}
+ * 并整体替换，查询始终读到完整的快照；已删除文档超过一定比例时顺带压缩。
+ * 更新后通知 {@link SearchIndexListener}（联想词、浏览筛选索引随之更新）。
+ *
+ * 索引有变化时每个 search.snapshot-interval 写一次快照。索引未构建成功前 {@link #isReady()} 为 false，
+ * 调用方回退到数据库查询。search.backend 不是 index 时不构建索引。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MangaSearchIndex implements ApplicationRunner, SearchBackend {
+
+    /**
+     * IN 查询每批的 id 数
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * 已删除文档超过该比例时压缩
+     */
+    private static final double COMPACT_RATIO = 0.2;
+
+    private final MangaRepository mangaRepository;
+    private final SearchProperties properties;
+    private final ObjectProvider<SearchIndexListener> listeners;
+    private final Object updateLock = new Object();
+
+    private volatile InvertedIndex index;
+    private volatile long version;
+    private long snapshotVersion;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (!loadSnapshot()) {
+            rebuild();
+        }
+        InvertedIndex current = index;
+        if (current != null) {
+            log.info("Search index ready: {} documents, {} terms in {} ms", current.size(), current.terms(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * 加载快照并重放水位线之后的变更；没有快照或快照不可用时返回 false
+     */
+    private boolean loadSnapshot() {
+        Path path = snapshotPath();
+        if (path == null) {
+            return false;
+        }
+        SearchIndexSnapshot.Loaded loaded;
+        try {
+            loaded = SearchIndexSnapshot.read(path);
+        } catch (IOException e) {
+            log.warn("Ignoring search index snapshot: {}", e.getMessage());
+            return false;
+        }
+        if (loaded == null) {
+            return false;
+        }
+
+        try {
+            LocalDateTime since = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(loaded.watermark() - properties.getReplayMargin().toMillis()), ZoneOffset.UTC);
+            Set<Long> changed = new HashSet<>(mangaRepository.findIdsUpdatedSince(since));
+
+            // 物理删除不会留下 updatedAt，按上架 id 列表对齐
+            Set<Long> putawayIds = new HashSet<>(mangaRepository.findPutawayIds());
+            for (Long mangaId : loaded.index().mangaIds()) {
+                if (!putawayIds.contains(mangaId)) {
+                    changed.add(mangaId);
+                }
+            }
+            for (Long mangaId : putawayIds) {
+                if (!loaded.index().contains(mangaId)) {
+                    changed.add(mangaId);
+                }
+            }
+
+            synchronized (updateLock) {
+                index = loaded.index();
+                snapshotVersion = version;
+                applyChanges(changed);
+            }
+            log.info("Loaded search index snapshot {} and replayed {} changed manga", path, changed.size());
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to replay search index snapshot, rebuilding: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 从数据库全量重建；失败时保留旧索引
+     */
+    public void rebuild() {
+        try {
+            List<SearchDocument> documents = mangaRepository.findSearchDocuments();
+            Map<Long, List<String>> tags = groupTags(mangaRepository.findPutawayTagPairs());
+            InvertedIndex rebuilt = InvertedIndex.build(documents, tags);
+            synchronized (updateLock) {
+                index = rebuilt;
+                version++;
+            }
+        } catch (Exception e) {
+            log.warn("Failed to build search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 登记需要重新索引的漫画；在事务中调用时同一事务内合并，提交后统一更新
+     */
+    public void reindex(Collection<Long> mangaIds) {
+        if (!enabled() || mangaIds.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+            if (pending == null) {
+                pending = new Pending(this);
+                TransactionSynchronizationManager.bindResource(this, pending);
+                TransactionSynchronizationManager.registerSynchronization(pending);
+            }
+            pending.mangaIds.addAll(mangaIds);
+            return;
+        }
+        reindexNow(mangaIds);
+    }
+
+    public void reindex(Long mangaId) {
+        reindex(List.of(mangaId));
+    }
+
+    private void reindexNow(Collection<Long> mangaIds) {
+        if (index == null) {
+            return;
+        }
+        try {
+            synchronized (updateLock) {
+                applyChanges(mangaIds);
+            }
+        } catch (Exception e) {
+            // 一致性检查会在下一轮修复
+            log.warn("Failed to update search index for {} manga: {}", mangaIds.size(), e.getMessage());
+            return;
+        }
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onReindexed(mangaIds);
+            } catch (RuntimeException e) {
+                log.warn("Search index listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 从数据库读取这些漫画的当前状态并应用到索引（调用方持有 updateLock）
+     */
+    private void applyChanges(Collection<Long> mangaIds) {
+        if (mangaIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(mangaIds));
+        List<SearchDocument> documents = new ArrayList<>();
+        Map<Long, List<String>> tags = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+            documents.addAll(mangaRepository.findSearchDocumentsByIds(batch));
+            tags.putAll(groupTags(mangaRepository.findPutawayTagPairsByIds(batch)));
+        }
+
+        InvertedIndex updated = index.apply(documents, tags, ids);
+        if (updated.deletedCount() > COMPACT_RATIO * Math.max(1, updated.size())) {
+            updated = updated.compact();
+        }
+        index = updated;
+        version++;
+    }
+
+    @Scheduled(fixedDelayString = "#{@searchProperties.snapshotInterval.toMillis()}",
+            initialDelayString = "#{@searchProperties.snapshotInterval.toMillis()}")
+    public void writeSnapshot() {
+        Path path = snapshotPath();
+        if (path == null || index == null) {
+            return;
+        }
+        InvertedIndex current;
+        long currentVersion;
+        long watermark;
+        synchronized (updateLock) {
+            if (version == snapshotVersion) {
+                return;
+            }
+            current = index;
+            currentVersion = version;
+            watermark = InvertedIndex.epochMillis(LocalDateTime.now());
+        }
+        try {
+            long start = System.nanoTime();
+            SearchIndexSnapshot.write(path, current, watermark);
+            synchronized (updateLock) {
+                snapshotVersion = currentVersion;
+            }
+            log.info("Wrote search index snapshot {} ({} documents) in {} ms", path, current.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            log.warn("Failed to write search index snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    private Path snapshotPath() {
+        String path = properties.getSnapshotPath();
+        return path == null || path.isBlank() ? null : Path.of(path);
+    }
+
+    private static Map<Long, List<String>> groupTags(List<Object[]> pairs) {
+        Map<Long, List<String>> tags = new HashMap<>();
+        for (Object[] pair : pairs) {
+            tags.computeIfAbsent((Long) pair[0], id -> new ArrayList<>()).add((String) pair[1]);
+        }
+        return tags;
+    }
+
+    /**
+     * 只有选择 index 后端时才在本节点构建倒排索引
+     */
+    private boolean enabled() {
+        return properties.isEnabled() && properties.getBackend() == SearchBackendType.INDEX;
+    }
+
+    @Override
+    public SearchBackendType type() {
+        return SearchBackendType.INDEX;
+    }
+
+    @Override
+    public boolean isReady() {
+        return enabled() && index != null;
+    }
+
+    /**
+     * 当前快照（只读），供一致性检查使用
+     */
+    InvertedIndex current() {
+        return index;
+    }
+
+    @Override
+    public SearchHits search(String keyword, String tag, SearchSort sort, long offset, int limit) {
+        InvertedIndex current = index;
+        if (current == null) {
+            return SearchHits.empty();
+        }
+        float[] scoreTable = SearchField.scoreTable(properties.getBoosts());
+        return current.search(keyword, tag, sort, scoreTable, offset, limit);
+    }
+
+    /**
+     * 全部命中的漫画 id；索引未就绪时返回空数组
+     */
+    @Override
+    public long[] matchingIds(String keyword, String tag) {
+        InvertedIndex current = index;
+        return current != null ? current.matchingIds(keyword, tag) : new long[0];
+    }
+
+    private final class Pending implements TransactionSynchronization {
+
+        private final Object resourceKey;
+        private final Set<Long> mangaIds = new LinkedHashSet<>();
+
+        private Pending(Object resourceKey) {
+            this.resourceKey = resourceKey;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(resourceKey);
+            if (status == STATUS_COMMITTED) {
+                reindexNow(mangaIds);
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.manga.search;
+
+import com.manga.config.SearchProperties;
+import com.manga.dto.SuggestionResponse;
+import com.manga.repository.MangaRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 搜索联想词
+ *
+ * 内存中保存上架漫画的标题、原名、作者、标签及浏览量（不含简介），据此生成条目：
+ * 标题、原名各对应一部漫画，权重为其浏览量；作者、标签按名称合并，权重为相关漫画浏览量之和。
+ * 条目按权重排名后建成 {@link SuggestTrie}，键为归一化文本，多词标题额外以每个单词开头作为键
+ * （输入 "piece" 也能联想到 "One Piece"）。
+ *
+ * - 启动时从数据库加载；每个 refresh-interval 全量刷新一次以更新浏览量权重；
+ * - 漫画导入、删除后随搜索索引（{@link SearchIndexListener}）更新内存数据（{@link ListedMangaData}），
+ *   前缀树在后台合并重建；
+ * - 条目按权重从高到低累计估算内存，超过 memory-budget 的低权重条目不进入前缀树。
+ */
+@Component
+@Slf4j
+public class MangaSuggester implements ApplicationRunner, SearchIndexListener {
+
+    private static final String TITLE = "title";
+    private static final String OLD_NAME = "oldName";
+    private static final String AUTHOR = "author";
+    private static final String TAG = "tag";
+
+    /**
+     * 每个标题额外建立的单词开头键数上限
+     */
+    private static final int MAX_WORD_KEYS = 4;
+
+    private final SearchProperties properties;
+    private final ListedMangaData<SuggestSource> data;
+
+    private volatile Snapshot snapshot;
+
+    private record Entry(String text, String type, Long mangaId, long weight, List<String> keys) {
+    }
+
+    private record Snapshot(SuggestTrie trie, Entry[] entries, long memoryBytes) {
+    }
+
+    public MangaSuggester(MangaRepository mangaRepository, SearchProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.data = new ListedMangaData<>("suggestions", mangaRepository, mangaRepository::findSuggestSources,
+                mangaRepository::findSuggestSourcesByIds, SuggestSource::id, this::rebuild);
+        Gauge.builder("search.suggest.memory", this, suggester -> {
+                    Snapshot current = suggester.snapshot;
+                    return current != null ? current.memoryBytes() : 0;
+                })
+                .description("Estimated heap used by the suggestion trie")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("search.suggest.entries", this, suggester -> {
+                    Snapshot current = suggester.snapshot;
+                    return current != null ? current.entries().length : 0;
+                })
+                .description("Suggestions held in the trie")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "#{@searchProperties.suggest.refreshInterval.toMillis()}",
+            initialDelayString = "#{@searchProperties.suggest.refreshInterval.toMillis()}")
+    public void refresh() {
+        if (properties.getSuggest().isEnabled()) {
+            data.refresh();
+        }
+    }
+
+    @Override
+    public void onReindexed(Collection<Long> mangaIds) {
+        if (properties.getSuggest().isEnabled() && snapshot != null) {
+            data.update(mangaIds);
+        }
+    }
+
+    /**
+     * 合并一段时间内的增量更新后重建（批量导入只重建一次）
+     */
+    @Scheduled(fixedDelay = 2000)
+    public void rebuildIfDirty() {
+        data.rebuildIfDirty();
+    }
+
+    private void rebuild(ListedMangaData.Data<SuggestSource> current) {
+        long start = System.nanoTime();
+        List<Entry> entries = collectEntries(current);
+        entries.sort(Comparator.comparingLong(Entry::weight).reversed().thenComparing(Entry::text));
+
+        int topK = Math.max(1, properties.getSuggest().getMaxResults());
+        long budget = properties.getSuggest().getMemoryBudget().toBytes();
+        long estimated = 0;
+        int kept = 0;
+        int keyCount = 0;
+        for (Entry entry : entries) {
+            long cost = estimateBytes(entry, topK);
+            if (estimated + cost > budget) {
+                break;
+            }
+            estimated += cost;
+            keyCount += entry.keys().size();
+            kept++;
+        }
+        if (kept < entries.size()) {
+            log.warn("Suggestion memory budget {} reached, dropped {} of {} lowest-weight entries",
+                    properties.getSuggest().getMemoryBudget(), entries.size() - kept, entries.size());
+        }
+
+        String[] keys = new String[keyCount];
+        int[] ranks = new int[keyCount];
+        int k = 0;
+        for (int rank = 0; rank < kept; rank++) {
+            for (String key : entries.get(rank).keys()) {
+                keys[k] = key;
+                ranks[k] = rank;
+                k++;
+            }
+        }
+        SuggestTrie trie = SuggestTrie.build(keys, ranks, topK);
+        Entry[] keptEntries = entries.subList(0, kept).toArray(new Entry[0]);
+        long memory = trie.memoryBytes() + entriesBytes(keptEntries);
+        snapshot = new Snapshot(trie, keptEntries, memory);
+        log.debug("Suggestion trie rebuilt: {} entries, {} nodes, ~{} KB in {} ms", kept, trie.nodes(),
+                memory / 1024, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static List<Entry> collectEntries(ListedMangaData.Data<SuggestSource> data) {
+        List<Entry> entries = new ArrayList<>();
+        Map<String, long[]> authorWeights = new HashMap<>();
+        Map<String, String> authorNames = new LinkedHashMap<>();
+        Map<String, long[]> tagWeights = new LinkedHashMap<>();
+        Map<Long, List<String>> tags = data.tags();
+
+        for (SuggestSource source : data.sources().values()) {
+            long views = source.viewCount() != null ? source.viewCount() : 0;
+            addMangaEntry(entries, source.title(), TITLE, source.id(), views);
+            addMangaEntry(entries, source.oldName(), OLD_NAME, source.id(), views);
+            if (source.author() != null && !source.author().isBlank()) {
+                String key = Tokenizer.normalize(source.author().trim());
+                authorNames.putIfAbsent(key, source.author().trim());
+                authorWeights.computeIfAbsent(key, name -> new long[1])[0] += views;
+            }
+            for (String tag : tags.getOrDefault(source.id(), List.of())) {
+                tagWeights.computeIfAbsent(tag, name -> new long[1])[0] += views;
+            }
+        }
+        authorNames.forEach((key, name) ->
+                entries.add(new Entry(name, AUTHOR, null, authorWeights.get(key)[0], List.of(key))));
+        tagWeights.forEach((tag, weight) ->
+                entries.add(new Entry(tag, TAG, null, weight[0], List.of(Tokenizer.normalize(tag)))));
+        return entries;
+    }
+
+    private static void addMangaEntry(List<Entry> entries, String text, String type, Long mangaId, long views) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String normalized = Tokenizer.normalize(text.trim());
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized);
+        // 多词标题：每个单词开头也作为键
+        int from = 0;
+        while (keys.size() <= MAX_WORD_KEYS) {
+            int space = normalized.indexOf(' ', from);
+            if (space < 0 || space + 1 >= normalized.length()) {
+                break;
+            }
+            keys.add(normalized.substring(space + 1));
+            from = space + 1;
+        }
+        entries.add(new Entry(text.trim(), type, mangaId, views, keys));
+    }
+
+    /**
+     * 条目进入前缀树后的大致占用：文本、对象头，以及每个键最多新增的节点与 top 列表
+     */
+    private static long estimateBytes(Entry entry, int topK) {
+        long bytes = 64 + 2L * entry.text().length();
+        for (String key : entry.keys()) {
+            bytes += 2L * key.length() + 2L * (24 + 4L * topK);
+        }
+        return bytes;
+    }
+
+    private static long entriesBytes(Entry[] entries) {
+        long bytes = 0;
+        for (Entry entry : entries) {
+            bytes += 64 + 2L * entry.text().length();
+        }
+        return bytes;
+    }
+
+    /**
+     * 前缀联想；输入为空或联想词未就绪时返回空列表
+     */
+    public List<SuggestionResponse> suggest(String query, int limit) {
+        Snapshot current = snapshot;
+        if (current == null || query == null || query.isBlank()) {
+            return List.of();
+        }
+        String prefix = Tokenizer.normalize(query.stripLeading());
+        int[] ranks = current.trie().lookup(prefix);
+        int count = Math.min(ranks.length, Math.max(0, limit));
+        List<SuggestionResponse> suggestions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Entry entry = current.entries()[ranks[i]];
+            suggestions.add(new SuggestionResponse(entry.text(), entry.type(), entry.mangaId()));
+        }
+        return suggestions;
+    }
+}
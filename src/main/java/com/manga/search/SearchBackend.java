@@ -0,0 +1,24 @@
+package com.manga.search;
+
+/**
+ * 关键词搜索后端：只负责找出命中的漫画 id 并排序，漫画数据统一由调用方从缓存加载
+ */
+public interface SearchBackend {
+
+    SearchBackendType type();
+
+    /**
+     * 未就绪时调用方改用 LIKE 后端
+     */
+    boolean isReady();
+
+    /**
+     * @param tag 标签筛选，为 null 时不筛选
+     */
+    SearchHits search(String keyword, String tag, SearchSort sort, long offset, int limit);
+
+    /**
+     * 全部命中的漫画 id（不排序、不分页），与 {@link #search} 的命中集合一致，用于统计分面
+     */
+    long[] matchingIds(String keyword, String tag);
+}
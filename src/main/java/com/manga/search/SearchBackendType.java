@@ -0,0 +1,15 @@
+package com.manga.search;
+
+/**
+ * 搜索后端（search.backend）
+ *
+ * - index：每个节点内存中的倒排索引（{@link MangaSearchIndex}），不访问数据库；
+ * - fulltext：MySQL FULLTEXT 索引（ngram 分词），节点不占用索引内存（{@link FullTextSearchBackend}）；
+ * - like：数据库 LIKE 模糊匹配，不需要任何索引，也是其他后端未就绪时的回退（{@link LikeSearchBackend}）。
+ */
+public enum SearchBackendType {
+
+    INDEX,
+    FULLTEXT,
+    LIKE
+}
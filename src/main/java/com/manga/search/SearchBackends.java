@@ -0,0 +1,29 @@
+package com.manga.search;
+
+import com.manga.config.SearchProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 按 search.backend 选择搜索后端；配置的后端未就绪（索引构建中、FULLTEXT 索引缺失）时回退到 LIKE
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchBackends {
+
+    private final List<SearchBackend> backends;
+    private final LikeSearchBackend likeSearchBackend;
+    private final SearchProperties properties;
+
+    public SearchBackend current() {
+        SearchBackendType configured = properties.getBackend();
+        for (SearchBackend backend : backends) {
+            if (backend.type() == configured && backend.isReady()) {
+                return backend;
+            }
+        }
+        return likeSearchBackend;
+    }
+}
@@ -0,0 +1,10 @@
+package com.manga.search;
+
+import java.time.LocalDateTime;
+
+/**
+ * 建索引所需的漫画字段
+ */
+public record SearchDocument(Long id, String title, String oldName, String author, String description,
+                             Integer sortOrder, LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
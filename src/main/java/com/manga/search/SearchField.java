@@ -0,0 +1,50 @@
+package com.manga.search;
+
+import com.manga.config.SearchProperties;
+
+/**
+ * 被索引的字段；倒排表中每个文档用一个位掩码记录词元出现在哪些字段
+ */
+public enum SearchField {
+
+    TITLE,
+    OLD_NAME,
+    AUTHOR,
+    DESCRIPTION;
+
+    /**
+     * 字段掩码占用的位数
+     */
+    static final int BITS = 4;
+
+    static final int MASK = (1 << BITS) - 1;
+
+    int bit() {
+        return 1 << ordinal();
+    }
+
+    String valueOf(SearchDocument document) {
+        return switch (this) {
+            case TITLE -> document.title();
+            case OLD_NAME -> document.oldName();
+            case AUTHOR -> document.author();
+            case DESCRIPTION -> document.description();
+        };
+    }
+
+    /**
+     * 按字段掩码查表得到的得分（下标为掩码，16 种组合）
+     */
+    static float[] scoreTable(SearchProperties.Boosts boosts) {
+        float[] perField = {boosts.getTitle(), boosts.getOldName(), boosts.getAuthor(), boosts.getDescription()};
+        float[] table = new float[1 << BITS];
+        for (int mask = 0; mask < table.length; mask++) {
+            for (SearchField field : values()) {
+                if ((mask & field.bit()) != 0) {
+                    table[mask] += perField[field.ordinal()];
+                }
+            }
+        }
+        return table;
+    }
+}
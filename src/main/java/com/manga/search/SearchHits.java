@@ -0,0 +1,13 @@
+package com.manga.search;
+
+import java.util.List;
+
+/**
+ * 一页搜索结果：漫画 id（已排序）与命中总数
+ */
+public record SearchHits(List<Long> mangaIds, long total) {
+
+    public static SearchHits empty() {
+        return new SearchHits(List.of(), 0);
+    }
+}
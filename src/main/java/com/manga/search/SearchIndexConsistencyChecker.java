@@ -0,0 +1,123 @@
+package com.manga.search;
+
+import com.manga.config.SearchProperties;
+import com.manga.repository.MangaRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 搜索索引一致性检查
+ *
+ * 读取数据库中全部上架漫画的 id、updatedAt 和标签，与当前索引逐个比较：
+ * - missing：数据库中上架但索引中没有；
+ * - extra：索引中有但数据库中已下架或已删除；
+ * - stale：updatedAt 或标签与数据库不同。
+ * 结果记录到 search.index.inconsistencies 指标；search.consistency-repair 为 true 时重新索引这些漫画。
+ */
+@Component
+@Slf4j
+public class SearchIndexConsistencyChecker {
+
+    /**
+     * 结果中每类最多列出的 id 数
+     */
+    private static final int SAMPLE_SIZE = 20;
+
+    private final MangaSearchIndex searchIndex;
+    private final MangaRepository mangaRepository;
+    private final SearchProperties properties;
+    private final AtomicInteger inconsistencies = new AtomicInteger();
+
+    public SearchIndexConsistencyChecker(MangaSearchIndex searchIndex, MangaRepository mangaRepository,
+                                         SearchProperties properties, MeterRegistry meterRegistry) {
+        this.searchIndex = searchIndex;
+        this.mangaRepository = mangaRepository;
+        this.properties = properties;
+        Gauge.builder("search.index.inconsistencies", inconsistencies, AtomicInteger::get)
+                .description("Manga whose search index entry differed from the database at the last check")
+                .register(meterRegistry);
+    }
+
+    public record Result(int indexed, int expected, int missing, int extra, int stale, List<Long> sample,
+                         boolean repaired) {
+
+        public boolean consistent() {
+            return missing == 0 && extra == 0 && stale == 0;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{@searchProperties.consistencyCheckInterval.toMillis()}",
+            initialDelayString = "#{@searchProperties.consistencyCheckInterval.toMillis()}")
+    public void scheduledCheck() {
+        if (!searchIndex.isReady()) {
+            return;
+        }
+        try {
+            check(properties.isConsistencyRepair());
+        } catch (Exception e) {
+            log.warn("Search index consistency check failed: {}", e.getMessage());
+        }
+    }
+
+    public Result check(boolean repair) {
+        InvertedIndex index = searchIndex.current();
+        if (index == null) {
+            throw new IllegalStateException("Search index is not ready");
+        }
+        List<SearchDocument> documents = mangaRepository.findSearchDocuments();
+        Map<Long, Set<String>> tags = new HashMap<>();
+        for (Object[] pair : mangaRepository.findPutawayTagPairs()) {
+            tags.computeIfAbsent((Long) pair[0], id -> new HashSet<>()).add((String) pair[1]);
+        }
+
+        List<Long> missing = new ArrayList<>();
+        List<Long> stale = new ArrayList<>();
+        Set<Long> expectedIds = new HashSet<>(documents.size() * 4 / 3 + 1);
+        for (SearchDocument document : documents) {
+            expectedIds.add(document.id());
+            Long indexedUpdatedAt = index.updatedAtOf(document.id());
+            if (indexedUpdatedAt == null) {
+                missing.add(document.id());
+            } else if (indexedUpdatedAt != InvertedIndex.epochMillis(document.updatedAt())
+                    || !new HashSet<>(index.tagsOf(document.id())).equals(tags.getOrDefault(document.id(), Set.of()))) {
+                stale.add(document.id());
+            }
+        }
+        List<Long> extra = new ArrayList<>();
+        for (Long mangaId : index.mangaIds()) {
+            if (!expectedIds.contains(mangaId)) {
+                extra.add(mangaId);
+            }
+        }
+
+        List<Long> differing = new ArrayList<>(missing.size() + extra.size() + stale.size());
+        differing.addAll(missing);
+        differing.addAll(extra);
+        differing.addAll(stale);
+        inconsistencies.set(differing.size());
+
+        boolean repaired = false;
+        if (!differing.isEmpty()) {
+            log.warn("Search index differs from database: {} missing, {} extra, {} stale (sample {})",
+                    missing.size(), extra.size(), stale.size(),
+                    differing.subList(0, Math.min(SAMPLE_SIZE, differing.size())));
+            if (repair) {
+                searchIndex.reindex(differing);
+                repaired = true;
+            }
+        }
+        return new Result(index.size(), documents.size(), missing.size(), extra.size(), stale.size(),
+                List.copyOf(differing.subList(0, Math.min(SAMPLE_SIZE, differing.size()))), repaired);
+    }
+}
@@ -0,0 +1,14 @@
+package com.manga.search;
+
+import java.util.Collection;
+
+/**
+ * 搜索索引增量更新后的回调（在提交后的更新线程中同步调用）
+ */
+public interface SearchIndexListener {
+
+    /**
+     * @param mangaIds 已重新索引的漫画 id（包括被移除的）
+     */
+    void onReindexed(Collection<Long> mangaIds);
+}
@@ -0,0 +1,139 @@
+package com.manga.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 索引快照文件（单个段文件）
+ *
+ * 格式（大端）：magic、版本、水位线（epoch 毫秒）、文档数、每个文档的 id / sortOrder / 创建时间 /
+ * 更新时间 / 标签，词元数、每个词元的字符串与倒排表。只写入压缩后的快照（没有已删除文档）。
+ *
+ * 写入先落到临时文件再原子改名，进程在写入中途退出不会留下损坏的快照；
+ * 读取通过 FileChannel.map 内存映射整个文件，按顺序解码到堆内数组，不经过用户态缓冲拷贝。
+ */
+final class SearchIndexSnapshot {
+
+    private static final int MAGIC = 0x4D534958;
+    private static final int VERSION = 1;
+
+    private SearchIndexSnapshot() {
+    }
+
+    /**
+     * 快照内容与水位线：水位线之后更新的漫画需要从数据库重放
+     */
+    record Loaded(InvertedIndex index, long watermark) {
+    }
+
+    static void write(Path path, InvertedIndex index, long watermark) throws IOException {
+        InvertedIndex compacted = index.compact();
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(watermark);
+
+            int size = compacted.mangaIds.length;
+            out.writeInt(size);
+            for (int doc = 0; doc < size; doc++) {
+                out.writeLong(compacted.mangaIds[doc]);
+                out.writeInt(compacted.sortOrders[doc]);
+                out.writeLong(compacted.createdAt[doc]);
+                out.writeLong(compacted.updatedAt[doc]);
+                out.writeInt(compacted.tags[doc].length);
+                for (String tag : compacted.tags[doc]) {
+                    writeString(out, tag);
+                }
+            }
+
+            out.writeInt(compacted.postings.size());
+            for (Map.Entry<String, int[]> entry : compacted.postings.entrySet()) {
+                writeString(out, entry.getKey());
+                int[] list = entry.getValue();
+                out.writeInt(list.length);
+                for (int value : list) {
+                    out.writeInt(value);
+                }
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 读取快照；文件不存在返回 null，格式或版本不符抛出 IOException
+     */
+    static Loaded read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Unsupported search index snapshot " + path);
+            }
+            long watermark = buffer.getLong();
+
+            int size = buffer.getInt();
+            long[] mangaIds = new long[size];
+            int[] sortOrders = new int[size];
+            long[] createdAt = new long[size];
+            long[] updatedAt = new long[size];
+            String[][] tags = new String[size][];
+            for (int doc = 0; doc < size; doc++) {
+                mangaIds[doc] = buffer.getLong();
+                sortOrders[doc] = buffer.getInt();
+                createdAt[doc] = buffer.getLong();
+                updatedAt[doc] = buffer.getLong();
+                String[] docTags = new String[buffer.getInt()];
+                for (int i = 0; i < docTags.length; i++) {
+                    docTags[i] = readString(buffer);
+                }
+                tags[doc] = docTags;
+            }
+
+            int terms = buffer.getInt();
+            Map<String, int[]> postings = new HashMap<>(terms * 4 / 3 + 1);
+            for (int t = 0; t < terms; t++) {
+                String token = readString(buffer);
+                int[] list = new int[buffer.getInt()];
+                buffer.asIntBuffer().get(list);
+                buffer.position(buffer.position() + list.length * Integer.BYTES);
+                postings.put(token, list);
+            }
+            InvertedIndex index = new InvertedIndex(mangaIds, sortOrders, createdAt, updatedAt, tags,
+                    new long[(size + 63) >>> 6], postings);
+            return new Loaded(index, watermark);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt search index snapshot " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,28 @@
+package com.manga.search;
+
+/**
+ * 搜索排序方式
+ *
+ * - default：运营排序（sortOrder 升序）+ 创建时间倒序，与原数据库查询一致
+ * - updated / created：更新 / 创建时间倒序
+ * - relevance：相关度倒序（内存索引为字段加权得分，FULLTEXT 为 MATCH 得分，LIKE 后端不支持，按 default）
+ */
+public enum SearchSort {
+
+    DEFAULT,
+    UPDATED,
+    CREATED,
+    RELEVANCE;
+
+    public static SearchSort parse(String value) {
+        if (value == null) {
+            return DEFAULT;
+        }
+        return switch (value) {
+            case "updated" -> UPDATED;
+            case "created" -> CREATED;
+            case "relevance" -> RELEVANCE;
+            default -> DEFAULT;
+        };
+    }
+}
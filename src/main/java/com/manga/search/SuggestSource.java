@@ -0,0 +1,7 @@
+package com.manga.search;
+
+/**
+ * 构建联想词所需的漫画字段
+ */
+public record SuggestSource(Long id, String title, String oldName, String author, Integer viewCount) {
+}
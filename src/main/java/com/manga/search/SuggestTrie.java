@@ -0,0 +1,255 @@
+package com.manga.search;
+
+import java.util.Arrays;
+
+/**
+ * 只读的压缩前缀树（radix trie），用于联想词
+ *
+ * 单子节点链合并为一条边，边上的字符统一存放在一个 char[] 中；同一节点的子节点连续存放，
+ * 按边的首字符有序，查找时二分定位。每个节点预先保存子树中排名最靠前的 topK 个条目，
+ * 因此查询只需沿前缀走到对应节点（O(前缀长度 · log 子节点数)），不需要遍历子树。
+ *
+ * 条目用"排名"表示：调用方按权重从高到低给条目编号，编号越小越靠前。
+ * 所有数据都在基本类型数组中，{@link #memoryBytes()} 可精确估算占用。
+ */
+final class SuggestTrie {
+
+    private static final int[] NONE = new int[0];
+
+    private final char[] labels;
+    private final int[] labelStart;
+    private final int[] labelLength;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] topStart;
+    private final int[] topCount;
+    private final int[] tops;
+
+    private SuggestTrie(Builder builder) {
+        int nodes = builder.nodes;
+        this.labels = Arrays.copyOf(builder.labels, builder.labelSize);
+        this.labelStart = Arrays.copyOf(builder.labelStart, nodes);
+        this.labelLength = Arrays.copyOf(builder.labelLength, nodes);
+        this.firstChild = Arrays.copyOf(builder.firstChild, nodes);
+        this.childCount = Arrays.copyOf(builder.childCount, nodes);
+        this.topStart = Arrays.copyOf(builder.topStart, nodes);
+        this.topCount = Arrays.copyOf(builder.topCount, nodes);
+        this.tops = Arrays.copyOf(builder.tops, builder.topSize);
+    }
+
+    /**
+     * @param keys  已归一化的键，可重复
+     * @param ranks 每个键对应的条目排名（同一条目可有多个键）
+     * @param topK  每个节点保留的条目数
+     */
+    static SuggestTrie build(String[] keys, int[] ranks, int topK) {
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+        String[] sortedKeys = new String[keys.length];
+        int[] sortedRanks = new int[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedKeys[i] = keys[order[i]];
+            sortedRanks[i] = ranks[order[i]];
+        }
+
+        Builder builder = new Builder(sortedKeys, sortedRanks, topK);
+        int root = builder.newNode();
+        builder.setLabel(root, "", 0, 0);
+        builder.fill(root, 0, keys.length, 0);
+        return new SuggestTrie(builder);
+    }
+
+    /**
+     * 以 prefix 开头的键对应的条目排名（升序，最多 topK 个）
+     */
+    int[] lookup(String prefix) {
+        int node = 0;
+        int position = 0;
+        while (position < prefix.length()) {
+            int child = findChild(node, prefix.charAt(position));
+            if (child < 0) {
+                return NONE;
+            }
+            int start = labelStart[child];
+            int length = labelLength[child];
+            int matched = 0;
+            while (matched < length && position < prefix.length()) {
+                if (labels[start + matched] != prefix.charAt(position)) {
+                    return NONE;
+                }
+                matched++;
+                position++;
+            }
+            node = child;
+        }
+        return Arrays.copyOfRange(tops, topStart[node], topStart[node] + topCount[node]);
+    }
+
+    private int findChild(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char first = labels[labelStart[mid]];
+            if (first < c) {
+                low = mid + 1;
+            } else if (first > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    int nodes() {
+        return labelStart.length;
+    }
+
+    long memoryBytes() {
+        return (long) labels.length * Character.BYTES
+                + (long) labelStart.length * Integer.BYTES * 6
+                + (long) tops.length * Integer.BYTES;
+    }
+
+    /**
+     * 构建期的可增长数组；节点按"父节点处理时一次分配全部子节点"的顺序编号，保证兄弟节点连续
+     */
+    private static final class Builder {
+
+        private final String[] keys;
+        private final int[] ranks;
+        private final int topK;
+
+        private char[] labels = new char[1024];
+        private int labelSize;
+        private int[] labelStart = new int[256];
+        private int[] labelLength = new int[256];
+        private int[] firstChild = new int[256];
+        private int[] childCount = new int[256];
+        private int[] topStart = new int[256];
+        private int[] topCount = new int[256];
+        private int nodes;
+        private int[] tops = new int[1024];
+        private int topSize;
+
+        private Builder(String[] keys, int[] ranks, int topK) {
+            this.keys = keys;
+            this.ranks = ranks;
+            this.topK = topK;
+        }
+
+        private int newNode() {
+            if (nodes == labelStart.length) {
+                int capacity = nodes * 2;
+                labelStart = Arrays.copyOf(labelStart, capacity);
+                labelLength = Arrays.copyOf(labelLength, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                childCount = Arrays.copyOf(childCount, capacity);
+                topStart = Arrays.copyOf(topStart, capacity);
+                topCount = Arrays.copyOf(topCount, capacity);
+            }
+            return nodes++;
+        }
+
+        private void setLabel(int node, String key, int from, int to) {
+            int length = to - from;
+            if (labelSize + length > labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(labels.length * 2, labelSize + length));
+            }
+            key.getChars(from, to, labels, labelSize);
+            labelStart[node] = labelSize;
+            labelLength[node] = length;
+            labelSize += length;
+        }
+
+        /**
+         * 构建 [lo, hi) 范围（共享前 depth 个字符）对应的节点，返回该节点的 top 列表
+         */
+        private int[] fill(int node, int lo, int hi, int depth) {
+            int i = lo;
+            int[] candidates = new int[0];
+            int candidateCount = 0;
+            while (i < hi && keys[i].length() == depth) {
+                if (candidateCount == candidates.length) {
+                    candidates = Arrays.copyOf(candidates, Math.max(4, candidateCount * 2));
+                }
+                candidates[candidateCount++] = ranks[i];
+                i++;
+            }
+
+            int groups = 0;
+            for (int j = i; j < hi; ) {
+                j = groupEnd(j, hi, depth);
+                groups++;
+            }
+            int first = nodes;
+            for (int g = 0; g < groups; g++) {
+                newNode();
+            }
+            firstChild[node] = first;
+            childCount[node] = groups;
+
+            int child = first;
+            for (int j = i; j < hi; child++) {
+                int end = groupEnd(j, hi, depth);
+                int prefixEnd = depth + commonPrefix(keys[j], keys[end - 1], depth);
+                setLabel(child, keys[j], depth, prefixEnd);
+                int[] childTops = fill(child, j, end, prefixEnd);
+                if (candidateCount + childTops.length > candidates.length) {
+                    candidates = Arrays.copyOf(candidates, candidateCount + childTops.length);
+                }
+                System.arraycopy(childTops, 0, candidates, candidateCount, childTops.length);
+                candidateCount += childTops.length;
+                j = end;
+            }
+
+            int[] top = selectTop(candidates, candidateCount);
+            if (topSize + top.length > tops.length) {
+                tops = Arrays.copyOf(tops, Math.max(tops.length * 2, topSize + top.length));
+            }
+            System.arraycopy(top, 0, tops, topSize, top.length);
+            topStart[node] = topSize;
+            topCount[node] = top.length;
+            topSize += top.length;
+            return top;
+        }
+
+        private int groupEnd(int from, int hi, int depth) {
+            char c = keys[from].charAt(depth);
+            int end = from + 1;
+            while (end < hi && keys[end].charAt(depth) == c) {
+                end++;
+            }
+            return end;
+        }
+
+        /**
+         * 排名最小的 topK 个不重复条目
+         */
+        private int[] selectTop(int[] candidates, int count) {
+            int[] sorted = Arrays.copyOf(candidates, count);
+            Arrays.sort(sorted);
+            int[] top = new int[Math.min(topK, count)];
+            int size = 0;
+            for (int n = 0; n < count && size < top.length; n++) {
+                if (size == 0 || top[size - 1] != sorted[n]) {
+                    top[size++] = sorted[n];
+                }
+            }
+            return size == top.length ? top : Arrays.copyOf(top, size);
+        }
+
+        private static int commonPrefix(String a, String b, int from) {
+            int max = Math.min(a.length(), b.length());
+            int i = from;
+            while (i < max && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i - from;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.manga.search;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 分词器
+ *
+ * 先做 NFKC 归一化（全角转半角等）并转小写，然后按字符类别切分：
+ * - 中日韩文字（汉字、平假名、片假名、谚文）连续片段切成相邻二元组，"海贼王" -> "海贼"、"贼王"；
+ * - 字母、数字组成的片段作为一个单词；
+ * - 其余字符（空格、标点）作为分隔符。
+ *
+ * 建索引时中日韩片段额外输出单字，以便单字查询；查询时长度 >= 2 的片段只用二元组，
+ * 全部二元组都命中即视为包含该片段（与原 LIKE 子串匹配基本一致）。
+ */
+public final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    /**
+     * 文档分词（含中日韩单字），去重
+     */
+    public static Set<String> indexTokens(String text) {
+        return tokenize(text, true);
+    }
+
+    /**
+     * 查询分词，去重；返回空集合表示没有可检索的词元
+     */
+    public static Set<String> queryTokens(String text) {
+        return tokenize(text, false);
+    }
+
+    public static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> tokenize(String text, boolean withUnigrams) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = normalize(text);
+        int length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = normalized.codePointAt(i);
+            if (isCjk(codePoint)) {
+                int end = i;
+                while (end < length && isCjk(normalized.codePointAt(end))) {
+                    end += Character.charCount(normalized.codePointAt(end));
+                }
+                addCjkTokens(tokens, normalized.substring(i, end), withUnigrams);
+                i = end;
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                int end = i;
+                while (end < length && isWordChar(normalized.codePointAt(end))) {
+                    end += Character.charCount(normalized.codePointAt(end));
+                }
+                tokens.add(normalized.substring(i, end));
+                i = end;
+            } else {
+                i += Character.charCount(codePoint);
+            }
+        }
+        return tokens;
+    }
+
+    private static void addCjkTokens(Set<String> tokens, String run, boolean withUnigrams) {
+        int[] codePoints = run.codePoints().toArray();
+        if (codePoints.length == 1 || withUnigrams) {
+            for (int codePoint : codePoints) {
+                tokens.add(new String(Character.toChars(codePoint)));
+            }
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            tokens.add(new String(codePoints, i, 2));
+        }
+    }
+
+    private static boolean isWordChar(int codePoint) {
+        return Character.isLetterOrDigit(codePoint) && !isCjk(codePoint);
+    }
+
+    static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,148 @@
+package com.manga.service;
+
+import com.manga.config.CacheLayerProperties;
+import com.manga.repository.MangaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 缓存预热
+ *
+ * 作为 ApplicationRunner 在启动阶段同步执行：Spring Boot 在所有 Runner 完成后才发布
+ * ApplicationReadyEvent，readiness 探针（/actuator/health/readiness）此前不会返回 UP，
+ * 负载均衡不会把流量切到冷实例上。
+ *
+ * 目标来自 cache.warmup.targets，直接调用 {@link MangaQueryService} 的缓存方法，
+ * 以 cache.warmup.parallelism 为上限并发加载；单个目标失败只记录日志，不影响启动。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheWarmupService implements ApplicationRunner {
+
+    private final CacheLayerProperties cacheLayerProperties;
+    private final MangaQueryService mangaQueryService;
+    private final MangaService mangaService;
+    private final MangaRepository mangaRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        CacheLayerProperties.Warmup warmup = cacheLayerProperties.getWarmup();
+        if (!warmup.isEnabled() || warmup.getTargets().isEmpty()) {
+            return;
+        }
+        warmUp(warmup);
+    }
+
+    /**
+     * 执行一次预热
+     *
+     * @return 成功加载的条目数
+     */
+    public int warmUp(CacheLayerProperties.Warmup warmup) {
+        long start = System.nanoTime();
+        List<Runnable> loads = new ArrayList<>();
+        for (CacheLayerProperties.Target target : warmup.getTargets()) {
+            try {
+                loads.addAll(expand(target));
+            } catch (Exception e) {
+                log.warn("Skipping cache warm-up target {}: {}", target.getEndpoint(), e.getMessage());
+            }
+        }
+
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, warmup.getParallelism()));
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>(loads.size());
+            for (Runnable load : loads) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        load.run();
+                        loaded.incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        log.warn("Cache warm-up load failed: {}", e.getMessage());
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(warmup.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Cache warm-up did not finish within {}, continuing startup", warmup.getTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Cache warm-up aborted: {}", e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Cache warm-up loaded {} of {} entries ({} failed) in {} ms",
+                loaded.get(), loads.size(), failed.get(), elapsedMillis);
+        return loaded.get();
+    }
+
+    /**
+     * 把一个目标展开为具体的加载动作（country/* 和 tendency/* 展开为每个取值一个）
+     */
+    private List<Runnable> expand(CacheLayerProperties.Target target) {
+        String endpoint = target.getEndpoint().replaceAll("^/+|/+$", "");
+        Pageable pageable = PageRequest.of(target.getPage(), target.getSize());
+
+        int slash = endpoint.indexOf('/');
+        String path = slash < 0 ? endpoint : endpoint.substring(0, slash);
+        String value = slash < 0 ? null : endpoint.substring(slash + 1);
+
+        List<Runnable> loads = new ArrayList<>();
+        switch (path) {
+            case "", "all" -> loads.add(() -> mangaQueryService.getAllMangaCached(pageable));
+            case "latest" -> loads.add(() -> mangaQueryService.getLatestMangaCached(pageable));
+            case "popular" -> loads.add(() -> mangaQueryService.getPopularMangaCached(pageable));
+            case "choiceness" -> loads.add(() -> mangaQueryService.getChoicenessMangaCached(pageable));
+            case "recommended" -> loads.add(() -> mangaQueryService.getRecommendedMangaCached(pageable));
+            case "new" -> loads.add(() -> mangaQueryService.getNewMangaCached(pageable));
+            case "tags" -> loads.add(mangaService::getAllTags);
+            case "country" -> {
+                for (String country : valuesOf(value, mangaRepository::findAllCountries)) {
+                    loads.add(() -> mangaQueryService.getMangaByCountryCached(country, pageable));
+                }
+            }
+            case "tendency" -> {
+                for (String tendency : valuesOf(value, mangaRepository::findAllTendencies)) {
+                    loads.add(() -> mangaQueryService.getMangaByTendencyCached(tendency, pageable));
+                }
+            }
+            case "tag" -> {
+                for (String tag : valuesOf(value, mangaRepository::findAllTags)) {
+                    loads.add(() -> mangaQueryService.getMangaByTagCached(tag, pageable));
+                }
+            }
+            default -> throw new IllegalArgumentException("Unsupported warm-up endpoint");
+        }
+        return loads;
+    }
+
+    private static List<String> valuesOf(String value, Supplier<List<String>> all) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing path value");
+        }
+        return "*".equals(value) ? all.get() : List.of(value);
+    }
+}
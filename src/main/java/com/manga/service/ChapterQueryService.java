@@ -0,0 +1,54 @@
+package com.manga.service;
+
+import com.manga.cache.CacheDependencies;
+import com.manga.cache.CacheTags;
+import com.manga.dto.ChapterResponse;
+import com.manga.entity.Chapter;
+import com.manga.repository.ChapterRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 章节缓存查询层
+ *
+ * 与 {@link MangaQueryService} 相同：@Cacheable 方法必须由其他 Bean 调用才会生效，
+ * 缓存中只保存相对路径，CDN URL 由 {@link ChapterService} 在读取后拼接。
+ * 所有章节条目都依赖 chapters:{mangaId} 标签，章节增删时按漫画精确失效。
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ChapterQueryService {
+
+    private final ChapterRepository chapterRepository;
+
+    @Cacheable(value = "chapterList", sync = true, key = "#mangaId")
+    public List<ChapterResponse> getChaptersByMangaIdCached(Long mangaId) {
+        CacheDependencies.dependsOn(CacheTags.chapters(mangaId));
+        return chapterRepository.findByMangaIdOrderByChapterNumberAsc(mangaId)
+                .stream()
+                .map(ChapterResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Cacheable(value = "chapterList", sync = true, key = "'chapter_' + #id")
+    public ChapterResponse getChapterByIdCached(Long id) {
+        Chapter chapter = chapterRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Chapter not found"));
+        CacheDependencies.dependsOn(CacheTags.chapters(chapter.getManga().getId()));
+        return ChapterResponse.fromEntity(chapter);
+    }
+
+    @Cacheable(value = "chapterList", sync = true, key = "'manga_' + #mangaId + '_ch_' + #chapterNumber")
+    public ChapterResponse getChapterByMangaIdAndNumberCached(Long mangaId, Integer chapterNumber) {
+        Chapter chapter = chapterRepository.findByMangaIdAndChapterNumber(mangaId, chapterNumber)
+                .orElseThrow(() -> new RuntimeException("Chapter not found"));
+        CacheDependencies.dependsOn(CacheTags.chapters(mangaId));
+        return ChapterResponse.fromEntity(chapter);
+    }
+}
@@ -1,5 +1,8 @@
 package com.manga.service;
 
+import com.manga.cache.CacheInvalidator;
+import com.manga.cache.CacheTags;
+import com.manga.counter.CounterBuffer;
 import com.manga.dto.ChapterCreateRequest;
 import com.manga.dto.ChapterResponse;
 import com.manga.entity.Chapter;
@@ -7,8 +10,6 @@ import com.manga.entity.Manga;
 import com.manga.repository.ChapterRepository;
 import com.manga.repository.MangaRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,54 +22,32 @@ public class ChapterService {
 
     private final ChapterRepository chapterRepository;
     private final MangaRepository mangaRepository;
+    private final ChapterQueryService chapterQueryService;
     private final CdnService cdnService;
+    private final CacheInvalidator cacheInvalidator;
+    private final CounterBuffer counterBuffer;
 
     // Public methods that apply CDN transformation AFTER retrieving from cache
     
     public List<ChapterResponse> getChaptersByMangaId(Long mangaId) {
-        return getChaptersByMangaIdCached(mangaId).stream()
+        return chapterQueryService.getChaptersByMangaIdCached(mangaId).stream()
                 .map(this::applyCdnTransformation)
                 .collect(Collectors.toList());
     }
 
     public ChapterResponse getChapterById(Long id) {
-        return applyCdnTransformation(getChapterByIdCached(id));
+        return applyCdnTransformation(chapterQueryService.getChapterByIdCached(id));
     }
 
     public ChapterResponse getChapterByMangaIdAndNumber(Long mangaId, Integer chapterNumber) {
-        return applyCdnTransformation(getChapterByMangaIdAndNumberCached(mangaId, chapterNumber));
+        return applyCdnTransformation(chapterQueryService.getChapterByMangaIdAndNumberCached(mangaId, chapterNumber));
     }
 
-    // Private cacheable methods that store RELATIVE paths only
-    
-    @Cacheable(value = "chapterList", key = "#mangaId")
-    private List<ChapterResponse> getChaptersByMangaIdCached(Long mangaId) {
-        return chapterRepository.findByMangaIdOrderByChapterNumberAsc(mangaId)
-                .stream()
-                .map(ChapterResponse::fromEntity)
-                .collect(Collectors.toList());
-    }
-
-    @Cacheable(value = "chapterList", key = "'chapter_' + #id")
-    private ChapterResponse getChapterByIdCached(Long id) {
-        Chapter chapter = chapterRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Chapter not found"));
-        return ChapterResponse.fromEntity(chapter);
-    }
-
-    @Cacheable(value = "chapterList", key = "'manga_' + #mangaId + '_ch_' + #chapterNumber")
-    private ChapterResponse getChapterByMangaIdAndNumberCached(Long mangaId, Integer chapterNumber) {
-        Chapter chapter = chapterRepository.findByMangaIdAndChapterNumber(mangaId, chapterNumber)
-                .orElseThrow(() -> new RuntimeException("Chapter not found"));
-        return ChapterResponse.fromEntity(chapter);
-    }
-
-    @Transactional
+    /**
+     * 记录一次浏览（写入内存缓冲，定时批量写回数据库）
+     */
     public void incrementViewCount(Long id) {
-        Chapter chapter = chapterRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Chapter not found"));
-        chapter.setViewCount(chapter.getViewCount() + 1);
-        chapterRepository.save(chapter);
+        counterBuffer.recordChapterView(id);
     }
 
     /**
@@ -78,7 +57,6 @@ public class ChapterService {
      * @return 创建的章节
      */
     @Transactional
-    @CacheEvict(value = {"chapterList", "mangaDetail"}, allEntries = true)
     public ChapterResponse createChapter(ChapterCreateRequest request) {
         // 验证漫画是否存在
         Manga manga = mangaRepository.findById(request.getMangaId())
@@ -106,6 +84,13 @@ public class ChapterService {
         // 保存章节
         Chapter savedChapter = chapterRepository.save(chapter);
 
+        // 重算漫画的冗余章节统计
+        chapterRepository.flush();
+        mangaRepository.refreshChapterStats(List.of(manga.getId()));
+
+        // 章节列表、漫画详情、包含该漫画的列表页以及"最近更新"列表
+        invalidateChapterCaches(manga.getId());
+
         // 返回时构建完整 CDN URL（非缓存方法，直接应用转换）
         return applyCdnTransformation(ChapterResponse.fromEntity(savedChapter));
     }
@@ -116,21 +101,39 @@ public class ChapterService {
      * @param id 章节ID
      */
     @Transactional
-    @CacheEvict(value = {"chapterList", "mangaDetail"}, allEntries = true)
     public void deleteChapter(Long id) {
         Chapter chapter = chapterRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Chapter not found with id: " + id));
+        Long mangaId = chapter.getManga().getId();
         chapterRepository.delete(chapter);
+        chapterRepository.flush();
+        mangaRepository.refreshChapterStats(List.of(mangaId));
+        invalidateChapterCaches(mangaId);
+    }
+
+    /**
+     * 章节增删会改变漫画的 chapterCount / latestChapterNumber / latestChapterAt：
+     * - chapters:{id}：章节列表；
+     * - manga:{id}：漫画详情，以及所有包含该漫画的卡片列表页（最新、热门、地区、受众、标签及其游标分页，
+     *   {@link MangaQueryService} 加载每页时为页内漫画登记了该标签）；
+     * - list:updated："最近更新"按最新章节时间排序，名次变化需要整体失效。
+     */
+    private void invalidateChapterCaches(Long mangaId) {
+        cacheInvalidator.invalidateTags(List.of(CacheTags.chapters(mangaId), CacheTags.manga(mangaId),
+                CacheTags.LIST_UPDATED));
     }
 
     /**
      * Apply CDN transformation to ChapterResponse after cache retrieval
      * This ensures cached data contains relative paths and CDN URLs are built dynamically
      * 
-     * @param response ChapterResponse with relative paths
+     * The cached instance may be shared by the local (L1) cache, so it is copied first
+     * 
+     * @param cached ChapterResponse with relative paths
      * @return ChapterResponse with full CDN URLs
      */
-    private ChapterResponse applyCdnTransformation(ChapterResponse response) {
+    private ChapterResponse applyCdnTransformation(ChapterResponse cached) {
+        ChapterResponse response = cached.copy();
         response.setPageUrls(cdnService.buildUrls(response.getPageUrls()));
         return response;
     }
@@ -0,0 +1,70 @@
+package com.manga.service;
+
+import com.manga.cache.CacheInvalidator;
+import com.manga.cache.CacheTags;
+import com.manga.config.ChapterStatsProperties;
+import com.manga.repository.MangaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 章节统计校正任务
+ *
+ * 找出冗余章节统计与 chapters 表不一致的漫画，按 batch-size 分批重算，
+ * 并失效这些漫画的详情 / 列表缓存和"最近更新"列表。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChapterStatsRepairJob implements ApplicationRunner {
+
+    private final MangaRepository mangaRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final ChapterStatsProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.isRepairOnStartup()) {
+            scheduledRepair();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{@chapterStatsProperties.repairInterval.toMillis()}",
+            initialDelayString = "#{@chapterStatsProperties.repairInterval.toMillis()}")
+    public void scheduledRepair() {
+        try {
+            repair();
+        } catch (Exception e) {
+            log.warn("Chapter stats repair failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return 修复的漫画数
+     */
+    public int repair() {
+        List<Long> stale = mangaRepository.findIdsWithStaleChapterStats();
+        if (stale.isEmpty()) {
+            return 0;
+        }
+        int batchSize = Math.max(1, properties.getBatchSize());
+        for (int from = 0; from < stale.size(); from += batchSize) {
+            List<Long> batch = stale.subList(from, Math.min(stale.size(), from + batchSize));
+            mangaRepository.refreshChapterStats(batch);
+
+            List<String> tags = new ArrayList<>(batch.size() + 1);
+            batch.forEach(id -> tags.add(CacheTags.manga(id)));
+            tags.add(CacheTags.LIST_UPDATED);
+            cacheInvalidator.invalidateTags(tags);
+        }
+        log.info("Repaired chapter stats of {} manga", stale.size());
+        return stale.size();
+    }
+}
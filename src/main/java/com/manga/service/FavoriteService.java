@@ -1,64 +1,88 @@
 package com.manga.service;
 
+import com.manga.counter.CounterOverlay;
+import com.manga.dto.MangaCard;
 import com.manga.dto.MangaResponse;
-import com.manga.entity.Favorite;
-import com.manga.entity.Manga;
-import com.manga.entity.User;
 import com.manga.repository.FavoriteRepository;
-import com.manga.repository.MangaRepository;
-import com.manga.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class FavoriteService {
 
+    /**
+     * MySQL 唯一键冲突（ER_DUP_ENTRY）
+     */
+    private static final int ER_DUP_ENTRY = 1062;
+
     private final FavoriteRepository favoriteRepository;
-    private final UserRepository userRepository;
-    private final MangaRepository mangaRepository;
     private final MangaService mangaService;
+    private final MangaQueryService mangaQueryService;
     private final CdnService cdnService;
+    private final CounterOverlay counterOverlay;
 
+    /**
+     * 收藏：收藏数 +1 与收藏记录在同一事务中提交，由唯一约束完成查重，
+     * 并发重复点击时只有一次插入成功，收藏数与收藏记录始终一致。
+     *
+     * 先更新漫画行再写收藏记录（取消收藏同样如此）：插入时的外键检查会给漫画行加共享锁，
+     * 若先插入后更新，并发收藏同一部漫画的两个事务会在升级为排他锁时互相等待（死锁）。
+     * 插入失败时抛出异常，事务回滚，收藏数一并撤销。
+     */
     @Transactional
     public void addFavorite(Long userId, Long mangaId) {
-        if (favoriteRepository.existsByUserIdAndMangaId(userId, mangaId)) {
-            throw new RuntimeException("Manga already in favorites");
+        if (!mangaService.incrementFavoriteCount(mangaId)) {
+            throw new RuntimeException("Manga not found");
         }
+        try {
+            favoriteRepository.insertFavorite(userId, mangaId);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateKey(e)) {
+                throw new RuntimeException("Manga already in favorites");
+            }
+            throw e;
+        }
+    }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Manga manga = mangaRepository.findById(mangaId)
-                .orElseThrow(() -> new RuntimeException("Manga not found"));
-
-        Favorite favorite = new Favorite();
-        favorite.setUser(user);
-        favorite.setManga(manga);
-        favoriteRepository.save(favorite);
-
-        mangaService.incrementFavoriteCount(mangaId);
+    private static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        return NestedExceptionUtils.getMostSpecificCause(e) instanceof SQLException cause
+                && cause.getErrorCode() == ER_DUP_ENTRY;
     }
 
+    /**
+     * 取消收藏：收藏数 -1 与 DELETE 在同一事务中提交，没有删除任何收藏记录时回滚
+     */
     @Transactional
     public void removeFavorite(Long userId, Long mangaId) {
-        if (!favoriteRepository.existsByUserIdAndMangaId(userId, mangaId)) {
+        if (!mangaService.decrementFavoriteCount(mangaId)
+                || favoriteRepository.deleteByIds(userId, mangaId) == 0) {
             throw new RuntimeException("Manga not in favorites");
         }
-
-        favoriteRepository.deleteByUserIdAndMangaId(userId, mangaId);
-        mangaService.decrementFavoriteCount(mangaId);
     }
 
     public boolean isFavorite(Long userId, Long mangaId) {
         return favoriteRepository.existsByUserIdAndMangaId(userId, mangaId);
     }
 
+    /**
+     * 收藏列表：卡片投影 + 一次批量标签查询，不加载收藏和漫画实体
+     */
     public Page<MangaResponse> getUserFavorites(Long userId, Pageable pageable) {
-        Page<Favorite> favorites = favoriteRepository.findByUserId(userId, pageable);
-        return favorites.map(favorite -> MangaResponse.fromEntity(favorite.getManga(), cdnService));
+        Page<MangaCard> cards = favoriteRepository.findMangaCardsByUserId(userId, pageable);
+        List<MangaResponse> content = mangaQueryService.toResponses(cards.getContent());
+        content.forEach(manga -> manga.setCoverImageUrl(cdnService.buildUrl(manga.getCoverImageUrl())));
+        counterOverlay.apply(content);
+        return new PageImpl<>(content, pageable, cards.getTotalElements());
     }
 }
 
@@ -0,0 +1,51 @@
+package com.manga.service;
+
+import com.manga.dto.MangaResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标分页的位置：上一页最后一部漫画的排序键（sortOrder, createdAt, id）
+ *
+ * 对客户端不透明，编码为 URL 安全的 Base64；按 createdAt 排序的列表忽略 sortOrder。
+ * 第一页使用 {@link #START}，它排在任何漫画之前，查询条件与后续页相同。
+ */
+public record MangaCursor(int sortOrder, LocalDateTime createdAt, long id) {
+
+    public static final MangaCursor START = new MangaCursor(Integer.MIN_VALUE,
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final String VERSION = "1";
+
+    public static MangaCursor of(MangaResponse manga) {
+        return new MangaCursor(manga.getSortOrder() != null ? manga.getSortOrder() : 0, manga.getCreatedAt(), manga.getId());
+    }
+
+    /**
+     * 解析客户端传回的游标；为空时返回第一页位置
+     */
+    public static MangaCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException();
+            }
+            return new MangaCursor(Integer.parseInt(parts[1]), LocalDateTime.parse(parts[2]), Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    /**
+     * 编码结果是确定的，同一位置总是得到同一个游标（用作缓存 key）
+     */
+    public String encode() {
+        String value = VERSION + "|" + sortOrder + "|" + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
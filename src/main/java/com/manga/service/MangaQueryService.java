@@ -0,0 +1,223 @@
+package com.manga.service;
+
+import com.manga.cache.CacheDependencies;
+import com.manga.cache.CacheTags;
+import com.manga.dto.MangaCard;
+import com.manga.dto.MangaResponse;
+import com.manga.entity.Manga;
+import com.manga.repository.MangaRepository;
+import com.manga.search.SearchBackend;
+import com.manga.search.SearchHits;
+import com.manga.search.SearchSort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 漫画缓存查询层
+ *
+ * 所有 @Cacheable 方法都必须是 public 且由其他 Bean 调用，
+ * 否则 Spring 代理无法拦截（自调用不会经过缓存）。
+ * 缓存中只保存相对路径，CDN URL 由 {@link MangaService} 在读取后拼接。
+ * 只读事务保证在请求线程之外（如后台任务）也能初始化懒加载集合。
+ * 列表页使用卡片投影（{@link MangaCard}）加一次批量标签查询，每页固定 3 条 SQL（游标分页 2 条）；
+ * 只保存 id 的结果（搜索、排行、相关作品）按 id 批量加载卡片，每页固定 2 条 SQL；
+ * 只有漫画详情加载完整实体。
+ *
+ * 使用 sync = true，让缓存通过 Cache#get(key, loader) 加载，
+ * 加载器中通过 {@link CacheDependencies} 声明条目依赖的列表维度和漫画 ID，
+ * 写操作据此精确失效（见 {@link com.manga.cache.CacheInvalidator}）。
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MangaQueryService {
+
+    private final MangaRepository mangaRepository;
+
+    @Cacheable(value = "mangaList", sync = true, key = "'all_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    public Page<MangaResponse> getAllMangaCached(Pageable pageable) {
+        return track(toResponses(mangaRepository.findAllPutaway(pageable)), CacheTags.LIST_ALL);
+    }
+
+    @Cacheable(value = "mangaList", sync = true, key = "'latest_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    public Page<MangaResponse> getLatestMangaCached(Pageable pageable) {
+        return track(toResponses(mangaRepository.findLatest(pageable)), CacheTags.LIST_LATEST);
+    }
+
+    @Cacheable(value = "featured", sync = true, key = "'popular_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    public Page<MangaResponse> getPopularMangaCached(Pageable pageable) {
+        return track(toResponses(mangaRepository.findTopByViewCount(pageable)), CacheTags.LIST_POPULAR);
+    }
+
+    @Cacheable(value = "featured", sync = true, key = "'choiceness_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    public Page<MangaResponse> getChoicenessMangaCached(Pageable pageable) {
+        return track(toResponses(mangaRepository.findChoiceness(pageable)), CacheTags.LIST_CHOICENESS);
+    }
+
+    @Cacheable(value = "recommended", sync = true, key = "'recommended_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    public Page<MangaResponse> getRecommendedMangaCached(Pageable pageable) {
+        return track(toResponses(mangaRepository.findRecommended(pageable)), CacheTags.LIST_RECOMMENDED);
+    }
+
+    @Cacheable(value = "mangaList", sync = true, key = "'new_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    public Page<MangaResponse> getNewMangaCached(Pageable pageable) {
+        return track(toResponses(mangaRepository.findNew(pageable)), CacheTags.LIST_NEW);
+    }
+
+    @Cacheable(value = "mangaList", sync = true, key = "'updated_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    public Page<MangaResponse> getRecentlyUpdatedMangaCached(Pageable pageable) {
+        return track(toResponses(mangaRepository.findRecentlyUpdated(pageable)), CacheTags.LIST_UPDATED);
+    }
+
+    @Cacheable(value = "mangaList", sync = true, key = "'country_' + #country + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    public Page<MangaResponse> getMangaByCountryCached(String country, Pageable pageable) {
+        return track(toResponses(mangaRepository.findByCountry(country, pageable)), CacheTags.country(country));
+    }
+
+    @Cacheable(value = "mangaList", sync = true, key = "'tendency_' + #tendency + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    public Page<MangaResponse> getMangaByTendencyCached(String tendency, Pageable pageable) {
+        return track(toResponses(mangaRepository.findByTendency(tendency, pageable)), CacheTags.tendency(tendency));
+    }
+
+    @Cacheable(value = "mangaList", sync = true, key = "'tag_' + #tag + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    public Page<MangaResponse> getMangaByTagCached(String tag, Pageable pageable) {
+        return track(toResponses(mangaRepository.findByTag(tag, pageable)), CacheTags.tag(tag));
+    }
+
+    // ==================== 游标分页：按游标缓存，多取一条用于判断是否有下一页 ====================
+
+    @Cacheable(value = "mangaList", sync = true, key = "'all_cursor_' + #cursor.encode() + '_' + #size")
+    public List<MangaResponse> getAllMangaAfterCached(MangaCursor cursor, int size) {
+        return track(mangaRepository.findAllPutawayAfter(cursor.sortOrder(), cursor.createdAt(), cursor.id(),
+                PageRequest.ofSize(size + 1)), CacheTags.LIST_ALL);
+    }
+
+    @Cacheable(value = "mangaList", sync = true, key = "'latest_cursor_' + #cursor.encode() + '_' + #size")
+    public List<MangaResponse> getLatestMangaAfterCached(MangaCursor cursor, int size) {
+        return track(mangaRepository.findLatestAfter(cursor.createdAt(), cursor.id(),
+                PageRequest.ofSize(size + 1)), CacheTags.LIST_LATEST);
+    }
+
+    @Cacheable(value = "mangaList", sync = true, key = "'new_cursor_' + #cursor.encode() + '_' + #size")
+    public List<MangaResponse> getNewMangaAfterCached(MangaCursor cursor, int size) {
+        return track(mangaRepository.findNewAfter(cursor.createdAt(), cursor.id(),
+                PageRequest.ofSize(size + 1)), CacheTags.LIST_NEW);
+    }
+
+    @Cacheable(value = "mangaList", sync = true, key = "'country_cursor_' + #country + '_' + #cursor.encode() + '_' + #size")
+    public List<MangaResponse> getMangaByCountryAfterCached(String country, MangaCursor cursor, int size) {
+        return track(mangaRepository.findByCountryAfter(country, cursor.sortOrder(), cursor.createdAt(), cursor.id(),
+                PageRequest.ofSize(size + 1)), CacheTags.country(country));
+    }
+
+    @Cacheable(value = "mangaList", sync = true, key = "'tendency_cursor_' + #tendency + '_' + #cursor.encode() + '_' + #size")
+    public List<MangaResponse> getMangaByTendencyAfterCached(String tendency, MangaCursor cursor, int size) {
+        return track(mangaRepository.findByTendencyAfter(tendency, cursor.sortOrder(), cursor.createdAt(), cursor.id(),
+                PageRequest.ofSize(size + 1)), CacheTags.tendency(tendency));
+    }
+
+    @Cacheable(value = "mangaList", sync = true, key = "'tag_cursor_' + #tag + '_' + #cursor.encode() + '_' + #size")
+    public List<MangaResponse> getMangaByTagAfterCached(String tag, MangaCursor cursor, int size) {
+        return track(mangaRepository.findByTagAfter(tag, cursor.sortOrder(), cursor.createdAt(), cursor.id(),
+                PageRequest.ofSize(size + 1)), CacheTags.tag(tag));
+    }
+
+    @Cacheable(value = "mangaDetail", sync = true, key = "#id")
+    public MangaResponse getMangaByIdCached(Long id) {
+        Manga manga = mangaRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Manga not found"));
+        CacheDependencies.dependsOn(CacheTags.manga(id));
+        return MangaResponse.fromEntity(manga);
+    }
+
+    /**
+     * 数据库搜索后端（LIKE / FULLTEXT）的一页结果，只缓存 id，漫画数据由调用方通过 {@link #getPutawayMangaByIds} 加载
+     */
+    @Cacheable(value = "mangaSearch", sync = true, key = "#backend.type().name() + '_' + #keyword + '_' + (#tag ?: 'all') + '_' + (#sort ?: 'default') + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    public Page<Long> searchIdsCached(SearchBackend backend, String keyword, String tag, String sort, Pageable pageable) {
+        SearchHits hits = backend.search(keyword, tag, SearchSort.parse(sort), pageable.getOffset(), pageable.getPageSize());
+        CacheDependencies.dependsOnMangaIds(hits.mangaIds());
+        return new PageImpl<>(hits.mangaIds(), pageable, hits.total());
+    }
+
+    /**
+     * 按给定 id 的顺序加载上架漫画（索引、排行、推荐只保存 id）
+     *
+     * 一次 IN 查询取卡片 + 一次批量标签查询，与 id 个数无关；
+     * 已删除或已下架的 id 不会被查出，直接跳过，其他错误照常抛出
+     */
+    public List<MangaResponse> getPutawayMangaByIds(List<Long> mangaIds) {
+        if (mangaIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, MangaResponse> byId = new HashMap<>();
+        for (MangaResponse manga : toResponses(mangaRepository.findPutawayCardsByIds(mangaIds))) {
+            byId.put(manga.getId(), manga);
+        }
+        List<MangaResponse> ordered = new ArrayList<>(byId.size());
+        for (Long mangaId : mangaIds) {
+            MangaResponse manga = byId.remove(mangaId);
+            if (manga != null) {
+                ordered.add(manga);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * 声明分页结果依赖的列表维度以及页面中出现的漫画（manga:{id}）
+     *
+     * 卡片中的计数、章节统计等字段变化时（如新增章节），写操作只需失效 manga:{id}，
+     * 包含该漫画的每一页（含游标分页）都会随之失效；只有名次变化才需要失效整个维度。
+     */
+    private Page<MangaResponse> track(Page<MangaResponse> page, String... dimensions) {
+        CacheDependencies.dependsOn(dimensions);
+        CacheDependencies.dependsOnManga(page.getContent());
+        return page;
+    }
+
+    /**
+     * 同上，游标分页
+     */
+    private List<MangaResponse> track(List<MangaCard> cards, String... dimensions) {
+        List<MangaResponse> content = toResponses(cards);
+        CacheDependencies.dependsOn(dimensions);
+        CacheDependencies.dependsOnManga(content);
+        return content;
+    }
+
+    private Page<MangaResponse> toResponses(Page<MangaCard> page) {
+        return new PageImpl<>(toResponses(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * 列表卡片转换为响应：整页的标签用一次 IN 查询取回，不逐条初始化懒加载集合
+     */
+    public List<MangaResponse> toResponses(List<MangaCard> cards) {
+        if (cards.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Set<String>> tags = new HashMap<>();
+        List<Long> ids = cards.stream().map(MangaCard::id).collect(Collectors.toList());
+        for (Object[] pair : mangaRepository.findTagPairsByIds(ids)) {
+            tags.computeIfAbsent((Long) pair[0], id -> new HashSet<>()).add((String) pair[1]);
+        }
+        return cards.stream()
+                .map(card -> card.toResponse(tags.getOrDefault(card.id(), new HashSet<>())))
+                .collect(Collectors.toList());
+    }
+}
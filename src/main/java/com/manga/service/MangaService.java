@@ -1,215 +1,359 @@
 package com.manga.service;
 
+import com.manga.cache.CacheInvalidator;
+import com.manga.cache.CacheTags;
+import com.manga.counter.CounterBuffer;
+import com.manga.counter.CounterOverlay;
+import com.manga.counter.LiveFavoriteCounts;
+import com.manga.dto.CursorPageResponse;
+import com.manga.dto.FacetedPageResponse;
 import com.manga.dto.MangaImportRequest;
 import com.manga.dto.MangaResponse;
+import com.manga.dto.SuggestionResponse;
+import com.manga.dto.TagsResponse;
 import com.manga.entity.Chapter;
 import com.manga.entity.Manga;
+import com.manga.recommend.CoOccurrenceRecommender;
+import com.manga.related.RelatedWorksEngine;
+import com.manga.repository.FavoriteRepository;
 import com.manga.repository.MangaRepository;
+import com.manga.search.BrowseFilter;
+import com.manga.search.BrowseSort;
+import com.manga.search.MangaFilterIndex;
+import com.manga.search.MangaSearchIndex;
+import com.manga.search.MangaSuggester;
+import com.manga.search.SearchBackend;
+import com.manga.search.SearchBackendType;
+import com.manga.search.SearchBackends;
+import com.manga.search.SearchHits;
+import com.manga.search.SearchSort;
+import com.manga.trending.TrendingPage;
+import com.manga.trending.TrendingTracker;
+import com.manga.trending.TrendingWindow;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MangaService {
 
+    private static final String ALL_TAGS_KEY = "allTags";
+
+    /**
+     * 游标分页每页最多条数（每个 size 单独缓存）
+     */
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    /**
+     * 相关作品、个性化推荐每次最多返回条数
+     */
+    private static final int MAX_RELATED_LIMIT = 50;
+
     private final MangaRepository mangaRepository;
+    private final MangaQueryService mangaQueryService;
     private final CdnService cdnService;
+    private final CacheManager cacheManager;
+    private final CacheInvalidator cacheInvalidator;
+    private final CounterBuffer counterBuffer;
+    private final CounterOverlay counterOverlay;
+    private final LiveFavoriteCounts liveFavoriteCounts;
+    private final TrendingTracker trendingTracker;
+    private final MangaSearchIndex mangaSearchIndex;
+    private final SearchBackends searchBackends;
+    private final MangaSuggester mangaSuggester;
+    private final MangaFilterIndex mangaFilterIndex;
+    private final RelatedWorksEngine relatedWorksEngine;
+    private final CoOccurrenceRecommender coOccurrenceRecommender;
+    private final FavoriteRepository favoriteRepository;
 
     // Public methods that apply CDN transformation AFTER retrieving from cache
     
     public Page<MangaResponse> getAllManga(Pageable pageable) {
-        return getAllMangaCached(pageable).map(this::applyCdnTransformation);
+        return withLiveCounts(mangaQueryService.getAllMangaCached(pageable).map(this::applyCdnTransformation));
     }
 
     public Page<MangaResponse> getLatestManga(Pageable pageable) {
-        return getLatestMangaCached(pageable).map(this::applyCdnTransformation);
+        return withLiveCounts(mangaQueryService.getLatestMangaCached(pageable).map(this::applyCdnTransformation));
     }
 
     public Page<MangaResponse> getPopularManga(Pageable pageable) {
-        return getPopularMangaCached(pageable).map(this::applyCdnTransformation);
+        return withLiveCounts(mangaQueryService.getPopularMangaCached(pageable).map(this::applyCdnTransformation));
+    }
+
+    /**
+     * 时间窗口内的热门排行；排行尚未生成（刚启动、无近期事件）时回退到总榜
+     */
+    public Page<MangaResponse> getTrendingManga(TrendingWindow window, Pageable pageable) {
+        TrendingPage ranking = trendingTracker.page(window, pageable.getOffset(), pageable.getPageSize());
+        if (ranking.total() == 0) {
+            return getPopularManga(pageable);
+        }
+        return loadPage(ranking.mangaIds(), pageable, ranking.total());
+    }
+
+    /**
+     * 按 id 顺序批量加载一页漫画卡片（索引、排行只存 id）；已删除或已下架的漫画跳过
+     */
+    private Page<MangaResponse> loadPage(List<Long> mangaIds, Pageable pageable, long total) {
+        List<MangaResponse> content = mangaQueryService.getPutawayMangaByIds(mangaIds).stream()
+                .map(this::applyCdnTransformation)
+                .collect(Collectors.toList());
+        counterOverlay.apply(content);
+        return new PageImpl<>(content, pageable, total);
     }
 
     public Page<MangaResponse> getChoicenessManga(Pageable pageable) {
-        return getChoicenessMangaCached(pageable).map(this::applyCdnTransformation);
+        return withLiveCounts(mangaQueryService.getChoicenessMangaCached(pageable).map(this::applyCdnTransformation));
     }
 
     public Page<MangaResponse> getRecommendedManga(Pageable pageable) {
-        return getRecommendedMangaCached(pageable).map(this::applyCdnTransformation);
+        return withLiveCounts(mangaQueryService.getRecommendedMangaCached(pageable).map(this::applyCdnTransformation));
     }
 
     public Page<MangaResponse> getNewManga(Pageable pageable) {
-        return getNewMangaCached(pageable).map(this::applyCdnTransformation);
+        return withLiveCounts(mangaQueryService.getNewMangaCached(pageable).map(this::applyCdnTransformation));
+    }
+
+    /**
+     * 最近更新：按最新章节发布时间倒序
+     */
+    public Page<MangaResponse> getRecentlyUpdatedManga(Pageable pageable) {
+        return withLiveCounts(mangaQueryService.getRecentlyUpdatedMangaCached(pageable).map(this::applyCdnTransformation));
     }
 
     public Page<MangaResponse> getMangaByCountry(String country, Pageable pageable) {
-        return getMangaByCountryCached(country, pageable).map(this::applyCdnTransformation);
+        return withLiveCounts(mangaQueryService.getMangaByCountryCached(country, pageable).map(this::applyCdnTransformation));
     }
 
     public Page<MangaResponse> getMangaByTendency(String tendency, Pageable pageable) {
-        return getMangaByTendencyCached(tendency, pageable).map(this::applyCdnTransformation);
+        return withLiveCounts(mangaQueryService.getMangaByTendencyCached(tendency, pageable).map(this::applyCdnTransformation));
+    }
+
+    /**
+     * 为用户推荐：合并用户最近收藏的漫画在收藏共现中的相似漫画；
+     * 没有收藏或相似漫画不足时用编辑推荐（isRecommend）补足，已收藏的漫画不会出现
+     */
+    public List<MangaResponse> getRecommendedForUser(Long userId, int limit) {
+        int size = Math.max(0, Math.min(limit, MAX_RELATED_LIMIT));
+        List<Long> favorites = favoriteRepository.findMangaIdsByUserId(userId);
+        Set<Long> ids = new LinkedHashSet<>(coOccurrenceRecommender.recommend(favorites, size));
+        if (ids.size() < size) {
+            Set<Long> favorited = new HashSet<>(favorites);
+            for (MangaResponse manga : mangaQueryService.getRecommendedMangaCached(PageRequest.of(0, MAX_RELATED_LIMIT))) {
+                if (ids.size() >= size) {
+                    break;
+                }
+                if (!favorited.contains(manga.getId())) {
+                    ids.add(manga.getId());
+                }
+            }
+        }
+        List<Long> recommended = new ArrayList<>(ids);
+        return loadPage(recommended, Pageable.unpaged(), recommended.size()).getContent();
     }
 
+    /**
+     * 相关作品：预计算的相似作品中随机抽取（每次请求结果不同），按 id 批量加载
+     */
     public List<MangaResponse> getRelatedWorks(Long mangaId, int limit) {
-        return getRelatedWorksCached(mangaId, limit).stream()
-                .map(this::applyCdnTransformation)
-                .collect(Collectors.toList());
+        List<Long> ids = relatedWorksEngine.relatedIds(mangaId, Math.min(limit, MAX_RELATED_LIMIT));
+        return loadPage(ids, Pageable.unpaged(), ids.size()).getContent();
     }
 
     public MangaResponse getMangaById(Long id) {
-        return applyCdnTransformation(getMangaByIdCached(id));
+        MangaResponse manga = applyCdnTransformation(mangaQueryService.getMangaByIdCached(id));
+        counterOverlay.apply(manga);
+        return manga;
     }
 
     public Page<MangaResponse> getMangaByTag(String tag, Pageable pageable) {
-        return getMangaByTagCached(tag, pageable).map(this::applyCdnTransformation);
-    }
-
-    @Cacheable(value = "tags", key = "'allTags'")
-    public com.manga.dto.TagsResponse getAllTags() {
-        return com.manga.dto.TagsResponse.of(mangaRepository.findAllTags());
-    }
-
-    // Private cacheable methods that store RELATIVE paths only
-    
-    @Cacheable(value = "mangaList", key = "'all_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    private Page<MangaResponse> getAllMangaCached(Pageable pageable) {
-        return mangaRepository.findAllPutaway(pageable)
-                .map(MangaResponse::fromEntity);
+        return withLiveCounts(mangaQueryService.getMangaByTagCached(tag, pageable).map(this::applyCdnTransformation));
     }
 
-    @Cacheable(value = "mangaList", key = "'latest_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    private Page<MangaResponse> getLatestMangaCached(Pageable pageable) {
-        return mangaRepository.findLatest(pageable)
-                .map(MangaResponse::fromEntity);
-    }
+    // ==================== 游标分页 ====================
 
-    @Cacheable(value = "featured", key = "'popular_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    private Page<MangaResponse> getPopularMangaCached(Pageable pageable) {
-        return mangaRepository.findTopByViewCount(pageable)
-                .map(MangaResponse::fromEntity);
+    public CursorPageResponse getAllMangaByCursor(String cursor, int size) {
+        int limit = cursorPageSize(size);
+        return cursorPage(mangaQueryService.getAllMangaAfterCached(MangaCursor.decode(cursor), limit), limit);
     }
 
-    @Cacheable(value = "featured", key = "'choiceness_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    private Page<MangaResponse> getChoicenessMangaCached(Pageable pageable) {
-        return mangaRepository.findChoiceness(pageable)
-                .map(MangaResponse::fromEntity);
+    public CursorPageResponse getLatestMangaByCursor(String cursor, int size) {
+        int limit = cursorPageSize(size);
+        return cursorPage(mangaQueryService.getLatestMangaAfterCached(MangaCursor.decode(cursor), limit), limit);
     }
 
-    @Cacheable(value = "recommended", key = "'recommended_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    private Page<MangaResponse> getRecommendedMangaCached(Pageable pageable) {
-        return mangaRepository.findRecommended(pageable)
-                .map(MangaResponse::fromEntity);
+    public CursorPageResponse getNewMangaByCursor(String cursor, int size) {
+        int limit = cursorPageSize(size);
+        return cursorPage(mangaQueryService.getNewMangaAfterCached(MangaCursor.decode(cursor), limit), limit);
     }
 
-    @Cacheable(value = "mangaList", key = "'new_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    private Page<MangaResponse> getNewMangaCached(Pageable pageable) {
-        return mangaRepository.findNew(pageable)
-                .map(MangaResponse::fromEntity);
+    public CursorPageResponse getMangaByCountryByCursor(String country, String cursor, int size) {
+        int limit = cursorPageSize(size);
+        return cursorPage(mangaQueryService.getMangaByCountryAfterCached(country, MangaCursor.decode(cursor), limit), limit);
     }
 
-    @Cacheable(value = "mangaList", key = "'country_' + #country + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    private Page<MangaResponse> getMangaByCountryCached(String country, Pageable pageable) {
-        return mangaRepository.findByCountry(country, pageable)
-                .map(MangaResponse::fromEntity);
+    public CursorPageResponse getMangaByTendencyByCursor(String tendency, String cursor, int size) {
+        int limit = cursorPageSize(size);
+        return cursorPage(mangaQueryService.getMangaByTendencyAfterCached(tendency, MangaCursor.decode(cursor), limit), limit);
     }
 
-    @Cacheable(value = "mangaList", key = "'tendency_' + #tendency + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    private Page<MangaResponse> getMangaByTendencyCached(String tendency, Pageable pageable) {
-        return mangaRepository.findByTendency(tendency, pageable)
-                .map(MangaResponse::fromEntity);
+    public CursorPageResponse getMangaByTagByCursor(String tag, String cursor, int size) {
+        int limit = cursorPageSize(size);
+        return cursorPage(mangaQueryService.getMangaByTagAfterCached(tag, MangaCursor.decode(cursor), limit), limit);
     }
 
-    @Cacheable(value = "mangaList", key = "'tag_' + #tag + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    private Page<MangaResponse> getMangaByTagCached(String tag, Pageable pageable) {
-        return mangaRepository.findByTag(tag, pageable)
-                .map(MangaResponse::fromEntity);
+    private static int cursorPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
     }
 
-    @Cacheable(value = "recommended", key = "'related_' + #mangaId + '_' + #limit")
-    private List<MangaResponse> getRelatedWorksCached(Long mangaId, int limit) {
-        List<Manga> randomManga = mangaRepository.findRandomManga(mangaId, limit);
-        return randomManga.stream()
-                .map(MangaResponse::fromEntity)
+    /**
+     * 缓存中的一页比 size 多一条：多出的一条只用于判断是否有下一页，下一页游标取本页最后一条的排序键
+     */
+    private CursorPageResponse cursorPage(List<MangaResponse> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<MangaResponse> content = rows.stream()
+                .limit(size)
+                .map(this::applyCdnTransformation)
                 .collect(Collectors.toList());
+        counterOverlay.apply(content);
+        String nextCursor = hasNext ? MangaCursor.of(content.get(content.size() - 1)).encode() : null;
+        return new CursorPageResponse(content, nextCursor, hasNext);
     }
 
-    @Cacheable(value = "mangaDetail", key = "#id")
-    private MangaResponse getMangaByIdCached(Long id) {
-        Manga manga = mangaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Manga not found"));
-        return MangaResponse.fromEntity(manga);
+    @Cacheable(value = "tags", key = "'" + ALL_TAGS_KEY + "'")
+    public TagsResponse getAllTags() {
+        return TagsResponse.of(mangaRepository.findAllTags());
     }
 
-    @Transactional
+    /**
+     * 记录一次浏览（写入内存缓冲，定时批量写回数据库）
+     */
     public void incrementViewCount(Long id) {
-        Manga manga = mangaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Manga not found"));
-        manga.setViewCount(manga.getViewCount() + 1);
-        mangaRepository.save(manga);
+        counterBuffer.recordMangaView(id);
     }
 
     /**
      * 搜索漫画
      * 
+     * 按 search.backend 选择后端（内存倒排索引 / MySQL FULLTEXT / LIKE，见 {@link SearchBackends}），
+     * 后端只返回当前页的漫画 id；数据库后端的结果按 id 缓存，漫画数据统一按 id 批量加载
+     * 
      * @param keyword 关键词
      * @param tag 标签筛选（可选）
-     * @param sort 排序方式：default（默认）、updated（最近更新）、created（最近添加）
+     * @param sort 排序方式：default（默认）、updated（最近更新）、created（最近添加）、relevance（相关度，LIKE 后端按默认顺序）
      * @param pageable 分页参数
      * @return 搜索结果
      */
     public Page<MangaResponse> searchManga(String keyword, String tag, String sort, Pageable pageable) {
-        return searchMangaCached(keyword, tag, sort, pageable).map(this::applyCdnTransformation);
-    }
-
-    @Cacheable(value = "mangaSearch", key = "#keyword + '_' + (#tag ?: 'all') + '_' + (#sort ?: 'default') + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    private Page<MangaResponse> searchMangaCached(String keyword, String tag, String sort, Pageable pageable) {
-        // 根据排序方式创建新的 Pageable
-        org.springframework.data.domain.Sort sortOrder = switch (sort != null ? sort : "default") {
-            case "updated" -> org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC, "updatedAt");
-            case "created" -> org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC, "createdAt");
-            default -> org.springframework.data.domain.Sort.by(
-                    org.springframework.data.domain.Sort.Order.asc("sortOrder"),
-                    org.springframework.data.domain.Sort.Order.desc("createdAt")
-            );
-        };
-        
-        Pageable sortedPageable = org.springframework.data.domain.PageRequest.of(
-                pageable.getPageNumber(), 
-                pageable.getPageSize(), 
-                sortOrder
-        );
-        
-        if (tag != null && !tag.isEmpty()) {
-            return mangaRepository.searchByKeywordAndTag(keyword, tag, sortedPageable)
-                    .map(MangaResponse::fromEntity);
+        return search(searchBackends.current(), keyword, tagFilter(tag), sort, pageable);
+    }
+
+    private Page<MangaResponse> search(SearchBackend backend, String keyword, String tagFilter, String sort,
+                                       Pageable pageable) {
+        if (backend.type() == SearchBackendType.INDEX) {
+            SearchHits hits = backend.search(keyword, tagFilter, SearchSort.parse(sort),
+                    pageable.getOffset(), pageable.getPageSize());
+            return loadPage(hits.mangaIds(), pageable, hits.total());
+        }
+        Page<Long> ids = mangaQueryService.searchIdsCached(backend, keyword, tagFilter, sort, pageable);
+        return loadPage(ids.getContent(), pageable, ids.getTotalElements());
+    }
+
+    /**
+     * 多条件浏览：在内存位图索引中组合筛选并排序，只加载当前页的漫画
+     */
+    public Page<MangaResponse> browseManga(BrowseFilter filter, String sort, Pageable pageable) {
+        if (!mangaFilterIndex.isReady()) {
+            throw new RuntimeException("Browse index is not ready");
+        }
+        SearchHits hits = mangaFilterIndex.browse(filter, BrowseSort.parse(sort),
+                pageable.getOffset(), pageable.getPageSize(), false).hits();
+        return loadPage(hits.mangaIds(), pageable, hits.total());
+    }
+
+    /**
+     * 多条件浏览 + 分面计数（整个筛选结果按标签、地区、受众、完结状态统计）
+     */
+    public FacetedPageResponse browseMangaFaceted(BrowseFilter filter, String sort, Pageable pageable) {
+        if (!mangaFilterIndex.isReady()) {
+            throw new RuntimeException("Browse index is not ready");
+        }
+        MangaFilterIndex.FacetedHits result = mangaFilterIndex.browse(filter, BrowseSort.parse(sort),
+                pageable.getOffset(), pageable.getPageSize(), true);
+        SearchHits hits = result.hits();
+        return new FacetedPageResponse(loadPage(hits.mangaIds(), pageable, hits.total()), result.facets());
+    }
+
+    private static String tagFilter(String tag) {
+        return tag != null && !tag.isEmpty() ? tag : null;
+    }
+
+    /**
+     * 搜索 + 分面计数（全部命中按标签、地区、受众、完结状态统计）
+     *
+     * 结果页和分面使用同一个搜索后端的命中集合，两者始终一致；筛选索引未就绪时 facets 为空
+     */
+    public FacetedPageResponse searchMangaFaceted(String keyword, String tag, String sort, Pageable pageable) {
+        String tagFilter = tagFilter(tag);
+        SearchBackend backend = searchBackends.current();
+        Page<MangaResponse> results = search(backend, keyword, tagFilter, sort, pageable);
+        if (!mangaFilterIndex.isReady()) {
+            return new FacetedPageResponse(results, Map.of());
         }
-        return mangaRepository.searchByKeyword(keyword, sortedPageable)
-                .map(MangaResponse::fromEntity);
+        long[] matched = backend.matchingIds(keyword, tagFilter);
+        return new FacetedPageResponse(results, mangaFilterIndex.facetsOf(matched));
+    }
+
+    /**
+     * 搜索联想词（内存前缀树，不访问数据库）
+     */
+    public List<SuggestionResponse> suggest(String query, int limit) {
+        return mangaSuggester.suggest(query, limit);
+    }
+
+    /**
+     * 叠加 Redis 中的实时浏览量 / 收藏数（页内容已是拷贝，可以直接修改）
+     */
+    private Page<MangaResponse> withLiveCounts(Page<MangaResponse> page) {
+        counterOverlay.apply(page.getContent());
+        return page;
     }
 
     /**
      * Apply CDN transformation to MangaResponse after cache retrieval
      * This ensures cached data contains relative paths and CDN URLs are built dynamically
      * 
-     * @param response MangaResponse with relative paths
+     * The cached instance may be shared by the local (L1) cache, so it is copied first
+     * 
+     * @param cached MangaResponse with relative paths
      * @return MangaResponse with full CDN URLs
      */
-    private MangaResponse applyCdnTransformation(MangaResponse response) {
+    private MangaResponse applyCdnTransformation(MangaResponse cached) {
+        MangaResponse response = cached.copy();
         response.setCoverImageUrl(cdnService.buildUrl(response.getCoverImageUrl()));
         response.setDetailImages(cdnService.buildUrls(response.getDetailImages()));
         return response;
     }
 
     @Transactional
-    @CacheEvict(value = {"mangaSearch", "mangaList", "featured", "recommended", "mangaDetail", "tags"}, allEntries = true)
     public MangaResponse importManga(MangaImportRequest request) {
         Manga manga = new Manga();
         manga.setTitle(request.getTitle());
@@ -275,12 +419,31 @@ public class MangaService {
         manga.setChapters(chapters);
 
         manga = mangaRepository.save(manga);
+        if (!chapters.isEmpty()) {
+            // 章节创建时间在写入时生成，flush 后再回填冗余的章节统计
+            mangaRepository.flush();
+            applyChapterStats(manga, chapters);
+        }
+
+        // 只失效新漫画可能出现的列表；标签列表只有出现新标签时才失效
+        cacheInvalidator.invalidateTags(CacheTags.listDimensionsOf(manga));
+        if (Boolean.TRUE.equals(manga.getIsPutaway())) {
+            // 新漫画可能命中任意关键词，搜索结果整体失效（递增代号，O(1)）
+            cacheInvalidator.clear("mangaSearch");
+        }
+        if (introducesNewTags(manga)) {
+            cacheInvalidator.evict("tags", ALL_TAGS_KEY);
+        }
+        mangaSearchIndex.reindex(manga.getId());
+
         // 返回时构建完整 CDN URL（非缓存方法，直接使用 cdnService）
         return applyCdnTransformation(MangaResponse.fromEntity(manga));
     }
 
+    /**
+     * 批量导入：每部漫画的失效标签和搜索索引更新在同一事务内合并，提交后统一执行一次
+     */
     @Transactional
-    @CacheEvict(value = {"mangaSearch", "mangaList", "featured", "recommended", "mangaDetail", "tags"}, allEntries = true)
     public List<MangaResponse> batchImportManga(List<MangaImportRequest> requests) {
         List<MangaResponse> responses = new ArrayList<>();
         for (MangaImportRequest request : requests) {
@@ -290,29 +453,81 @@ public class MangaService {
     }
 
     @Transactional
-    @CacheEvict(value = {"mangaSearch", "mangaList", "featured", "recommended", "mangaDetail", "tags"}, allEntries = true)
     public void deleteManga(Long id) {
-        if (!mangaRepository.existsById(id)) {
-            throw new RuntimeException("Manga not found");
+        Manga manga = mangaRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Manga not found"));
+
+        // 删除前计算受影响的维度（需要读取标签等懒加载集合）
+        Set<String> dimensions = CacheTags.listDimensionsOf(manga);
+        dimensions.add(CacheTags.chapters(id));
+        Set<String> mangaTags = new HashSet<>(manga.getTags());
+        boolean wasPutaway = Boolean.TRUE.equals(manga.getIsPutaway());
+
+        mangaRepository.delete(manga);
+        mangaRepository.flush();
+
+        cacheInvalidator.invalidateTags(dimensions);
+        mangaSearchIndex.reindex(id);
+        // 只有某个标签因此不再被任何上架漫画使用时，标签列表才会变化（一条分组查询统计全部标签）
+        if (wasPutaway && !mangaTags.isEmpty()
+                && mangaRepository.countPutawayByTags(mangaTags).size() < mangaTags.size()) {
+            cacheInvalidator.evict("tags", ALL_TAGS_KEY);
         }
-        mangaRepository.deleteById(id);
     }
 
-    @Transactional
-    public void incrementFavoriteCount(Long id) {
-        Manga manga = mangaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Manga not found"));
-        manga.setFavoriteCount(manga.getFavoriteCount() + 1);
-        mangaRepository.save(manga);
+    private static void applyChapterStats(Manga manga, List<Chapter> chapters) {
+        manga.setChapterCount(chapters.size());
+        chapters.stream().map(Chapter::getChapterNumber).filter(Objects::nonNull)
+                .max(Comparator.naturalOrder()).ifPresent(manga::setLatestChapterNumber);
+        chapters.stream().map(Chapter::getCreatedAt).filter(Objects::nonNull)
+                .max(Comparator.naturalOrder()).ifPresent(manga::setLatestChapterAt);
     }
 
-    @Transactional
-    public void decrementFavoriteCount(Long id) {
-        Manga manga = mangaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Manga not found"));
-        manga.setFavoriteCount(Math.max(0, manga.getFavoriteCount() - 1));
-        mangaRepository.save(manga);
+    /**
+     * 判断导入的漫画是否带来了标签列表中尚不存在的标签
+     * 标签列表未被缓存时无需失效，直接返回 false
+     */
+    private boolean introducesNewTags(Manga manga) {
+        if (!Boolean.TRUE.equals(manga.getIsPutaway()) || manga.getTags() == null || manga.getTags().isEmpty()) {
+            return false;
+        }
+        Cache cache = cacheManager.getCache("tags");
+        Cache.ValueWrapper cached = cache != null ? cache.get(ALL_TAGS_KEY) : null;
+        if (cached == null || !(cached.get() instanceof TagsResponse tagsResponse) || tagsResponse.getTags() == null) {
+            return false;
+        }
+        return !tagsResponse.getTags().containsAll(manga.getTags());
     }
-}
 
+    /**
+     * 收藏数 +1（必须在收藏事务中调用，与收藏记录的插入一起提交）
+     *
+     * @return 漫画是否存在
+     */
+    public boolean incrementFavoriteCount(Long id) {
+        return adjustFavoriteCount(id, 1);
+    }
+
+    /**
+     * 收藏数 -1（必须在取消收藏事务中调用，与收藏记录的删除一起提交）
+     *
+     * @return 漫画是否存在
+     */
+    public boolean decrementFavoriteCount(Long id) {
+        return adjustFavoriteCount(id, -1);
+    }
 
+    /**
+     * 原子更新 favorite_count；事务提交后发布精确值供列表和详情叠加（见 {@link LiveFavoriteCounts}），
+     * 并计入热门排行（回滚时都不生效）。不失效任何缓存
+     */
+    private boolean adjustFavoriteCount(Long id, int delta) {
+        if (mangaRepository.adjustFavoriteCount(id, delta) == 0) {
+            return false;
+        }
+        Integer favoriteCount = mangaRepository.findFavoriteCount(id);
+        liveFavoriteCounts.publish(id, favoriteCount != null ? favoriteCount : 0);
+        trendingTracker.recordFavorite(id, delta);
+        return true;
+    }
+}
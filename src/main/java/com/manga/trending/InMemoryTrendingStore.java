@@ -0,0 +1,101 @@
+package com.manga.trending;
+
+import org.springframework.stereotype.Component;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * 单节点热门排行：时间桶和排行都在本进程内存中
+ *
+ * 桶为 {桶编号 -> {漫画 id -> 得分}}，写入只做 merge；重算时生成不可变的排行数组整体替换，
+ * 读取无锁。进程重启后排行从空开始累积（此时 /popular 回退到总榜）。
+ */
+@Component
+public class InMemoryTrendingStore implements TrendingStore {
+
+    private final Map<ChronoUnit, ConcurrentHashMap<Long, ConcurrentHashMap<Long, Double>>> buckets =
+            new EnumMap<>(ChronoUnit.class);
+    private volatile Map<TrendingWindow, long[]> rankings = Map.of();
+
+    public InMemoryTrendingStore() {
+        buckets.put(ChronoUnit.HOURS, new ConcurrentHashMap<>());
+        buckets.put(ChronoUnit.DAYS, new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public void record(Map<Long, Double> scores, long nowMillis) {
+        buckets.forEach((unit, byBucket) -> {
+            Map<Long, Double> bucket = byBucket.computeIfAbsent(
+                    TrendingWindow.bucketOf(unit, nowMillis), key -> new ConcurrentHashMap<>());
+            scores.forEach((mangaId, score) -> bucket.merge(mangaId, score, Double::sum));
+        });
+    }
+
+    @Override
+    public void rebuild(int topK, long nowMillis, LongPredicate listed) {
+        Map<TrendingWindow, long[]> rebuilt = new EnumMap<>(TrendingWindow.class);
+        for (TrendingWindow window : TrendingWindow.values()) {
+            rebuilt.put(window, rank(window, topK, nowMillis, listed));
+        }
+        rankings = rebuilt;
+        evictExpired(nowMillis);
+    }
+
+    private long[] rank(TrendingWindow window, int topK, long nowMillis, LongPredicate listed) {
+        Map<Long, ConcurrentHashMap<Long, Double>> byBucket = buckets.get(window.bucketUnit());
+        long current = window.currentBucket(nowMillis);
+        Map<Long, Double> totals = new HashMap<>();
+        for (int age = 0; age < window.buckets(); age++) {
+            Map<Long, Double> bucket = byBucket.get(current - age);
+            if (bucket == null) {
+                continue;
+            }
+            double weight = window.weight(age);
+            bucket.forEach((mangaId, score) -> totals.merge(mangaId, score * weight, Double::sum));
+        }
+        return totals.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0 && listed.test(entry.getKey()))
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(topK)
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+    }
+
+    /**
+     * 删除不再属于任何窗口的桶
+     */
+    private void evictExpired(long nowMillis) {
+        for (TrendingWindow window : TrendingWindow.values()) {
+            long oldest = window.currentBucket(nowMillis) - maxBuckets(window.bucketUnit()) + 1;
+            buckets.get(window.bucketUnit()).keySet().removeIf(bucket -> bucket < oldest);
+        }
+    }
+
+    private static int maxBuckets(ChronoUnit unit) {
+        return Arrays.stream(TrendingWindow.values())
+                .filter(window -> window.bucketUnit() == unit)
+                .mapToInt(TrendingWindow::buckets)
+                .max()
+                .orElse(0);
+    }
+
+    @Override
+    public TrendingPage page(TrendingWindow window, long offset, int limit) {
+        long[] ranking = rankings.get(window);
+        if (ranking == null || offset >= ranking.length) {
+            return new TrendingPage(List.of(), ranking != null ? ranking.length : 0);
+        }
+        int end = (int) Math.min(ranking.length, offset + limit);
+        List<Long> ids = Arrays.stream(ranking, (int) offset, end).boxed().toList();
+        return new TrendingPage(ids, ranking.length);
+    }
+}
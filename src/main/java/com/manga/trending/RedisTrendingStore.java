@@ -0,0 +1,167 @@
+package com.manga.trending;
+
+import com.manga.config.TrendingProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.LongPredicate;
+
+/**
+ * 多节点热门排行：时间桶和排行都是 Redis 有序集合（与 counter.store=redis 一同启用）
+ *
+ * - 写入：一次 pipeline 对当前小时桶和天桶执行 ZINCRBY，桶通过 TTL 自然过期；
+ * - 重算：ZUNIONSTORE 按衰减权重合并窗口内的桶到临时 key，从高分开始分批剔除已删除、已下架的漫画，
+ *   裁剪到 top-K 后 RENAME 覆盖排行，读取方始终看到完整的排行；通过短租约保证同一周期只有一个节点重算；
+ * - 读取：ZREVRANGE + ZCARD，一次 pipeline。
+ */
+@Component
+@Primary
+@ConditionalOnProperty(prefix = "counter", name = "store", havingValue = "redis")
+public class RedisTrendingStore implements TrendingStore {
+
+    private static final String PREFIX = "manga:trending:";
+    private static final String REBUILD_LOCK = PREFIX + "rebuild";
+    private static final Duration HOUR_BUCKET_TTL = Duration.ofDays(8);
+    private static final Duration DAY_BUCKET_TTL = Duration.ofDays(31);
+
+    /**
+     * 重算时每批检查的成员数
+     */
+    private static final int FILTER_BATCH = 1000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final TrendingProperties properties;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public RedisTrendingStore(StringRedisTemplate redisTemplate, TrendingProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public void record(Map<Long, Double> scores, long nowMillis) {
+        String hourBucket = bucketKey(ChronoUnit.HOURS, TrendingWindow.bucketOf(ChronoUnit.HOURS, nowMillis));
+        String dayBucket = bucketKey(ChronoUnit.DAYS, TrendingWindow.bucketOf(ChronoUnit.DAYS, nowMillis));
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                scores.forEach((mangaId, score) -> {
+                    String member = String.valueOf(mangaId);
+                    operations.opsForZSet().incrementScore(hourBucket, member, score);
+                    operations.opsForZSet().incrementScore(dayBucket, member, score);
+                });
+                operations.expire(hourBucket, HOUR_BUCKET_TTL);
+                operations.expire(dayBucket, DAY_BUCKET_TTL);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public void rebuild(int topK, long nowMillis, LongPredicate listed) {
+        // 租约取重算间隔的一半：本周期内其他节点跳过，下个周期前已过期
+        Duration lease = properties.getRefreshInterval().dividedBy(2);
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(REBUILD_LOCK, nodeId, lease))) {
+            return;
+        }
+        for (TrendingWindow window : TrendingWindow.values()) {
+            rebuild(window, topK, nowMillis, listed);
+        }
+    }
+
+    private void rebuild(TrendingWindow window, int topK, long nowMillis, LongPredicate listed) {
+        long current = window.currentBucket(nowMillis);
+        List<String> keys = new ArrayList<>(window.buckets());
+        double[] weights = new double[window.buckets()];
+        for (int age = 0; age < window.buckets(); age++) {
+            keys.add(bucketKey(window.bucketUnit(), current - age));
+            weights[age] = window.weight(age);
+        }
+
+        String ranking = rankingKey(window);
+        String building = ranking + ":building";
+        redisTemplate.opsForZSet().unionAndStore(keys.get(0), keys.subList(1, keys.size()), building,
+                Aggregate.SUM, Weights.of(weights));
+        redisTemplate.opsForZSet().removeRangeByScore(building, Double.NEGATIVE_INFINITY, 0);
+        removeUnlisted(building, topK, listed);
+        redisTemplate.opsForZSet().removeRange(building, 0, -(topK + 1L));
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(building))) {
+            redisTemplate.rename(building, ranking);
+        } else {
+            redisTemplate.delete(ranking);
+        }
+    }
+
+    /**
+     * 从高分开始分批检查，删除未上架的成员，直到前 topK 名都是上架漫画
+     * （此前的名次都已检查过，每批从已保留的数量处继续读取）
+     */
+    private void removeUnlisted(String building, int topK, LongPredicate listed) {
+        long kept = 0;
+        while (kept < topK) {
+            Set<String> members = redisTemplate.opsForZSet().reverseRange(building, kept, kept + FILTER_BATCH - 1);
+            if (members == null || members.isEmpty()) {
+                return;
+            }
+            List<Object> unlisted = new ArrayList<>();
+            for (String member : members) {
+                if (listed.test(Long.parseLong(member))) {
+                    kept++;
+                } else {
+                    unlisted.add(member);
+                }
+            }
+            if (!unlisted.isEmpty()) {
+                redisTemplate.opsForZSet().remove(building, unlisted.toArray());
+            }
+            if (members.size() < FILTER_BATCH) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public TrendingPage page(TrendingWindow window, long offset, int limit) {
+        String ranking = rankingKey(window);
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                operations.opsForZSet().reverseRange(ranking, offset, offset + limit - 1);
+                operations.opsForZSet().zCard(ranking);
+                return null;
+            }
+        });
+
+        long total = results.get(1) instanceof Long count ? count : 0;
+        List<Long> ids = new ArrayList<>();
+        if (results.get(0) instanceof Set<?> members) {
+            for (Object member : members) {
+                ids.add(Long.valueOf(member.toString()));
+            }
+        }
+        return new TrendingPage(ids, total);
+    }
+
+    private static String bucketKey(ChronoUnit unit, long bucket) {
+        return PREFIX + (unit == ChronoUnit.HOURS ? "hour:" : "day:") + bucket;
+    }
+
+    private static String rankingKey(TrendingWindow window) {
+        return PREFIX + "rank:" + window.key();
+    }
+}
@@ -0,0 +1,13 @@
+package com.manga.trending;
+
+import java.util.List;
+
+/**
+ * 排行中的一页：按得分从高到低的漫画 id，以及排行总长度
+ */
+public record TrendingPage(List<Long> mangaIds, long total) {
+
+    public static TrendingPage empty() {
+        return new TrendingPage(List.of(), 0);
+    }
+}
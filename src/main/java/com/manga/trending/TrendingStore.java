@@ -0,0 +1,24 @@
+package com.manga.trending;
+
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * 热门排行存储：时间桶的增量写入、各窗口排行的重算与分页读取
+ */
+public interface TrendingStore {
+
+    /**
+     * 把一批得分增量累加到当前小时桶和天桶
+     */
+    void record(Map<Long, Double> scores, long nowMillis);
+
+    /**
+     * 按衰减权重合并窗口内的桶，生成各窗口的 top-K 排行，并清理过期的桶
+     *
+     * @param listed 只有满足条件的漫画进入排行（排除已删除、已下架的漫画，排行总数才准确）
+     */
+    void rebuild(int topK, long nowMillis, LongPredicate listed);
+
+    TrendingPage page(TrendingWindow window, long offset, int limit);
+}
@@ -0,0 +1,118 @@
+package com.manga.trending;
+
+import com.manga.config.TrendingProperties;
+import com.manga.counter.CounterFlushListener;
+import com.manga.counter.CounterType;
+import com.manga.search.MangaFilterIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * 热门排行入口
+ *
+ * 浏览量由 {@link com.manga.counter.CounterBuffer} 批量写出后回调 {@link #onFlush}，
+ * 收藏、取消收藏在事务提交后调用 {@link #recordFavorite}，
+ * 按 trending.view-weight / favorite-weight 折算为得分写入 {@link TrendingStore} 的时间桶；
+ * 排行每个 trending.refresh-interval 重算一次，整个过程不访问 MySQL。
+ *
+ * 已删除、已下架的漫画（按内存中的筛选索引 {@link MangaFilterIndex} 判断）写入时不计分，重算时剔除，
+ * 排行总数只包含上架漫画；筛选索引未就绪时不过滤，页面加载时仍会跳过这些漫画。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingTracker implements CounterFlushListener {
+
+    private final TrendingStore store;
+    private final TrendingProperties properties;
+    private final MangaFilterIndex mangaFilterIndex;
+
+    @Override
+    public void onFlush(Map<CounterType, Map<Long, Long>> deltas) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        addScores(scores, deltas.get(CounterType.MANGA_VIEWS), properties.getViewWeight(), listed());
+        if (!scores.isEmpty()) {
+            store.record(scores, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 记录一次收藏（delta = 1）或取消收藏（delta = -1）；在事务中调用时等事务提交后才计入
+     */
+    public void recordFavorite(Long mangaId, int delta) {
+        if (!properties.isEnabled() || properties.getFavoriteWeight() == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recordFavoriteNow(mangaId, delta);
+                }
+            });
+            return;
+        }
+        recordFavoriteNow(mangaId, delta);
+    }
+
+    private void recordFavoriteNow(Long mangaId, int delta) {
+        if (!listed().test(mangaId)) {
+            return;
+        }
+        try {
+            store.record(Map.of(mangaId, delta * properties.getFavoriteWeight()), System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            // 排行只影响热门榜，失败不影响收藏本身
+            log.warn("Failed to record favorite for trending: {}", e.getMessage());
+        }
+    }
+
+    private static void addScores(Map<Long, Double> scores, Map<Long, Long> counts, double weight,
+                                  LongPredicate listed) {
+        if (counts == null || weight == 0) {
+            return;
+        }
+        counts.forEach((mangaId, count) -> {
+            if (listed.test(mangaId)) {
+                scores.merge(mangaId, count * weight, Double::sum);
+            }
+        });
+    }
+
+    private LongPredicate listed() {
+        return mangaFilterIndex.isReady() ? mangaFilterIndex::isListed : mangaId -> true;
+    }
+
+    @Scheduled(fixedDelayString = "#{@trendingProperties.refreshInterval.toMillis()}")
+    public void refresh() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            store.rebuild(properties.getTopK(), System.currentTimeMillis(), listed());
+        } catch (Exception e) {
+            log.warn("Failed to rebuild trending rankings: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 读取排行的一页；排行为空（刚启动、未启用）时返回空页，由调用方回退到总榜
+     */
+    public TrendingPage page(TrendingWindow window, long offset, int limit) {
+        if (!properties.isEnabled()) {
+            return TrendingPage.empty();
+        }
+        return store.page(window, offset, limit);
+    }
+}
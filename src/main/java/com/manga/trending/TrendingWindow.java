@@ -0,0 +1,73 @@
+package com.manga.trending;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 热门排行时间窗口
+ *
+ * 24h、7d 由小时桶合并，30d 由天桶合并（避免每次合并 720 个桶）。
+ * 桶的权重按半衰期指数衰减：距今 age 个桶的得分乘以 0.5^(age * 桶长 / halfLife)，
+ * 窗口内越新的事件权重越高，窗口外的桶不参与计算。
+ */
+public enum TrendingWindow {
+
+    DAY("24h", ChronoUnit.HOURS, 24, Duration.ofHours(6)),
+    WEEK("7d", ChronoUnit.HOURS, 168, Duration.ofDays(2)),
+    MONTH("30d", ChronoUnit.DAYS, 30, Duration.ofDays(7));
+
+    private final String key;
+    private final ChronoUnit bucketUnit;
+    private final int buckets;
+    private final Duration halfLife;
+
+    TrendingWindow(String key, ChronoUnit bucketUnit, int buckets, Duration halfLife) {
+        this.key = key;
+        this.bucketUnit = bucketUnit;
+        this.buckets = buckets;
+        this.halfLife = halfLife;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public ChronoUnit bucketUnit() {
+        return bucketUnit;
+    }
+
+    /**
+     * 窗口包含的桶数（含当前未结束的桶）
+     */
+    public int buckets() {
+        return buckets;
+    }
+
+    /**
+     * 距当前桶 age 个桶的衰减权重
+     */
+    public double weight(int age) {
+        double ageMillis = (double) age * bucketUnit.getDuration().toMillis();
+        return Math.pow(0.5, ageMillis / halfLife.toMillis());
+    }
+
+    /**
+     * 当前时间所在的桶编号（自 epoch 起的小时数或天数）
+     */
+    public long currentBucket(long nowMillis) {
+        return bucketOf(bucketUnit, nowMillis);
+    }
+
+    static long bucketOf(ChronoUnit unit, long epochMillis) {
+        return epochMillis / unit.getDuration().toMillis();
+    }
+
+    public static TrendingWindow parse(String value) {
+        for (TrendingWindow window : values()) {
+            if (window.key.equalsIgnoreCase(value)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported trending window: " + value);
+    }
+}
@@ -0,0 +1,48 @@
+package com.manga;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * 集成测试基类：真实的 MySQL 8 和 Redis 7（Testcontainers），没有 Docker 时整个测试类跳过
+ *
+ * 容器在首次使用时启动一次，所有测试类共享（Spring 会缓存应用上下文，容器不能随测试类停止）。
+ * 后台任务（索引重建、计数写回等）照常运行，测试数据使用各自唯一的漫画和用户，互不干扰。
+ * SQL 语句数断言见 {@link SqlStatementCounter}。
+ */
+@SpringBootTest
+@Import(SqlStatementCounter.class)
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class AbstractIntegrationTest {
+
+    protected static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withUrlParam("useUnicode", "true")
+            .withUrlParam("characterEncoding", "utf8")
+            .withUrlParam("serverTimezone", "Asia/Shanghai")
+            .withUrlParam("rewriteBatchedStatements", "true")
+            // 与部署建议一致（见 FullTextSearchBackend）：停用词不影响 ngram 全文索引
+            .withCommand("--innodb-ft-enable-stopword=OFF");
+
+    protected static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine")
+            .withExposedPorts(6379);
+
+    static {
+        MYSQL.start();
+        REDIS.start();
+    }
+
+    @DynamicPropertySource
+    static void containerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("spring.data.redis.host", REDIS::getHost);
+        registry.add("spring.data.redis.port", () -> REDIS.getMappedPort(6379));
+        registry.add("spring.data.redis.password", () -> "");
+    }
+}
@@ -0,0 +1,82 @@
+package com.manga;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+
+/**
+ * 统计当前线程发出的 SQL 语句数（测试用）
+ *
+ * 包装应用的 DataSource，连接上每次 prepareStatement / prepareCall / createStatement 计一次。
+ * 只统计 {@link #count(Callable)} 所在的线程，后台任务（索引重建、计数写回等）不计入。
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class SqlStatementCounter {
+
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    /**
+     * 执行 action 并返回其间当前线程发出的 SQL 语句数
+     */
+    public static int count(Callable<?> action) throws Exception {
+        int[] statements = new int[1];
+        STATEMENTS.set(statements);
+        try {
+            action.call();
+        } finally {
+            STATEMENTS.remove();
+        }
+        return statements[0];
+    }
+
+    @Bean
+    static BeanPostProcessor sqlStatementCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? new CountingDataSource(dataSource) : bean;
+            }
+        };
+    }
+
+    private static final class CountingDataSource extends DelegatingDataSource {
+
+        private CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+
+        private static Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        String name = method.getName();
+                        int[] statements = STATEMENTS.get();
+                        if (statements != null && (name.startsWith("prepare") || name.equals("createStatement"))) {
+                            statements[0]++;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
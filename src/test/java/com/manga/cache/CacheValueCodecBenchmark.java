@@ -0,0 +1,148 @@
+package com.manga.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.manga.dto.MangaResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 缓存值编码基准：JSON（RedisConfig 中的 GenericJackson2JsonRedisSerializer）对比 {@link CacheValueCodec}
+ *
+ * 对漫画详情和 20 条卡片的列表页，分别测量编码后大小和编码 / 解码耗时。
+ * 运行：mvn test -Dtest=CacheValueCodecBenchmark -Dbenchmark=true
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CacheValueCodecBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+
+    private final RedisSerializer<Object> json = new GenericJackson2JsonRedisSerializer(objectMapper());
+    private final RedisSerializer<Object> binary = new CacheValueCodec(json);
+
+    @Test
+    void detail() {
+        compare("detail", manga(1, true));
+    }
+
+    @Test
+    void cardPage() {
+        List<MangaResponse> cards = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            cards.add(manga(i, false));
+        }
+        compare("20 cards", cards);
+    }
+
+    private void compare(String label, Object value) {
+        byte[] jsonBytes = json.serialize(value);
+        byte[] binaryBytes = binary.serialize(value);
+        assertThat(binary.deserialize(binaryBytes)).usingRecursiveComparison().isEqualTo(json.deserialize(jsonBytes));
+
+        Result jsonResult = measure(json, value);
+        Result binaryResult = measure(binary, value);
+        System.out.printf("%-10s json   %6d bytes  encode %6d ns/op  decode %6d ns/op%n",
+                label, jsonBytes.length, jsonResult.encodeNanos(), jsonResult.decodeNanos());
+        System.out.printf("%-10s binary %6d bytes  encode %6d ns/op  decode %6d ns/op%n",
+                label, binaryBytes.length, binaryResult.encodeNanos(), binaryResult.decodeNanos());
+
+        assertThat(binaryBytes.length).isLessThan(jsonBytes.length);
+    }
+
+    private static Result measure(RedisSerializer<Object> serializer, Object value) {
+        byte[] bytes = serializer.serialize(value);
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += serializer.serialize(value).length;
+            sink += serializer.deserialize(bytes) != null ? 1 : 0;
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += serializer.serialize(value).length;
+        }
+        long encodeNanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += serializer.deserialize(bytes) != null ? 1 : 0;
+        }
+        long decodeNanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+        assertThat(sink).isPositive();
+        return new Result(encodeNanos, decodeNanos);
+    }
+
+    private record Result(long encodeNanos, long decodeNanos) {
+    }
+
+    private static MangaResponse manga(long id, boolean detail) {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 30, 15);
+        MangaResponse manga = new MangaResponse();
+        manga.setId(id);
+        manga.setTitle("漫画标题 " + id);
+        manga.setCoverImageUrl("covers/" + id + ".jpg");
+        manga.setAuthor("作者 " + (id % 50));
+        manga.setIsChoiceness(id % 3 == 0);
+        manga.setIsRecommend(id % 5 == 0);
+        manga.setIsNew(false);
+        manga.setIsPutaway(true);
+        manga.setTendency("少年");
+        manga.setCountry("日本");
+        manga.setIsFinish("连载中");
+        manga.setSortOrder(0);
+        manga.setViewCount(123_456);
+        manga.setFavoriteCount(7_890);
+        manga.setChapterCount(120);
+        manga.setLatestChapterNumber(120);
+        manga.setLatestChapterAt(now);
+        manga.setTags(new LinkedHashSet<>(Set.of("热血", "冒险", "战斗")));
+        manga.setCreatedAt(now.minusYears(2));
+        manga.setUpdatedAt(now);
+        if (detail) {
+            manga.setDescription("这是一段漫画简介，".repeat(20));
+            manga.setDetailImages(List.of("details/" + id + "-1.jpg", "details/" + id + "-2.jpg"));
+            manga.setSlogan("每周更新");
+            manga.setPutawayTime(now.minusYears(2));
+            manga.setOnlineTime(now.minusYears(2));
+            manga.setLabels(new LinkedHashSet<>(Set.of("独家", "完结")));
+            manga.setSource("import");
+        }
+        return manga;
+    }
+
+    /**
+     * 与 RedisConfig 中缓存使用的 ObjectMapper 配置一致
+     */
+    private static ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.activateDefaultTyping(BasicPolymorphicTypeValidator.builder()
+                        .allowIfBaseType(Object.class)
+                        .allowIfSubType("com.manga.")
+                        .allowIfSubType("java.util.")
+                        .allowIfSubType("java.lang.")
+                        .allowIfSubType("java.time.")
+                        .build(),
+                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        return objectMapper;
+    }
+}
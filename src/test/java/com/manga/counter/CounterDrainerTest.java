@@ -0,0 +1,103 @@
+package com.manga.counter;
+
+import com.manga.AbstractIntegrationTest;
+import com.manga.config.CounterProperties;
+import com.manga.entity.Manga;
+import com.manga.repository.MangaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 分钟桶汇总的崩溃恢复：主节点认领桶后退出、迟到的写入又重建了同一分钟的桶，
+ * 下一轮汇总两份增量都必须写入 MySQL，pending 归零
+ */
+class CounterDrainerTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private JdbcCounterSink jdbcCounterSink;
+
+    @Autowired
+    private CounterProperties counterProperties;
+
+    @Autowired
+    private MangaRepository mangaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private CounterDrainer drainer;
+    private Long mangaId;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Manga manga = new Manga();
+        manga.setTitle("counter-drain-" + run);
+        manga.setCoverImageUrl("covers/" + run + ".jpg");
+        mangaId = mangaRepository.save(manga).getId();
+        drainer = new CounterDrainer(redisTemplate, jdbcCounterSink, counterProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        drainer.releaseLeadership();
+    }
+
+    @Test
+    void lateWritesAfterAnInterruptedClaimAreNotLost() {
+        long minute = System.currentTimeMillis() / 60_000 - 5;
+        String bucket = RedisCounterKeys.bucket(CounterType.MANGA_VIEWS, minute);
+        String draining = bucket + RedisCounterKeys.DRAINING_SUFFIX;
+        String field = String.valueOf(mangaId);
+
+        // 上一任主节点认领了 5 次浏览后退出；之后迟到的 3 次浏览重建了同一分钟的桶
+        redisTemplate.opsForHash().put(draining, field, "5");
+        redisTemplate.opsForHash().put(bucket, field, "3");
+        redisTemplate.opsForSet().add(RedisCounterKeys.BUCKET_INDEX, draining, bucket);
+        redisTemplate.opsForHash().put(RedisCounterKeys.pending(CounterType.MANGA_VIEWS), field, "8");
+
+        drainer.drain();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT view_count FROM manga WHERE id = ?", Integer.class, mangaId))
+                .isEqualTo(8);
+        assertThat(redisTemplate.opsForHash().get(RedisCounterKeys.pending(CounterType.MANGA_VIEWS), field))
+                .isEqualTo("0");
+        assertThat(redisTemplate.opsForHash().get(RedisCounterKeys.base(CounterType.MANGA_VIEWS), field))
+                .isEqualTo("8");
+        assertThat(redisTemplate.hasKey(bucket)).isFalse();
+        assertThat(redisTemplate.hasKey(draining)).isFalse();
+        assertThat(redisTemplate.opsForSet().isMember(RedisCounterKeys.BUCKET_INDEX, draining)).isFalse();
+    }
+
+    @Test
+    void claimMergesIntoAnExistingDrainingBucket() {
+        long minute = System.currentTimeMillis() / 60_000 - 5;
+        String bucket = RedisCounterKeys.bucket(CounterType.MANGA_VIEWS, minute);
+        String draining = bucket + RedisCounterKeys.DRAINING_SUFFIX;
+        String field = String.valueOf(mangaId);
+
+        // 索引中只剩新桶（例如 :draining 的索引项丢失），认领时也不能覆盖未汇总的 :draining 桶
+        redisTemplate.opsForHash().put(draining, field, "5");
+        redisTemplate.opsForHash().put(bucket, field, "3");
+        redisTemplate.opsForSet().add(RedisCounterKeys.BUCKET_INDEX, bucket);
+        redisTemplate.opsForHash().put(RedisCounterKeys.pending(CounterType.MANGA_VIEWS), field, "8");
+
+        drainer.drain();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT view_count FROM manga WHERE id = ?", Integer.class, mangaId))
+                .isEqualTo(8);
+        assertThat(redisTemplate.opsForHash().get(RedisCounterKeys.pending(CounterType.MANGA_VIEWS), field))
+                .isEqualTo("0");
+    }
+}
@@ -0,0 +1,98 @@
+package com.manga.recommend;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 收藏共现基准：100 万条收藏构建 {@link CoOccurrenceIndex} 的耗时和内存，以及一次推荐合并的耗时
+ *
+ * 数据为合成数据：5 万个用户、2 万部漫画，漫画热度按幂律分布，每个用户的收藏数在 1~40 之间，
+ * 另有少量收藏上千部的用户（超过 max-user-favorites，不参与统计）。
+ * 收藏按 (user_id, manga_id) 顺序送入 Builder，与 {@link CoOccurrenceRecommender} 的分批读取一致。
+ * 运行：mvn test -Dtest=CoOccurrenceIndexBenchmark -Dbenchmark=true
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CoOccurrenceIndexBenchmark {
+
+    private static final int FAVORITES = 1_000_000;
+    private static final int MANGA = 20_000;
+    private static final int HEAVY_USERS = 20;
+    private static final int HEAVY_USER_FAVORITES = 2_000;
+    private static final int TOP_K = 50;
+    private static final int MIN_SUPPORT = 2;
+    private static final int MAX_USER_FAVORITES = 500;
+    private static final int SEEDS = 50;
+    private static final int MERGES = 1_000;
+
+    @Test
+    void millionFavorites() {
+        Random random = new Random(42);
+        List<long[]> users = new ArrayList<>();
+        int total = 0;
+        for (int i = 0; i < HEAVY_USERS; i++) {
+            users.add(favoritesOf(random, HEAVY_USER_FAVORITES));
+            total += HEAVY_USER_FAVORITES;
+        }
+        while (total < FAVORITES) {
+            long[] favorites = favoritesOf(random, Math.min(FAVORITES - total, 1 + random.nextInt(40)));
+            users.add(favorites);
+            total += favorites.length;
+        }
+
+        long start = System.nanoTime();
+        CoOccurrenceIndex.Builder builder = new CoOccurrenceIndex.Builder();
+        for (int user = 0; user < users.size(); user++) {
+            for (long mangaId : users.get(user)) {
+                builder.add(user, mangaId);
+            }
+        }
+        CoOccurrenceIndex index = builder.build(TOP_K, MIN_SUPPORT, MAX_USER_FAVORITES);
+        long buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(builder.favorites()).isEqualTo(total);
+        assertThat(index.neighbours(1)).isNotEmpty();
+
+        List<Long> seeds = new ArrayList<>();
+        for (long mangaId : favoritesOf(random, SEEDS)) {
+            seeds.add(mangaId);
+        }
+        HashSet<Long> excluded = new HashSet<>(seeds);
+        long sink = 0;
+        for (int i = 0; i < MERGES; i++) {
+            sink += index.merge(seeds, excluded, 20).size();
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < MERGES; i++) {
+            sink += index.merge(seeds, excluded, 20).size();
+        }
+        double mergeMicros = (System.nanoTime() - start) / 1_000.0 / MERGES;
+        assertThat(sink).isPositive();
+
+        System.out.printf("%,d favorites from %,d users: build %,d ms, %,d manga, %,d pairs, ~%,d KB; "
+                        + "merge of %d seeds %.1f µs%n",
+                total, users.size(), buildMillis, index.size(), index.neighbourCount(), index.memoryBytes() / 1024,
+                SEEDS, mergeMicros);
+    }
+
+    /**
+     * 一个用户的收藏（漫画 id 去重、升序）；id 越小越热门
+     */
+    private static long[] favoritesOf(Random random, int count) {
+        TreeSet<Long> favorites = new TreeSet<>();
+        while (favorites.size() < count) {
+            favorites.add(1 + (long) Math.floor(Math.pow(random.nextDouble(), 2) * MANGA));
+        }
+        return favorites.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,103 @@
+package com.manga.search;
+
+import com.manga.dto.FacetCount;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 分面计数基准：10k / 100k / 1M 部漫画的 {@link FilterIndex}
+ *
+ * 数据为合成数据：200 个标签按幂律分布，每部 3 个；8 个地区、4 种受众、2 种完结状态。
+ * 测量索引构建、全量浏览 / 组合筛选的分面计数，以及对 1 万条搜索结果的分面计数。
+ * 运行：mvn test -Dtest=FilterIndexBenchmark -Dbenchmark=true
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FilterIndexBenchmark {
+
+    private static final int TAGS = 200;
+    private static final int TAGS_PER_MANGA = 3;
+    private static final String[] COUNTRIES = {"日本", "韩国", "中国", "美国", "法国", "台湾", "香港", "其他"};
+    private static final String[] TENDENCIES = {"少年", "少女", "青年", "全年龄"};
+    private static final String[] FINISH_STATES = {"连载中", "已完结"};
+    private static final int MAX_FACET_VALUES = 20;
+    private static final int SEARCH_HITS = 10_000;
+    private static final int ITERATIONS = 50;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    void facets(int size) {
+        Random random = new Random(size);
+        List<FilterSource> sources = new ArrayList<>(size);
+        Map<Long, List<String>> tags = new HashMap<>();
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+        for (long id = 1; id <= size; id++) {
+            sources.add(new FilterSource(id, COUNTRIES[random.nextInt(COUNTRIES.length)],
+                    TENDENCIES[random.nextInt(TENDENCIES.length)], FINISH_STATES[random.nextInt(2)],
+                    random.nextInt(20) == 0, random.nextInt(10) == 0, random.nextInt(5) == 0,
+                    random.nextInt(100), random.nextInt(1_000_000),
+                    base.plusMinutes(id), base.plusMinutes(random.nextInt(size))));
+            List<String> mangaTags = new ArrayList<>(TAGS_PER_MANGA);
+            while (mangaTags.size() < TAGS_PER_MANGA) {
+                String tag = "tag" + skewedTag(random);
+                if (!mangaTags.contains(tag)) {
+                    mangaTags.add(tag);
+                }
+            }
+            tags.put(id, mangaTags);
+        }
+
+        long start = System.nanoTime();
+        FilterIndex index = FilterIndex.build(sources, tags);
+        long buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        BrowseFilter everything = new BrowseFilter(null, false, null, null, null, null, null, null);
+        BrowseFilter combined = new BrowseFilter(List.of("tag0", "tag1"), false, List.of("日本"), null,
+                List.of("连载中"), null, null, null);
+        long[] hitIds = random.longs(SEARCH_HITS, 1, size + 1L).toArray();
+
+        Map<String, List<FacetCount>> all = index.facets(index.filter(everything), MAX_FACET_VALUES);
+        assertThat(all.get("country").stream().mapToLong(FacetCount::getCount).sum()).isEqualTo(size);
+
+        double browseAll = micros(() -> index.facets(index.filter(everything), MAX_FACET_VALUES));
+        double browseCombined = micros(() -> index.facets(index.filter(combined), MAX_FACET_VALUES));
+        double searchHits = micros(() -> index.facets(index.toBitmap(hitIds), MAX_FACET_VALUES));
+        RoaringBitmap matched = index.filter(combined);
+
+        System.out.printf("%,9d manga  build %5d ms  facets: all %8.1f µs  tag+country+finish (%,d hits) %8.1f µs  "
+                        + "%,d search hits %8.1f µs%n",
+                size, buildMillis, browseAll, matched.getCardinality(), browseCombined, SEARCH_HITS, searchHits);
+    }
+
+    /**
+     * 幂律分布的标签序号：少数标签覆盖大部分漫画
+     */
+    private static int skewedTag(Random random) {
+        return (int) Math.min(TAGS - 1, Math.floor(Math.pow(random.nextDouble(), 3) * TAGS));
+    }
+
+    private static double micros(Supplier<?> action) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            action.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertThat(action.get()).isNotNull();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+    }
+}
@@ -0,0 +1,124 @@
+package com.manga.search;
+
+import com.manga.AbstractIntegrationTest;
+import com.manga.config.SearchProperties;
+import com.manga.entity.Manga;
+import com.manga.repository.MangaRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 三种搜索后端（内存倒排索引、MySQL FULLTEXT、LIKE）对同一份数据返回相同的命中集合、总数和默认排序的分页
+ *
+ * 查询只使用三者语义一致的关键词：长度 >= 2 的中日韩片段、完整的英文单词，以及按原顺序出现的多个词。
+ * 语料的 sortOrder 各不相同，默认排序不依赖并列时的次序。
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SearchBackendEquivalenceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private MangaRepository mangaRepository;
+
+    @Autowired
+    private LikeSearchBackend likeSearchBackend;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, Long> corpus = new HashMap<>();
+    private List<SearchBackend> backends;
+
+    @BeforeAll
+    void setUp() {
+        save("海贼王", "ワンピース", "尾田荣一郎", "少年在大海上寻找传说中的宝藏", Set.of("热血", "冒险"), true);
+        save("海贼王外传", null, "其他作者", "海贼们的日常故事", Set.of("冒险"), true);
+        save("火影忍者", "NARUTO", "岸本齐史", "忍者村的少年成长为火影", Set.of("热血", "战斗"), true);
+        save("One Piece Film", null, "Eiichiro Oda", "Pirates search for the legendary treasure", Set.of("冒险"), true);
+        save("Ninja Scroll", null, "Kawajiri", "A wandering ninja swordsman", Set.of("战斗"), true);
+        save("海贼王（下架）", null, "尾田荣一郎", "已下架的海贼", Set.of("冒险"), false);
+
+        SearchProperties indexProperties = new SearchProperties();
+        indexProperties.setBackend(SearchBackendType.INDEX);
+        MangaSearchIndex index = new MangaSearchIndex(mangaRepository, indexProperties,
+                new DefaultListableBeanFactory().getBeanProvider(SearchIndexListener.class));
+        index.rebuild();
+
+        SearchProperties fullTextProperties = new SearchProperties();
+        fullTextProperties.setBackend(SearchBackendType.FULLTEXT);
+        FullTextSearchBackend fullText = new FullTextSearchBackend(jdbcTemplate, fullTextProperties, likeSearchBackend);
+        fullText.run(null);
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(fullText.isReady()).isTrue();
+        backends = List.of(index, fullText, likeSearchBackend);
+    }
+
+    @ParameterizedTest(name = "[{index}] keyword={0} tag={1}")
+    @CsvSource(nullValues = "-", value = {
+            "海贼, -, 海贼王;海贼王外传",
+            "海贼王, -, 海贼王;海贼王外传",
+            "海贼王, 热血, 海贼王",
+            "大海, -, 海贼王",
+            "忍者, -, 火影忍者",
+            "ワンピース, -, 海贼王",
+            "尾田荣一郎, -, 海贼王",
+            "naruto, -, 火影忍者",
+            "ninja, -, Ninja Scroll",
+            "ninja, 战斗, Ninja Scroll",
+            "ONE PIECE, -, One Piece Film",
+            "legendary treasure, 冒险, One Piece Film",
+            "宝藏, 战斗, -",
+            "不存在的词, -, -"
+    })
+    void backendsAgree(String keyword, String tag, String expectedTitles) {
+        Set<Long> expected = expectedTitles == null ? Set.of()
+                : Arrays.stream(expectedTitles.split(";")).map(corpus::get).collect(Collectors.toSet());
+
+        for (SearchBackend backend : backends) {
+            assertThat(ids(backend.matchingIds(keyword, tag)))
+                    .as("%s matchingIds", backend.type())
+                    .isEqualTo(expected);
+        }
+
+        SearchHits reference = likeSearchBackend.search(keyword, tag, SearchSort.DEFAULT, 0, 20);
+        assertThat(reference.total()).isEqualTo(expected.size());
+        for (SearchBackend backend : backends) {
+            SearchHits hits = backend.search(keyword, tag, SearchSort.DEFAULT, 0, 20);
+            assertThat(hits.total()).as("%s total", backend.type()).isEqualTo(reference.total());
+            assertThat(hits.mangaIds()).as("%s page", backend.type()).isEqualTo(reference.mangaIds());
+        }
+    }
+
+    private void save(String title, String oldName, String author, String description, Set<String> tags,
+                      boolean putaway) {
+        Manga manga = new Manga();
+        manga.setTitle(title);
+        manga.setOldName(oldName);
+        manga.setAuthor(author);
+        manga.setDescription(description);
+        manga.setCoverImageUrl("covers/search-equivalence.jpg");
+        manga.setTags(new HashSet<>(tags));
+        manga.setIsPutaway(putaway);
+        manga.setSortOrder(corpus.size() + 1);
+        corpus.put(title, mangaRepository.save(manga).getId());
+    }
+
+    private static Set<Long> ids(long[] ids) {
+        return Arrays.stream(ids).boxed().collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,87 @@
+package com.manga.service;
+
+import com.manga.AbstractIntegrationTest;
+import com.manga.cache.CachedResponse;
+import com.manga.cache.ResponseCacheFilter;
+import com.manga.entity.Manga;
+import com.manga.entity.User;
+import com.manga.repository.MangaRepository;
+import com.manga.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static com.manga.SqlStatementCounter.count;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 收藏 / 取消收藏不失效任何缓存：响应体缓存和漫画详情缓存保持不变，收藏数通过叠加实时更新
+ */
+class FavoriteCacheTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private MangaService mangaService;
+
+    @Autowired
+    private MangaRepository mangaRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Long mangaId;
+    private Long userId;
+    private String responseKey;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Manga manga = new Manga();
+        manga.setTitle("favorite-cache-" + run);
+        manga.setCoverImageUrl("covers/" + run + ".jpg");
+        mangaId = mangaRepository.save(manga).getId();
+
+        User user = new User();
+        user.setUsername("favorite-cache-" + run);
+        user.setPassword("x");
+        userId = userRepository.save(user).getId();
+
+        responseKey = "GET /api/manga?page=0&size=20&run=" + run;
+    }
+
+    @Test
+    void favoriteToggleLeavesResponseCacheIntact() {
+        Cache responses = cacheManager.getCache(ResponseCacheFilter.CACHE_NAME);
+        responses.put(responseKey, new CachedResponse("application/json",
+                "{\"data\":[]}".getBytes(StandardCharsets.UTF_8), false));
+
+        favoriteService.addFavorite(userId, mangaId);
+        assertThat(responses.get(responseKey, CachedResponse.class)).isNotNull();
+
+        favoriteService.removeFavorite(userId, mangaId);
+        assertThat(responses.get(responseKey, CachedResponse.class)).isNotNull();
+    }
+
+    @Test
+    void detailKeepsItsCacheEntryAndShowsTheLiveFavoriteCount() throws Exception {
+        assertThat(mangaService.getMangaById(mangaId).getFavoriteCount()).isZero();
+
+        favoriteService.addFavorite(userId, mangaId);
+        assertThat(count(() -> assertThat(mangaService.getMangaById(mangaId).getFavoriteCount()).isEqualTo(1)))
+                .isZero();
+
+        favoriteService.removeFavorite(userId, mangaId);
+        assertThat(count(() -> assertThat(mangaService.getMangaById(mangaId).getFavoriteCount()).isZero()))
+                .isZero();
+    }
+}
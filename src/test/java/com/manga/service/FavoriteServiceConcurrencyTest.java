@@ -0,0 +1,162 @@
+package com.manga.service;
+
+import com.manga.AbstractIntegrationTest;
+import com.manga.entity.Manga;
+import com.manga.entity.User;
+import com.manga.repository.MangaRepository;
+import com.manga.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 并发收藏 / 取消收藏后，manga.favorite_count 必须与 favorites 表中的行数完全一致
+ */
+class FavoriteServiceConcurrencyTest extends AbstractIntegrationTest {
+
+    private static final int USERS = 32;
+
+    private static final Set<String> EXPECTED_ERRORS = Set.of("Manga already in favorites", "Manga not in favorites");
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private MangaRepository mangaRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long mangaId;
+    private List<Long> userIds;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Manga manga = new Manga();
+        manga.setTitle("favorite-concurrency-" + run);
+        manga.setCoverImageUrl("covers/" + run + ".jpg");
+        mangaId = mangaRepository.save(manga).getId();
+
+        userIds = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("fav-" + run + "-" + i);
+            user.setPassword("x");
+            userIds.add(userRepository.save(user).getId());
+        }
+    }
+
+    @Test
+    void concurrentFavoritesFromDifferentUsersAreAllCounted() {
+        List<Throwable> unexpected = runConcurrently(USERS, i -> favoriteService.addFavorite(userIds.get(i), mangaId));
+
+        assertThat(unexpected).isEmpty();
+        assertThat(favoriteCount()).isEqualTo(USERS).isEqualTo(favoriteRows());
+    }
+
+    @Test
+    void repeatedClicksFromOneUserCountOnce() {
+        AtomicInteger rejected = new AtomicInteger();
+        List<Throwable> unexpected = runConcurrently(USERS, i -> {
+            try {
+                favoriteService.addFavorite(userIds.get(0), mangaId);
+            } catch (RuntimeException e) {
+                rejected.incrementAndGet();
+                throw e;
+            }
+        });
+
+        assertThat(unexpected).isEmpty();
+        assertThat(rejected).hasValue(USERS - 1);
+        assertThat(favoriteCount()).isEqualTo(1).isEqualTo(favoriteRows());
+    }
+
+    @Test
+    void interleavedAddAndRemoveLeaveExactCount() {
+        // 每个用户两个线程，随机收藏 / 取消收藏
+        List<Throwable> unexpected = runConcurrently(USERS * 2, i -> {
+            Long userId = userIds.get(i % USERS);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int op = 0; op < 20; op++) {
+                try {
+                    if (random.nextBoolean()) {
+                        favoriteService.addFavorite(userId, mangaId);
+                    } else {
+                        favoriteService.removeFavorite(userId, mangaId);
+                    }
+                } catch (RuntimeException e) {
+                    if (!EXPECTED_ERRORS.contains(e.getMessage())) {
+                        throw e;
+                    }
+                }
+            }
+        });
+
+        assertThat(unexpected).isEmpty();
+        assertThat(favoriteCount()).isEqualTo(favoriteRows());
+    }
+
+    private int favoriteCount() {
+        return jdbcTemplate.queryForObject("SELECT favorite_count FROM manga WHERE id = ?", Integer.class, mangaId);
+    }
+
+    private int favoriteRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM favorites WHERE manga_id = ?", Integer.class, mangaId);
+    }
+
+    /**
+     * 所有线程同时开始执行 task；返回业务预期之外的异常（死锁、锁等待超时等）
+     */
+    private static List<Throwable> runConcurrently(int threads, IntConsumer task) {
+        List<Throwable> unexpected = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        task.accept(index);
+                    } catch (RuntimeException e) {
+                        if (!EXPECTED_ERRORS.contains(e.getMessage())) {
+                            unexpected.add(e);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        unexpected.add(e);
+                    }
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return unexpected;
+    }
+}
@@ -0,0 +1,80 @@
+package com.manga.service;
+
+import com.manga.AbstractIntegrationTest;
+import com.manga.entity.Manga;
+import com.manga.repository.MangaRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.manga.SqlStatementCounter.count;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 列表页和按 id 加载的 SQL 条数固定，与页大小无关（没有逐条的标签懒加载）
+ *
+ * 分页列表：卡片 + 总数 + 批量标签 3 条；游标分页：卡片 + 批量标签 2 条；按 id 加载：IN 查询 + 批量标签 2 条。
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MangaQueryServiceSqlCountTest extends AbstractIntegrationTest {
+
+    private static final int MANGA = 25;
+
+    @Autowired
+    private MangaQueryService mangaQueryService;
+
+    @Autowired
+    private MangaRepository mangaRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final List<Long> mangaIds = new ArrayList<>();
+
+    @BeforeAll
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < MANGA; i++) {
+            Manga manga = new Manga();
+            manga.setTitle("sql-count-" + run + "-" + i);
+            manga.setCoverImageUrl("covers/" + run + "-" + i + ".jpg");
+            manga.setTags(new HashSet<>(Set.of("tag-a-" + run, "tag-b-" + (i % 3))));
+            mangaIds.add(mangaRepository.save(manga).getId());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 20})
+    void listPageRunsThreeStatements(int size) throws Exception {
+        cacheManager.getCache("mangaList").clear();
+
+        assertThat(count(() -> mangaQueryService.getAllMangaCached(PageRequest.of(0, size)))).isEqualTo(3);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 20})
+    void cursorPageRunsTwoStatements(int size) throws Exception {
+        cacheManager.getCache("mangaList").clear();
+
+        assertThat(count(() -> mangaQueryService.getAllMangaAfterCached(MangaCursor.START, size))).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 20})
+    void idOnlyPageRunsTwoStatements(int size) throws Exception {
+        List<Long> ids = mangaIds.subList(0, size);
+
+        assertThat(count(() -> assertThat(mangaQueryService.getPutawayMangaByIds(ids))
+                .extracting("id").containsExactlyElementsOf(ids))).isEqualTo(2);
+    }
+}
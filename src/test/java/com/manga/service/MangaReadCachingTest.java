@@ -0,0 +1,70 @@
+package com.manga.service;
+
+import com.manga.AbstractIntegrationTest;
+import com.manga.cache.TwoLevelCache;
+import com.manga.entity.Manga;
+import com.manga.repository.MangaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.UUID;
+
+import static com.manga.SqlStatementCounter.count;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 读路径缓存：第二次相同的请求不发出任何 SQL（L1 命中；丢弃 L1 后由 Redis 命中）
+ */
+class MangaReadCachingTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private MangaService mangaService;
+
+    @Autowired
+    private MangaRepository mangaRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Long mangaId;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Manga manga = new Manga();
+        manga.setTitle("read-caching-" + run);
+        manga.setCoverImageUrl("covers/" + run + ".jpg");
+        mangaId = mangaRepository.save(manga).getId();
+    }
+
+    @Test
+    void secondDetailRequestRunsNoSql() throws Exception {
+        assertThat(count(() -> mangaService.getMangaById(mangaId))).isPositive();
+        assertThat(count(() -> mangaService.getMangaById(mangaId))).isZero();
+    }
+
+    @Test
+    void detailIsServedFromRedisWhenLocalTierIsDropped() throws Exception {
+        mangaService.getMangaById(mangaId);
+        twoLevelCache("mangaDetail").evictLocal(mangaId);
+
+        assertThat(count(() -> mangaService.getMangaById(mangaId))).isZero();
+        // 回填后的 L1 同样命中
+        assertThat(count(() -> mangaService.getMangaById(mangaId))).isZero();
+    }
+
+    @Test
+    void secondListPageRequestRunsNoSql() throws Exception {
+        PageRequest pageable = PageRequest.of(0, 7);
+        mangaService.getAllManga(pageable);
+
+        assertThat(count(() -> mangaService.getAllManga(pageable))).isZero();
+    }
+
+    private TwoLevelCache twoLevelCache(String name) {
+        return (TwoLevelCache) cacheManager.getCache(name).getNativeCache();
+    }
+}